@@ -0,0 +1,8 @@
+package ru.bank.omniproductcatalog.model.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ProductBatchResponseDto {
+    private List<ProductResponseDto> products;
+    private List<Long> missingIds;
+
+    public ProductBatchResponseDto(List<ProductResponseDto> products, List<Long> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    public ProductBatchResponseDto() {
+    }
+
+    public List<ProductResponseDto> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductResponseDto> products) {
+        this.products = products;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductBatchResponseDto that = (ProductBatchResponseDto) o;
+        return Objects.equals(products, that.products) && Objects.equals(missingIds, that.missingIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(products, missingIds);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBatchResponseDto{" +
+                "products=" + products +
+                ", missingIds=" + missingIds +
+                '}';
+    }
+}
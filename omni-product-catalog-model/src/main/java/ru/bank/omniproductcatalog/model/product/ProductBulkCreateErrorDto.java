@@ -0,0 +1,56 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import ru.bank.omniproductcatalog.model.exception.ValidationError;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ProductBulkCreateErrorDto {
+    private Integer index;
+    private List<ValidationError> errors;
+
+    public ProductBulkCreateErrorDto(Integer index, List<ValidationError> errors) {
+        this.index = index;
+        this.errors = errors;
+    }
+
+    public ProductBulkCreateErrorDto() {
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ValidationError> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductBulkCreateErrorDto that = (ProductBulkCreateErrorDto) o;
+        return Objects.equals(index, that.index) && Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBulkCreateErrorDto{" +
+                "index=" + index +
+                ", errors=" + errors +
+                '}';
+    }
+}
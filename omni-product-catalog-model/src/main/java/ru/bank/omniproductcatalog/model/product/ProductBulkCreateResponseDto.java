@@ -0,0 +1,54 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ProductBulkCreateResponseDto {
+    private List<ProductResponseDto> created;
+    private List<ProductBulkCreateErrorDto> errors;
+
+    public ProductBulkCreateResponseDto(List<ProductResponseDto> created, List<ProductBulkCreateErrorDto> errors) {
+        this.created = created;
+        this.errors = errors;
+    }
+
+    public ProductBulkCreateResponseDto() {
+    }
+
+    public List<ProductResponseDto> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<ProductResponseDto> created) {
+        this.created = created;
+    }
+
+    public List<ProductBulkCreateErrorDto> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ProductBulkCreateErrorDto> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductBulkCreateResponseDto that = (ProductBulkCreateResponseDto) o;
+        return Objects.equals(created, that.created) && Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(created, errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBulkCreateResponseDto{" +
+                "created=" + created +
+                ", errors=" + errors +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package ru.bank.omniproductcatalog.model.product;
+
+public enum ProductLifecycleOutcome {
+    UPDATED,
+    UNCHANGED,
+    ALREADY_CLOSED,
+    NOT_FOUND
+}
@@ -0,0 +1,10 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import java.util.List;
+
+public record ProductLifecycleRequestDto(
+        List<Long> ids,
+        String type,
+        Boolean open
+) {
+}
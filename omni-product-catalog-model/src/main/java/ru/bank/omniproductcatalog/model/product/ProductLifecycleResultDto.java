@@ -0,0 +1,53 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import java.util.Objects;
+
+public class ProductLifecycleResultDto {
+    private Long id;
+    private ProductLifecycleOutcome outcome;
+
+    public ProductLifecycleResultDto(Long id, ProductLifecycleOutcome outcome) {
+        this.id = id;
+        this.outcome = outcome;
+    }
+
+    public ProductLifecycleResultDto() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ProductLifecycleOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(ProductLifecycleOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductLifecycleResultDto that = (ProductLifecycleResultDto) o;
+        return Objects.equals(id, that.id) && outcome == that.outcome;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, outcome);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductLifecycleResultDto{" +
+                "id=" + id +
+                ", outcome=" + outcome +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ProductPageResponseDto {
+    private List<ProductResponseDto> items;
+    private String nextCursor;
+
+    public ProductPageResponseDto(List<ProductResponseDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public ProductPageResponseDto() {
+    }
+
+    public List<ProductResponseDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductResponseDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductPageResponseDto that = (ProductPageResponseDto) o;
+        return Objects.equals(items, that.items) && Objects.equals(nextCursor, that.nextCursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPageResponseDto{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
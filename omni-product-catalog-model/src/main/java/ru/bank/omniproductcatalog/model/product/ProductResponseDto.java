@@ -10,6 +10,7 @@ public class ProductResponseDto {
     private String description;
     private Instant openDate;
     private Instant closeDate;
+    private Long version;
 
     public ProductResponseDto(Long id, String name, long productTypeId, String description, Instant openDate, Instant closeDate) {
         this.id = id;
@@ -20,6 +21,12 @@ public class ProductResponseDto {
         this.closeDate = closeDate;
     }
 
+    public ProductResponseDto(Long id, String name, long productTypeId, String description, Instant openDate, Instant closeDate,
+                              Long version) {
+        this(id, name, productTypeId, description, openDate, closeDate);
+        this.version = version;
+    }
+
     public ProductResponseDto() {
     }
 
@@ -71,17 +78,25 @@ public class ProductResponseDto {
         this.closeDate = closeDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ProductResponseDto that = (ProductResponseDto) o;
-        return productTypeId == that.productTypeId && Objects.equals(id, that.id) && Objects.equals(name, that.name) && Objects.equals(description, that.description) && Objects.equals(openDate, that.openDate) && Objects.equals(closeDate, that.closeDate);
+        return productTypeId == that.productTypeId && Objects.equals(id, that.id) && Objects.equals(name, that.name) && Objects.equals(description, that.description) && Objects.equals(openDate, that.openDate) && Objects.equals(closeDate, that.closeDate) && Objects.equals(version, that.version);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, productTypeId, description, openDate, closeDate);
+        return Objects.hash(id, name, productTypeId, description, openDate, closeDate, version);
     }
 
     @Override
@@ -93,6 +108,7 @@ public class ProductResponseDto {
                 ", description='" + description + '\'' +
                 ", openDate=" + openDate +
                 ", closeDate=" + closeDate +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,64 @@
+package ru.bank.omniproductcatalog.model.product;
+
+import java.util.Objects;
+
+public class ProductSuggestionDto {
+    private Long id;
+    private String name;
+    private long productTypeId;
+
+    public ProductSuggestionDto(Long id, String name, long productTypeId) {
+        this.id = id;
+        this.name = name;
+        this.productTypeId = productTypeId;
+    }
+
+    public ProductSuggestionDto() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getProductTypeId() {
+        return productTypeId;
+    }
+
+    public void setProductTypeId(long productTypeId) {
+        this.productTypeId = productTypeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductSuggestionDto that = (ProductSuggestionDto) o;
+        return productTypeId == that.productTypeId && Objects.equals(id, that.id) && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, productTypeId);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSuggestionDto{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", productTypeId=" + productTypeId +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package ru.bank.omniproductcatalog;
+
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.repository.Product;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products shaped like the catalog data, shared by the benchmarks.
+ */
+public final class BenchmarkProducts {
+    private static final Instant NOW = Instant.parse("2024-08-01T10:10:10Z");
+    private static final List<ProductType> TYPES = List.of(
+            new ProductType(1L, "card", "Карта", NOW, "omni", NOW, "omni"),
+            new ProductType(2L, "credit", "Кредит", NOW, "omni", NOW, "omni"),
+            new ProductType(3L, "deposit", "Вклад", NOW, "omni", NOW, "omni"));
+
+    private BenchmarkProducts() {
+    }
+
+    public static List<ProductType> productTypes() {
+        return TYPES;
+    }
+
+    public static Product product(long id) {
+        ProductType type = TYPES.get((int) (id % TYPES.size()));
+        return new Product(id, "Product " + id, type.getId(), "Description of product " + id,
+                NOW.plusSeconds(id), id % 5 == 0 ? NOW.plusSeconds(id + 3600) : null,
+                NOW, "omni", NOW, "omni", 0L, type);
+    }
+
+    public static ProductResponseDto response(long id) {
+        Product product = product(id);
+        return new ProductResponseDto(product.getId(), product.getName(), product.getProductTypeId(),
+                product.getDescription(), product.getOpenDate(), product.getCloseDate(), product.getVersion());
+    }
+
+    public static List<ProductResponseDto> responses(int size) {
+        List<ProductResponseDto> responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            responses.add(response(i));
+        }
+        return List.copyOf(responses);
+    }
+}
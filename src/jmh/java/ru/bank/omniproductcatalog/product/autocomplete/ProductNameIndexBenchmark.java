@@ -0,0 +1,92 @@
+package ru.bank.omniproductcatalog.product.autocomplete;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completions from a {@link ProductNameIndex} of a million Cyrillic product names: a one-letter prefix that
+ * matches a third of the catalog, a longer one, a typed-out name, a type-filtered prefix, the same prefix filtered by
+ * a type of one product in a thousand, and a write of a renamed product, which includes its share of the compactions
+ * into the base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductNameIndexBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int LIMIT = 10;
+    private static final int RARE_TYPE_EVERY = 1000;
+    private static final long RARE_TYPE_ID = 4;
+    private static final List<String> TYPE_NAMES = List.of("Карта", "Кредит", "Вклад");
+    private static final List<String> WORDS = List.of("Золотая", "Классическая", "Премиальная", "Надёжный",
+            "Молодёжная", "Ипотечный", "Потребительский", "Пенсионный", "Накопительный", "Семейная", "Цифровая");
+
+    private ProductNameIndex productNameIndex;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ProductResponseDto> products = new ArrayList<>(PRODUCTS);
+        for (long id = 0; id < PRODUCTS; id++) {
+            products.add(product(id, id));
+        }
+        ProductRepository productRepository = (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> Flux.fromIterable(products));
+        productNameIndex = new ProductNameIndex(productRepository, true, 600L);
+        productNameIndex.reload().block();
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDto> complete_oneLetter() {
+        return productNameIndex.complete("к", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDto> complete_word() {
+        return productNameIndex.complete("Надежн", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDto> complete_typedOutName() {
+        return productNameIndex.complete("Кредит Ипотечный 42", null, LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDto> complete_withProductType() {
+        return productNameIndex.complete("се", 3L, LIMIT);
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDto> complete_withRareProductType() {
+        return productNameIndex.complete("к", RARE_TYPE_ID, LIMIT);
+    }
+
+    @Benchmark
+    public void productSaved() {
+        long id = nextId++ % PRODUCTS;
+        productNameIndex.productSaved(product(id, id + 1));
+    }
+
+    private static ProductResponseDto product(long id, long nameSeed) {
+        String name = TYPE_NAMES.get((int) (id % TYPE_NAMES.size())) + " "
+                + WORDS.get((int) (nameSeed % WORDS.size())) + " " + id;
+        long productTypeId = id % RARE_TYPE_EVERY == 0 ? RARE_TYPE_ID : id % TYPE_NAMES.size() + 1;
+        return new ProductResponseDto(id, name, productTypeId, name, null, null);
+    }
+}
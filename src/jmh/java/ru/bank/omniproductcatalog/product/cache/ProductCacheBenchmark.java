@@ -0,0 +1,108 @@
+package ru.bank.omniproductcatalog.product.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.bank.omniproductcatalog.BenchmarkProducts;
+import ru.bank.omniproductcatalog.config.CacheConfig;
+import ru.bank.omniproductcatalog.config.ProductCacheWeigher;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The Caffeine caches of {@link CacheConfig}, with the sizes of {@code application.yml}, read through
+ * {@link ProductReactiveCache} as the service reads them: a hit by id, a bulk read of cached ids,
+ * a hit of a cached list, a miss by id that loads and stores a new entry, and the weigher of a cached list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductCacheBenchmark {
+    private static final int CACHED_PRODUCTS = 10_000;
+    private static final int LIST_SIZE = 1_000;
+    private static final int BULK_SIZE = 100;
+
+    private final AtomicLong missId = new AtomicLong(CACHED_PRODUCTS);
+    private final ProductCacheWeigher weigher = new ProductCacheWeigher();
+    private ProductReactiveCache productReactiveCache;
+    private List<ProductResponseDto> list;
+    private List<Long> bulkIds;
+    private Function<Set<Long>, Mono<Map<Long, ProductResponseDto>>> noLoad;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheConfig cacheConfig = new CacheConfig();
+        setField(cacheConfig, "productByIdTtl", 3600L);
+        setField(cacheConfig, "productByIdMaxSize", 10_000L);
+        setField(cacheConfig, "productListTtl", 3600L);
+        setField(cacheConfig, "productListMaxWeight", 67_108_864L);
+        CacheManager cacheManager = cacheConfig.cacheManager();
+        productReactiveCache = new ProductReactiveCache(cacheManager, new SimpleMeterRegistry());
+
+        for (long id = 0; id < CACHED_PRODUCTS; id++) {
+            ProductResponseDto product = BenchmarkProducts.response(id);
+            productReactiveCache.getById(id, () -> Mono.just(product)).block();
+        }
+        list = BenchmarkProducts.responses(LIST_SIZE);
+        productReactiveCache.getList("card", () -> Flux.fromIterable(list)).then().block();
+        bulkIds = new ArrayList<>(BULK_SIZE);
+        for (long id = 0; id < BULK_SIZE; id++) {
+            bulkIds.add(id * (CACHED_PRODUCTS / BULK_SIZE));
+        }
+        noLoad = missing -> Mono.error(new IllegalStateException("Expected only cached ids, missing " + missing));
+    }
+
+    @Benchmark
+    public ProductResponseDto getById_hit() {
+        return productReactiveCache.getById(42L, Mono::empty).block();
+    }
+
+    @Benchmark
+    public Map<Long, ProductResponseDto> getAllById_hit() {
+        return productReactiveCache.getAllById(bulkIds, noLoad).block();
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> getList_hit() {
+        return productReactiveCache.getList("card", Flux::empty).collectList().block();
+    }
+
+    /**
+     * Every call misses with a new id, so it also measures the insert and, once the cache is full, the eviction.
+     */
+    @Benchmark
+    public ProductResponseDto getById_missAndLoad() {
+        long id = missId.getAndIncrement();
+        ProductResponseDto product = BenchmarkProducts.response(id);
+        return productReactiveCache.getById(id, () -> Mono.just(product)).block();
+    }
+
+    @Benchmark
+    public int weighList() {
+        return weigher.weigh("card", list);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
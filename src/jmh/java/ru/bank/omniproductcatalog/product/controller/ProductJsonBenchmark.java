@@ -0,0 +1,63 @@
+package ru.bank.omniproductcatalog.product.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.bank.omniproductcatalog.BenchmarkProducts;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product lists, configured like the application's {@code ObjectMapper}:
+ * the whole list as one JSON array, as {@code GET /api/v1/products} returns it, and one document per product,
+ * as the NDJSON stream writes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductJsonBenchmark {
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+    private ObjectWriter productWriter;
+    private List<ProductResponseDto> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        listWriter = objectMapper.writerFor(new TypeReference<List<ProductResponseDto>>() {
+        });
+        productWriter = objectMapper.writerFor(ProductResponseDto.class);
+        products = BenchmarkProducts.responses(size);
+    }
+
+    @Benchmark
+    public byte[] jsonArray() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public void ndjson(Blackhole blackhole) throws JsonProcessingException {
+        for (ProductResponseDto product : products) {
+            blackhole.consume(productWriter.writeValueAsBytes(product));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.bank.omniproductcatalog.product.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import ru.bank.omniproductcatalog.model.exception.ValidationError;
+import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request validation of {@link ProductController}, for a valid request and for one that fails every check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductValidationBenchmark {
+    private final ProductController productController = new ProductController(null, null, 20000L, 50, 500, 100, 5000, 5000, 128, 10, 50);
+    private final NewProductRequestDto validNewRequest = new NewProductRequestDto("New card", 1L, "New card description", true);
+    private final NewProductRequestDto invalidNewRequest = new NewProductRequestDto("ab", 1L, " ", true);
+    private final UpdateProductRequestDto validUpdateRequest = new UpdateProductRequestDto("Renamed card", "Renamed card description", null);
+    private final UpdateProductRequestDto invalidUpdateRequest = new UpdateProductRequestDto("ab", "cd", null);
+
+    @Benchmark
+    public List<ValidationError> validateNewRequest_valid() {
+        return productController.validateNewRequest(validNewRequest);
+    }
+
+    @Benchmark
+    public List<ValidationError> validateNewRequest_invalid() {
+        return productController.validateNewRequest(invalidNewRequest);
+    }
+
+    @Benchmark
+    public List<ValidationError> validateUpdateRequest_valid() {
+        return productController.validateUpdateRequest(validUpdateRequest);
+    }
+
+    @Benchmark
+    public List<ValidationError> validateUpdateRequest_invalid() {
+        return productController.validateUpdateRequest(invalidUpdateRequest);
+    }
+}
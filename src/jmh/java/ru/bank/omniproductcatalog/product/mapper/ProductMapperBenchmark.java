@@ -0,0 +1,36 @@
+package ru.bank.omniproductcatalog.product.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import ru.bank.omniproductcatalog.BenchmarkProducts;
+import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.repository.Product;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the generated {@link ProductMapper} per product, in both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductMapperBenchmark {
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final Product product = BenchmarkProducts.product(1L);
+    private final NewProductRequestDto request = new NewProductRequestDto("New card", 1L, "New card description", true);
+
+    @Benchmark
+    public ProductResponseDto toProductResponseDto() {
+        return productMapper.toProductResponseDto(product);
+    }
+
+    @Benchmark
+    public Product toProduct() {
+        return productMapper.toProduct(request);
+    }
+}
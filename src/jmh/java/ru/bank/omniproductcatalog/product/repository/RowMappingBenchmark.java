@@ -0,0 +1,169 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.mapper.ProductMapper;
+import ru.bank.omniproductcatalog.product.mapper.ProductMapperImpl;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeSnapshot;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of mapping a large result set to products.
+ * <p>
+ * The rows hold already decoded values and resolve a column name the way the r2dbc-postgresql row does,
+ * lower-casing it and looking it up in a map shared by the rows of a result, so the benchmark measures
+ * only the mapping and leaves out the decoding, which is the same for every variant.
+ * <ul>
+ *     <li>{@code byNameWithBuilders}: aliased columns read by name, a product type and a product built
+ *     with builders per row, then mapped to the response, as the repository did before the query layer.</li>
+ *     <li>{@code byPositionToEntity}: {@link ProductRowMapper#toProduct} with the canonical product types,
+ *     then mapped to the response.</li>
+ *     <li>{@code byPositionToResponse}: {@link ProductRowMapper#toResponse}, straight to the response.</li>
+ * </ul>
+ * Run with {@code gradle jmh -PjmhIncludes=RowMappingBenchmark}; the gc profiler reports the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowMappingBenchmark {
+    private static final String[] LEGACY_COLUMNS = {"p_id", "p_name", "p_product_type_id", "p_description",
+            "p_open_date", "p_close_date", "p_create_time", "p_create_user", "p_last_modify_time",
+            "p_last_modify_user", "p_version", "pt_id", "pt_name", "pt_description", "pt_create_time",
+            "pt_create_user", "pt_last_modify_time", "pt_last_modify_user"};
+    private static final String[] PRODUCT_COLUMNS = {"product_id", "name", "product_type_id", "description",
+            "open_date", "close_date", "create_time", "create_user", "last_modify_time", "last_modify_user", "version"};
+    private static final String[] RESPONSE_COLUMNS = {"product_id", "name", "product_type_id", "description",
+            "open_date", "close_date", "version"};
+
+    @Param({"10000"})
+    private int rows;
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private ProductTypeSnapshot productTypes;
+    private List<Row> legacyRows;
+    private List<Row> productRows;
+    private List<Row> responseRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Instant now = Instant.parse("2024-08-01T10:10:10Z");
+        List<ProductType> types = List.of(
+                new ProductType(1L, "card", "Карта", now, "omni", now, "omni"),
+                new ProductType(2L, "credit", "Кредит", now, "omni", now, "omni"),
+                new ProductType(3L, "deposit", "Вклад", now, "omni", now, "omni"));
+        productTypes = ProductTypeSnapshot.of(types);
+
+        Map<String, Integer> legacyIndex = columnIndex(LEGACY_COLUMNS);
+        Map<String, Integer> productIndex = columnIndex(PRODUCT_COLUMNS);
+        Map<String, Integer> responseIndex = columnIndex(RESPONSE_COLUMNS);
+        legacyRows = new ArrayList<>(rows);
+        productRows = new ArrayList<>(rows);
+        responseRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            ProductType type = types.get(i % types.size());
+            Instant openDate = now.plusSeconds(i);
+            Object[] product = {(long) i, "Product " + i, type.getId(), "Description " + i, openDate, null,
+                    now, "omni", now, "omni", 0L};
+            Object[] legacy = new Object[LEGACY_COLUMNS.length];
+            System.arraycopy(product, 0, legacy, 0, product.length);
+            System.arraycopy(new Object[]{type.getId(), type.getName(), type.getDescription(), now, "omni", now, "omni"},
+                    0, legacy, product.length, 7);
+            Object[] response = {(long) i, "Product " + i, type.getId(), "Description " + i, openDate, null, 0L};
+            legacyRows.add(new DecodedRow(legacy, legacyIndex));
+            productRows.add(new DecodedRow(product, productIndex));
+            responseRows.add(new DecodedRow(response, responseIndex));
+        }
+    }
+
+    @Benchmark
+    public void byNameWithBuilders(Blackhole blackhole) {
+        for (Row row : legacyRows) {
+            blackhole.consume(productMapper.toProductResponseDto(mapByName(row)));
+        }
+    }
+
+    @Benchmark
+    public void byPositionToEntity(Blackhole blackhole) {
+        for (Row row : productRows) {
+            blackhole.consume(productMapper.toProductResponseDto(ProductRowMapper.toProduct(row, productTypes)));
+        }
+    }
+
+    @Benchmark
+    public void byPositionToResponse(Blackhole blackhole) {
+        for (Row row : responseRows) {
+            ProductResponseDto response = ProductRowMapper.toResponse(row);
+            blackhole.consume(response);
+        }
+    }
+
+    private static Product mapByName(Row row) {
+        ProductType productType = ProductType.builder()
+                .id(row.get("pt_id", Long.class))
+                .name(row.get("pt_name", String.class))
+                .description(row.get("pt_description", String.class))
+                .createTime(row.get("pt_create_time", Instant.class))
+                .createUser(row.get("pt_create_user", String.class))
+                .lastModifyTime(row.get("pt_last_modify_time", Instant.class))
+                .lastModifyUser(row.get("pt_last_modify_user", String.class))
+                .build();
+        return Product.builder()
+                .id(row.get("p_id", Long.class))
+                .name(row.get("p_name", String.class))
+                .productTypeId(row.get("p_product_type_id", Long.class))
+                .description(row.get("p_description", String.class))
+                .openDate(row.get("p_open_date", Instant.class))
+                .closeDate(row.get("p_close_date", Instant.class))
+                .createTime(row.get("p_create_time", Instant.class))
+                .createUser(row.get("p_create_user", String.class))
+                .lastModifyTime(row.get("p_last_modify_time", Instant.class))
+                .lastModifyUser(row.get("p_last_modify_user", String.class))
+                .version(row.get("p_version", Long.class))
+                .productType(productType)
+                .build();
+    }
+
+    private static Map<String, Integer> columnIndex(String[] columns) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            index.put(columns[i], i);
+        }
+        return Map.copyOf(index);
+    }
+
+    private record DecodedRow(Object[] values, Map<String, Integer> columnIndex) implements Row {
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(columnIndex.get(name.toLowerCase(Locale.ROOT)), type);
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
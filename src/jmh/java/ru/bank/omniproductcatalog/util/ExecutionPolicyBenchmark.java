@@ -0,0 +1,72 @@
+package ru.bank.omniproductcatalog.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import ru.bank.omniproductcatalog.BenchmarkProducts;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service call through {@link MonoUtils} with each {@link ExecutionPolicy}: the result is produced on an
+ * event loop sized like the Netty one and handed over as the policy says. Throughput and the sampled latency
+ * percentiles (p99 among them) are reported for concurrent callers, a single product and a page of products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ExecutionPolicyBenchmark {
+    private static final long TIMEOUT_MS = 20_000L;
+
+    @Param({"EVENT_LOOP", "PARALLEL", "BOUNDED_ELASTIC", "VIRTUAL_THREADS"})
+    private ExecutionPolicy policy;
+
+    private Scheduler eventLoop;
+    private ExecutionSchedulers executionSchedulers;
+    private MonoUtils monoUtils;
+    private ProductResponseDto product;
+    private List<ProductResponseDto> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventLoop = Schedulers.newParallel("event-loop", Runtime.getRuntime().availableProcessors());
+        executionSchedulers = new ExecutionSchedulers(policy, Map.of());
+        monoUtils = new MonoUtils(executionSchedulers);
+        product = BenchmarkProducts.response(42L);
+        page = BenchmarkProducts.responses(50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executionSchedulers.dispose();
+        eventLoop.dispose();
+    }
+
+    @Benchmark
+    public ProductResponseDto getProductById() {
+        Mono<ProductResponseDto> result = Mono.fromSupplier(() -> product).subscribeOn(eventLoop);
+        return monoUtils.oksServiceCallableRight("get_product_by_id", result, TIMEOUT_MS).block();
+    }
+
+    @Benchmark
+    public List<ProductResponseDto> getProductsPage() {
+        Flux<ProductResponseDto> result = Flux.fromIterable(page).subscribeOn(eventLoop);
+        return monoUtils.oksServiceCallableRight("get_products_page", result, TIMEOUT_MS).collectList().block();
+    }
+}
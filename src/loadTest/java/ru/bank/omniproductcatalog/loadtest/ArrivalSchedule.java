@@ -0,0 +1,29 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Time between the scheduled starts of two requests, as a function of the time since the scenario started.
+ * The schedule never depends on responses, so a slow server gets more concurrent requests, not fewer.
+ */
+@FunctionalInterface
+public interface ArrivalSchedule {
+
+    long intervalNanos(long elapsedNanos);
+
+    static ArrivalSchedule constant(int rate) {
+        long interval = 1_000_000_000L / rate;
+        return elapsedNanos -> interval;
+    }
+
+    /**
+     * The base rate, multiplied by {@code factor} for {@code length} at the start of every {@code every}.
+     */
+    static ArrivalSchedule bursts(int rate, int factor, Duration every, Duration length) {
+        long base = 1_000_000_000L / rate;
+        long burst = 1_000_000_000L / ((long) rate * factor);
+        long period = every.toNanos();
+        long burstLength = length.toNanos();
+        return elapsedNanos -> elapsedNanos % period < burstLength ? burst : base;
+    }
+}
@@ -0,0 +1,192 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+import ru.bank.omniproductcatalog.product.repository.ProductKeyset;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * One operation per {@code ProductController} endpoint. Each call of an operation builds a new request,
+ * and the response body is read completely, so a latency covers the whole response.
+ */
+public class CatalogOperations {
+    /**
+     * Open date of the first seeded product, every next one opens a minute later.
+     */
+    public static final Instant SEED_OPEN_DATE = Instant.parse("2024-01-01T00:00:00Z");
+    private static final String PRODUCTS = "/api/v1/products";
+    private static final List<String> TYPES = List.of("card", "credit", "deposit");
+    private static final int HOT_IDS = 100;
+    private static final int BATCH_SIZE = 20;
+    private static final int BULK_CREATE_SIZE = 20;
+    private static final int LIFECYCLE_SIZE = 5;
+    private static final int PAGE_SIZE = 50;
+
+    private final WebClient client;
+    private final long firstId;
+    private final int catalogSize;
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    public CatalogOperations(WebClient client, long firstId, int catalogSize) {
+        this.client = client;
+        this.firstId = firstId;
+        this.catalogSize = catalogSize;
+    }
+
+    public record Operation(String endpoint, Supplier<Mono<Integer>> request) {
+    }
+
+    public LongSupplier hotIds() {
+        int hot = Math.min(HOT_IDS, catalogSize);
+        return () -> firstId + ThreadLocalRandom.current().nextInt(hot);
+    }
+
+    public LongSupplier anyIds() {
+        return () -> firstId + ThreadLocalRandom.current().nextInt(catalogSize);
+    }
+
+    public Operation getById(LongSupplier ids) {
+        return new Operation("GET /products/{id}", () -> exchange(client.get()
+                .uri(PRODUCTS + "/{id}", ids.getAsLong())));
+    }
+
+    public Operation getAll() {
+        return new Operation("GET /products", () -> exchange(client.get()
+                .uri(PRODUCTS)
+                .accept(MediaType.APPLICATION_JSON)));
+    }
+
+    public Operation getByType() {
+        return new Operation("GET /products?type", () -> exchange(client.get()
+                .uri(PRODUCTS + "?type={type}", randomType())
+                .accept(MediaType.APPLICATION_JSON)));
+    }
+
+    public Operation streamByType() {
+        return new Operation("GET /products?type (ndjson)", () -> exchange(client.get()
+                .uri(PRODUCTS + "?type={type}", randomType())
+                .accept(MediaType.APPLICATION_NDJSON)));
+    }
+
+    public Operation firstPage() {
+        return new Operation("GET /products/page", () -> exchange(client.get()
+                .uri(PRODUCTS + "/page?type={type}&limit={limit}", randomType(), PAGE_SIZE)));
+    }
+
+    /**
+     * A page that starts after a random product of the catalog, like a client that has already paged that far.
+     */
+    public Operation nextPage() {
+        return new Operation("GET /products/page?cursor", () -> {
+            long index = ThreadLocalRandom.current().nextInt(catalogSize);
+            String cursor = new ProductKeyset(SEED_OPEN_DATE.plus(index, ChronoUnit.MINUTES), firstId + index).toCursor();
+            return exchange(client.get()
+                    .uri(PRODUCTS + "/page?cursor={cursor}&limit={limit}", cursor, PAGE_SIZE));
+        });
+    }
+
+    public Operation getBatch(LongSupplier ids) {
+        return new Operation("GET /products/batch", () -> {
+            String batch = randomIds(ids, BATCH_SIZE).stream().map(String::valueOf).collect(Collectors.joining(","));
+            return exchange(client.get()
+                    .uri(PRODUCTS + "/batch?ids={ids}", batch));
+        });
+    }
+
+    public Operation create() {
+        return new Operation("POST /products", () -> client.post()
+                .uri(PRODUCTS)
+                .bodyValue(newProduct())
+                .exchangeToMono(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return status(response);
+                    }
+                    return response.bodyToMono(ProductResponseDto.class)
+                            .doOnNext(product -> createdIds.add(product.getId()))
+                            .thenReturn(response.statusCode().value());
+                }));
+    }
+
+    public Operation bulkCreate() {
+        return new Operation("POST /products/batch", () -> {
+            List<NewProductRequestDto> products = new ArrayList<>(BULK_CREATE_SIZE);
+            for (int i = 0; i < BULK_CREATE_SIZE; i++) {
+                products.add(newProduct());
+            }
+            return exchange(client.post()
+                    .uri(PRODUCTS + "/batch")
+                    .bodyValue(products));
+        });
+    }
+
+    public Operation update(LongSupplier ids) {
+        return new Operation("PUT /products/{id}", () -> {
+            long id = ids.getAsLong();
+            return exchange(client.put()
+                    .uri(PRODUCTS + "/{id}", id)
+                    .bodyValue(new UpdateProductRequestDto("Updated product " + id,
+                            "Updated at " + Instant.now(), null)));
+        });
+    }
+
+    public Operation changeLifecycle(LongSupplier ids) {
+        return new Operation("POST /products/lifecycle", () -> exchange(client.post()
+                .uri(PRODUCTS + "/lifecycle")
+                .bodyValue(new ProductLifecycleRequestDto(randomIds(ids, LIFECYCLE_SIZE), null,
+                        ThreadLocalRandom.current().nextBoolean()))));
+    }
+
+    /**
+     * Deletes a product created earlier in the run, or a catalog product if none is left.
+     */
+    public Operation delete(LongSupplier ids) {
+        return new Operation("DELETE /products/{id}", () -> {
+            Long created = createdIds.poll();
+            return exchange(client.delete()
+                    .uri(PRODUCTS + "/{id}", created != null ? created : ids.getAsLong()));
+        });
+    }
+
+    private static Mono<Integer> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(CatalogOperations::status);
+    }
+
+    private static Mono<Integer> status(ClientResponse response) {
+        return response.releaseBody()
+                .thenReturn(response.statusCode().value());
+    }
+
+    private static NewProductRequestDto newProduct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new NewProductRequestDto("Load test product " + random.nextInt(1_000_000),
+                random.nextLong(1, TYPES.size() + 1), "Created by the load test", random.nextBoolean());
+    }
+
+    private static List<Long> randomIds(LongSupplier ids, int size) {
+        List<Long> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ids.getAsLong());
+        }
+        return result;
+    }
+
+    private static String randomType() {
+        return TYPES.get(ThreadLocalRandom.current().nextInt(TYPES.size()));
+    }
+}
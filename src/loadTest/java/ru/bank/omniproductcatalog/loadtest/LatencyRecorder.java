@@ -0,0 +1,86 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per endpoint of one scenario. A latency is measured from the time the request was
+ * scheduled to start, not from the time it was sent, so a stall of the generator or of the client
+ * shows up in the latencies instead of silently lowering the rate.
+ */
+public class LatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_US = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void recordResponse(String endpoint, long scheduledNanos, int status) {
+        EndpointStats stats = stats(endpoint);
+        stats.histogram.recordValue(Math.min(elapsedMicros(scheduledNanos), HIGHEST_TRACKABLE_US));
+        stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /**
+     * A request that failed without a response, including one that timed out.
+     */
+    public void recordFailure(String endpoint, long scheduledNanos) {
+        EndpointStats stats = stats(endpoint);
+        stats.histogram.recordValue(Math.min(elapsedMicros(scheduledNanos), HIGHEST_TRACKABLE_US));
+        stats.failures.increment();
+    }
+
+    public Map<String, LoadTestReport.EndpointResult> results() {
+        Map<String, LoadTestReport.EndpointResult> results = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> results.put(endpoint, stats.result()));
+        return results;
+    }
+
+    private EndpointStats stats(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+    }
+
+    private static long elapsedMicros(long scheduledNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+    }
+
+    private static final class EndpointStats {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_US, 3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder failures = new LongAdder();
+
+        private LoadTestReport.EndpointResult result() {
+            long errors = failures.sum();
+            long clientErrors = 0;
+            Map<String, Long> statusCounts = new TreeMap<>();
+            for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+                long count = entry.getValue().sum();
+                statusCounts.put(String.valueOf(entry.getKey()), count);
+                if (entry.getKey() >= 500) {
+                    errors += count;
+                } else if (entry.getKey() >= 400) {
+                    clientErrors += count;
+                }
+            }
+            return new LoadTestReport.EndpointResult(
+                    histogram.getTotalCount(),
+                    errors,
+                    clientErrors,
+                    statusCounts,
+                    millis(histogram.getMean()),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(double micros) {
+            return Math.round(micros) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties, which the {@code loadTest}
+ * Gradle task passes through from {@code -Ploadtest.*} project properties.
+ *
+ * @param catalogSize   products seeded before the first scenario
+ * @param rate          requests per second each scenario starts, regardless of how fast responses come back
+ * @param duration      length of each scenario
+ * @param cacheTtl      TTL of the product caches, the cold read scenario waits this long before it starts
+ * @param burstFactor   rate multiplier during a burst of the write scenario
+ * @param burstEvery    time from the start of one burst to the start of the next
+ * @param burstLength   length of a burst
+ * @param requestTimeout a request still running after this long is counted as an error
+ * @param scenarios     names of the scenarios to run, in order
+ * @param modes         data access modes to run all scenarios in, each against a new database: {@code r2dbc},
+ *                      or the name of a Spring profile such as {@code jdbc}
+ * @param report        file the JSON report is written to
+ * @param databaseUrl   {@code jdbc:postgresql://} URL of a database to run against instead of a new container,
+ *                      {@code null} for a container; its products are deleted before the catalog is seeded
+ * @param databaseUsername user of {@code databaseUrl}
+ * @param databasePassword password of {@code databaseUrl}, left out of the report
+ */
+public record LoadTestConfig(int catalogSize,
+                             int rate,
+                             Duration duration,
+                             Duration cacheTtl,
+                             int burstFactor,
+                             Duration burstEvery,
+                             Duration burstLength,
+                             Duration requestTimeout,
+                             List<String> scenarios,
+                             List<String> modes,
+                             Path report,
+                             String databaseUrl,
+                             String databaseUsername,
+                             @JsonIgnore String databasePassword) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.catalog_size", 10_000),
+                Integer.getInteger("loadtest.rate", 200),
+                Duration.ofSeconds(Long.getLong("loadtest.duration_s", 60L)),
+                Duration.ofSeconds(Long.getLong("loadtest.cache_ttl_s", 10L)),
+                Integer.getInteger("loadtest.burst_factor", 5),
+                Duration.ofSeconds(Long.getLong("loadtest.burst_every_s", 10L)),
+                Duration.ofSeconds(Long.getLong("loadtest.burst_length_s", 2L)),
+                Duration.ofSeconds(Long.getLong("loadtest.request_timeout_s", 30L)),
+                List.of(System.getProperty("loadtest.scenarios", "cache-hot-reads,cold-reads,write-burst").split(",")),
+                List.of(System.getProperty("loadtest.modes", "r2dbc").split(",")),
+                Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/report.json")),
+                System.getProperty("loadtest.database_url"),
+                System.getProperty("loadtest.database_username", "postgres"),
+                System.getProperty("loadtest.database_password", "postgres"));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load test run, written as JSON. Latencies are in milliseconds.
+ */
+public record LoadTestReport(Instant startedAt,
+                             LoadTestConfig config,
+                             List<ModeResult> modes) {
+
+    /**
+     * @param mode {@code r2dbc}, or the Spring profile the application ran with, such as {@code jdbc}
+     */
+    public record ModeResult(String mode,
+                             List<ScenarioResult> scenarios) {
+    }
+
+    /**
+     * @param scheduled requests the arrival schedule started
+     * @param lateStarts requests the generator started more than a millisecond after their scheduled time
+     * @param throughputPerS responses with a 2xx or 3xx status per second
+     */
+    public record ScenarioResult(String name,
+                                 String description,
+                                 double durationS,
+                                 long scheduled,
+                                 long lateStarts,
+                                 double throughputPerS,
+                                 MemoryResult memory,
+                                 Map<String, EndpointResult> endpoints) {
+    }
+
+    /**
+     * @param errors       requests that failed without a response or with a 5xx status
+     * @param clientErrors responses with a 4xx status, such as a delete of a product deleted already
+     */
+    public record EndpointResult(long count,
+                                 long errors,
+                                 long clientErrors,
+                                 Map<String, Long> statuses,
+                                 double meanMs,
+                                 double p50Ms,
+                                 double p90Ms,
+                                 double p99Ms,
+                                 double p999Ms,
+                                 double maxMs) {
+    }
+
+    /**
+     * @param allocatedMb         heap allocated during the scenario, by virtual threads too
+     * @param peakHeapMb          highest heap use during the scenario
+     * @param peakPlatformThreads highest number of live platform threads, virtual threads are not counted
+     */
+    public record MemoryResult(double allocatedMb,
+                               double peakHeapMb,
+                               int peakPlatformThreads,
+                               long gcCount,
+                               long gcTimeMs) {
+    }
+}
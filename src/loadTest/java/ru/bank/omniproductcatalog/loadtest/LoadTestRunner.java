@@ -0,0 +1,188 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.bank.omniproductcatalog.OmniProductCatalogApplication;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts PostgreSQL in a container and the application on a random port, seeds the catalog, runs the
+ * configured scenarios one after another against the HTTP API and writes a JSON report. With
+ * {@code -Ploadtest.database_url} the run uses that database instead of a container, and its products are
+ * replaced by the seeded ones. With several
+ * modes, for example {@code -Ploadtest.modes=r2dbc,jdbc}, the whole run is repeated per mode and the
+ * modes are printed one after another for a side-by-side comparison.
+ * Run with {@code gradle loadTest -Ploadtest.rate=500 -Ploadtest.duration_s=120}.
+ */
+@Slf4j
+public class LoadTestRunner {
+    private static final int MAX_CONNECTIONS = 1_000;
+    private static final String R2DBC_MODE = "r2dbc";
+    private static final String CLEAR_PRODUCTS = "TRUNCATE product";
+    private static final String SEED_PRODUCTS = "INSERT INTO product (name, product_type_id, description, open_date, " +
+            "create_user, last_modify_user) " +
+            "SELECT 'Product ' || g, g % 3 + 1, 'Seeded by the load test', $1 + g * INTERVAL '1 minute', " +
+            "'loadtest', 'loadtest' " +
+            "FROM generate_series(0, $2 - 1) AS g";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Instant startedAt = Instant.now();
+        List<LoadTestReport.ModeResult> modes = new ArrayList<>();
+        for (String mode : config.modes()) {
+            modes.add(new LoadTestReport.ModeResult(mode.trim(), run(mode.trim(), config)));
+        }
+        modes.forEach(LoadTestRunner::print);
+        write(new LoadTestReport(startedAt, config, modes), config.report());
+    }
+
+    /**
+     * Runs all scenarios in one mode, against a new database or a reseeded one, so every mode starts from the
+     * same catalog.
+     */
+    private static List<LoadTestReport.ScenarioResult> run(String mode, LoadTestConfig config) throws InterruptedException {
+        if (config.databaseUrl() != null) {
+            return run(mode, config, config.databaseUrl(), config.databaseUsername(), config.databasePassword());
+        }
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            return run(mode, config, postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        }
+    }
+
+    private static List<LoadTestReport.ScenarioResult> run(String mode, LoadTestConfig config, String jdbcUrl,
+                                                           String username, String password) throws InterruptedException {
+        try (ReactiveWebServerApplicationContext context = startApplication(jdbcUrl, username, password, config, mode)) {
+            long firstId = seed(context.getBean(DatabaseClient.class), config.catalogSize());
+            CatalogOperations ops = new CatalogOperations(webClient(context.getWebServer().getPort(), config),
+                    firstId, config.catalogSize());
+            OpenModelDriver driver = new OpenModelDriver(config.requestTimeout());
+
+            List<LoadTestReport.ScenarioResult> results = new ArrayList<>();
+            for (String name : config.scenarios()) {
+                Scenario scenario = Scenario.byName(name, ops, config);
+                if (!scenario.delay().isZero()) {
+                    log.info("Waiting {} before scenario {}", scenario.delay(), scenario.name());
+                    Thread.sleep(scenario.delay().toMillis());
+                }
+                log.info("Running scenario {} in mode {} at {} requests/s for {}", scenario.name(), mode,
+                        config.rate(), config.duration());
+                results.add(driver.run(scenario, config.duration()));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * @param jdbcUrl {@code jdbc:postgresql://} URL of the database, the R2DBC URL is derived from it
+     */
+    private static ReactiveWebServerApplicationContext startApplication(String jdbcUrl, String username,
+                                                                         String password, LoadTestConfig config,
+                                                                         String mode) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.r2dbc.url", "r2dbc:" + jdbcUrl.substring("jdbc:".length()));
+        properties.put("spring.r2dbc.username", username);
+        properties.put("spring.r2dbc.password", password);
+        properties.put("spring.liquibase.url", jdbcUrl);
+        properties.put("spring.liquibase.user", username);
+        properties.put("spring.liquibase.password", password);
+        properties.put("application.cache.product_by_id.ttl_s", config.cacheTtl().toSeconds());
+        properties.put("application.cache.product_list_by_type.ttl_s", config.cacheTtl().toSeconds());
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.ru.bank.omniproductcatalog.loadtest", "INFO");
+        SpringApplicationBuilder application = new SpringApplicationBuilder(OmniProductCatalogApplication.class)
+                .properties(properties);
+        if (!R2DBC_MODE.equals(mode)) {
+            application.profiles(mode);
+        }
+        return (ReactiveWebServerApplicationContext) application.run();
+    }
+
+    /**
+     * Replaces the products with a catalog seeded in one statement and returns the id of the first seeded product.
+     * The seeded ids are consecutive, and the product {@code i} opens {@code i} minutes after
+     * {@link CatalogOperations#SEED_OPEN_DATE}.
+     */
+    private static long seed(DatabaseClient databaseClient, int catalogSize) {
+        log.info("Seeding {} products", catalogSize);
+        databaseClient.sql(CLEAR_PRODUCTS)
+                .fetch()
+                .rowsUpdated()
+                .block();
+        databaseClient.sql(SEED_PRODUCTS)
+                .bind(0, LocalDateTime.ofInstant(CatalogOperations.SEED_OPEN_DATE, ZoneOffset.UTC))
+                .bind(1, catalogSize)
+                .fetch()
+                .rowsUpdated()
+                .block();
+        return databaseClient.sql("SELECT min(product_id) FROM product")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private static WebClient webClient(int port, LoadTestConfig config) {
+        ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+                .maxConnections(MAX_CONNECTIONS)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(config.requestTimeout())
+                .build();
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(HttpHeaders.USER_AGENT, "omni-product-catalog-loadtest")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+    }
+
+    private static void print(LoadTestReport.ModeResult mode) {
+        for (LoadTestReport.ScenarioResult result : mode.scenarios()) {
+            LoadTestReport.MemoryResult memory = result.memory();
+            log.info("Mode {}, scenario {}: {} requests in {} s, {} started late, {} responses/s", mode.mode(),
+                    result.name(), result.scheduled(), String.format("%.1f", result.durationS()), result.lateStarts(),
+                    result.throughputPerS());
+            log.info("  memory: allocated={}MB peakHeap={}MB peakPlatformThreads={} gc={} in {}ms",
+                    String.format("%.0f", memory.allocatedMb()), String.format("%.0f", memory.peakHeapMb()),
+                    memory.peakPlatformThreads(), memory.gcCount(), memory.gcTimeMs());
+            result.endpoints().forEach((endpoint, stats) -> log.info(
+                    "  {}: count={} errors={} clientErrors={} p50={}ms p90={}ms p99={}ms p99.9={}ms max={}ms statuses={}",
+                    endpoint, stats.count(), stats.errors(), stats.clientErrors(), stats.p50Ms(), stats.p90Ms(),
+                    stats.p99Ms(), stats.p999Ms(), stats.maxMs(), stats.statuses()));
+        }
+    }
+
+    private static void write(LoadTestReport report, Path path) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writeValue(path.toFile(), report);
+        log.info("Report written to {}", path.toAbsolutePath());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+
+/**
+ * Memory use of the JVM over one scenario. The application and the load generator share the JVM, so the
+ * numbers are only meaningful compared between runs of the same scenario, for example between the R2DBC
+ * and the JDBC mode.
+ */
+public class MemoryProbe {
+    private static final double MB = 1024 * 1024;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    private long startAllocatedBytes;
+    private long startGcCount;
+    private long startGcMillis;
+
+    public void start() {
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        threads.resetPeakThreadCount();
+        startAllocatedBytes = threads.getTotalThreadAllocatedBytes();
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+    }
+
+    public LoadTestReport.MemoryResult stop() {
+        long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new LoadTestReport.MemoryResult(
+                (threads.getTotalThreadAllocatedBytes() - startAllocatedBytes) / MB,
+                peakHeapBytes / MB,
+                threads.getPeakThreadCount(),
+                gcCount() - startGcCount,
+                gcMillis() - startGcMillis);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a scenario as an open model: a single generator thread starts every request at its scheduled time and
+ * never waits for a response. When the generator falls behind, the requests it owes are started at once
+ * and their latencies still count from the scheduled time, which avoids coordinated omission.
+ */
+@Slf4j
+public class OpenModelDriver {
+    private static final long LATE_START_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long DRAIN_POLL_MS = 50;
+
+    private final Duration requestTimeout;
+
+    public OpenModelDriver(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public LoadTestReport.ScenarioResult run(Scenario scenario, Duration duration) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        MemoryProbe memoryProbe = new MemoryProbe();
+        AtomicLong inFlight = new AtomicLong();
+        long scheduled = 0;
+        long lateStarts = 0;
+
+        memoryProbe.start();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long next = start;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            if (-wait > LATE_START_NANOS) {
+                lateStarts++;
+            }
+            start(scenario.pick(), next, recorder, inFlight);
+            scheduled++;
+            next += scenario.schedule().intervalNanos(next - start);
+        }
+
+        long drainDeadline = System.nanoTime() + requestTimeout.toNanos() * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(DRAIN_POLL_MS);
+        }
+        if (inFlight.get() > 0) {
+            log.warn("Scenario {} still has {} requests in flight", scenario.name(), inFlight.get());
+        }
+        double durationS = (System.nanoTime() - start) / 1e9;
+        LoadTestReport.MemoryResult memory = memoryProbe.stop();
+        Map<String, LoadTestReport.EndpointResult> endpoints = recorder.results();
+        long succeeded = endpoints.values().stream()
+                .mapToLong(stats -> stats.count() - stats.errors() - stats.clientErrors())
+                .sum();
+        return new LoadTestReport.ScenarioResult(scenario.name(), scenario.description(), durationS,
+                scheduled, lateStarts, Math.round(succeeded / durationS * 10) / 10.0, memory, endpoints);
+    }
+
+    private void start(CatalogOperations.Operation operation, long scheduledNanos,
+                       LatencyRecorder recorder, AtomicLong inFlight) {
+        inFlight.incrementAndGet();
+        Mono.defer(operation.request())
+                .timeout(requestTimeout)
+                .doFinally(signal -> inFlight.decrementAndGet())
+                .subscribe(
+                        status -> recorder.recordResponse(operation.endpoint(), scheduledNanos, status),
+                        error -> recorder.recordFailure(operation.endpoint(), scheduledNanos));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.bank.omniproductcatalog.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A weighted mix of operations started on an arrival schedule.
+ *
+ * @param delay time to wait before the scenario starts, to let the caches of the previous one expire
+ */
+public record Scenario(String name,
+                       String description,
+                       Duration delay,
+                       ArrivalSchedule schedule,
+                       List<WeightedOperation> operations) {
+
+    public record WeightedOperation(int weight, CatalogOperations.Operation operation) {
+    }
+
+    public CatalogOperations.Operation pick() {
+        int total = 0;
+        for (WeightedOperation operation : operations) {
+            total += operation.weight();
+        }
+        int point = ThreadLocalRandom.current().nextInt(total);
+        for (WeightedOperation operation : operations) {
+            point -= operation.weight();
+            if (point < 0) {
+                return operation.operation();
+            }
+        }
+        throw new IllegalStateException("Scenario " + name + " has no operations");
+    }
+
+    public static Scenario byName(String name, CatalogOperations ops, LoadTestConfig config) {
+        return switch (name.trim()) {
+            case "cache-hot-reads" -> new Scenario("cache-hot-reads",
+                    "Reads of a small hot set of products and of the lists by type, served mostly from the caches",
+                    Duration.ZERO,
+                    ArrivalSchedule.constant(config.rate()),
+                    mix()
+                            .add(50, ops.getById(ops.hotIds()))
+                            .add(15, ops.getBatch(ops.hotIds()))
+                            .add(15, ops.getByType())
+                            .add(10, ops.streamByType())
+                            .add(10, ops.firstPage())
+                            .build());
+            case "cold-reads" -> new Scenario("cold-reads",
+                    "Reads of random products of the whole catalog after the caches have expired",
+                    config.cacheTtl().plusSeconds(1),
+                    ArrivalSchedule.constant(config.rate()),
+                    mix()
+                            .add(50, ops.getById(ops.anyIds()))
+                            .add(20, ops.getBatch(ops.anyIds()))
+                            .add(20, ops.nextPage())
+                            .add(5, ops.getByType())
+                            .add(5, ops.getAll())
+                            .build());
+            case "write-burst" -> new Scenario("write-burst",
+                    "Writes mixed with reads, in periodic bursts of " + config.burstFactor() + " times the rate",
+                    Duration.ZERO,
+                    ArrivalSchedule.bursts(config.rate(), config.burstFactor(), config.burstEvery(), config.burstLength()),
+                    mix()
+                            .add(25, ops.create())
+                            .add(5, ops.bulkCreate())
+                            .add(20, ops.update(ops.anyIds()))
+                            .add(5, ops.changeLifecycle(ops.anyIds()))
+                            .add(15, ops.delete(ops.anyIds()))
+                            .add(20, ops.getById(ops.hotIds()))
+                            .add(10, ops.getByType())
+                            .build());
+            default -> throw new IllegalArgumentException("Unknown scenario " + name
+                    + ", expected cache-hot-reads, cold-reads or write-burst");
+        };
+    }
+
+    private static MixBuilder mix() {
+        return new MixBuilder();
+    }
+
+    private static final class MixBuilder {
+        private final List<WeightedOperation> operations = new ArrayList<>();
+
+        private MixBuilder add(int weight, CatalogOperations.Operation operation) {
+            operations.add(new WeightedOperation(weight, operation));
+            return this;
+        }
+
+        private List<WeightedOperation> build() {
+            return List.copyOf(operations);
+        }
+    }
+}
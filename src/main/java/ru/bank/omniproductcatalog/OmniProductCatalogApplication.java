@@ -3,14 +3,15 @@ package ru.bank.omniproductcatalog;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
-import reactor.tools.agent.ReactorDebugAgent;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import ru.bank.omniproductcatalog.config.NativeRuntimeHints;
 
 @SpringBootApplication
 @EnableCaching
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class OmniProductCatalogApplication {
 
     public static void main(String[] args) {
-        ReactorDebugAgent.init();
         SpringApplication.run(OmniProductCatalogApplication.class, args);
     }
 
@@ -0,0 +1,104 @@
+package ru.bank.omniproductcatalog.config;
+
+import reactor.pool.AllocationStrategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocation strategy of the connection pool with a limit that can be moved at runtime between
+ * {@code minimum} and {@code maximum}. A lower limit stops new connections from being opened; connections
+ * above it are closed by the pool once they reach the max idle time or max life time.
+ * {@link #permitMaximum()} is the current limit, so the {@code r2dbc.pool.max.allocated} gauge shows it.
+ */
+public class AdaptiveAllocationStrategy implements AllocationStrategy {
+    private final int minimum;
+    private final int maximum;
+    private final AtomicInteger granted = new AtomicInteger();
+    private volatile int limit;
+
+    public AdaptiveAllocationStrategy(int minimum, int maximum) {
+        if (minimum < 0 || maximum < 1 || minimum > maximum) {
+            throw new IllegalArgumentException("Expected 0 <= minimum <= maximum and maximum >= 1, got minimum="
+                    + minimum + ", maximum=" + maximum);
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.limit = Math.max(minimum, 1);
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * @return the new limit, {@code limit} clamped to the bounds
+     */
+    public int setLimit(int limit) {
+        int clamped = Math.max(Math.max(minimum, 1), Math.min(maximum, limit));
+        this.limit = clamped;
+        return clamped;
+    }
+
+    public int minimum() {
+        return minimum;
+    }
+
+    public int maximum() {
+        return maximum;
+    }
+
+    @Override
+    public int estimatePermitCount() {
+        return Math.max(0, limit - granted.get());
+    }
+
+    /**
+     * Grants up to {@code desired} permits, and more if that is needed to reach the minimum,
+     * without going over the current limit.
+     */
+    @Override
+    public int getPermits(int desired) {
+        if (desired < 0) {
+            return 0;
+        }
+        while (true) {
+            int current = granted.get();
+            int permits = Math.min(Math.max(desired, minimum - current), limit - current);
+            if (permits <= 0) {
+                return 0;
+            }
+            if (granted.compareAndSet(current, current + permits)) {
+                return permits;
+            }
+        }
+    }
+
+    @Override
+    public int permitGranted() {
+        return granted.get();
+    }
+
+    @Override
+    public int permitMinimum() {
+        return minimum;
+    }
+
+    @Override
+    public int permitMaximum() {
+        return limit;
+    }
+
+    @Override
+    public void returnPermits(int returned) {
+        while (true) {
+            int current = granted.get();
+            if (returned > current) {
+                throw new IllegalArgumentException("Too many permits returned: returned=" + returned
+                        + ", granted=" + current);
+            }
+            if (granted.compareAndSet(current, current - returned)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.bank.omniproductcatalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import ru.bank.omniproductcatalog.util.ConnectionFactories;
+
+import java.time.Duration;
+
+/**
+ * Replaces the connection pool of Spring Boot with one that has the same {@code spring.r2dbc.pool.*} settings
+ * and an {@link AdaptiveAllocationStrategy}, sized by an {@link AdaptivePoolSizer} between
+ * {@code max(initial-size, min-idle)} and {@code max-size}. Spring Boot offers no way to set the allocation
+ * strategy of its own pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.r2dbc.pool.adaptive.enabled", havingValue = "true")
+public class AdaptiveConnectionPoolConfig {
+    private static final String POOL_NAME = "connectionFactory";
+
+    @Bean
+    public AdaptiveAllocationStrategy adaptiveAllocationStrategy(R2dbcProperties properties) {
+        R2dbcProperties.Pool pool = properties.getPool();
+        return new AdaptiveAllocationStrategy(Math.max(pool.getInitialSize(), pool.getMinIdle()), pool.getMaxSize());
+    }
+
+    @Bean(name = POOL_NAME, destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcProperties properties,
+                                            R2dbcConnectionDetails connectionDetails,
+                                            AdaptiveAllocationStrategy adaptiveAllocationStrategy) {
+        ConnectionFactoryOptions.Builder options = connectionDetails.getConnectionFactoryOptions().mutate();
+        properties.getProperties().forEach((name, value) -> options.option(Option.valueOf(name), value));
+        ConnectionFactory connectionFactory = io.r2dbc.spi.ConnectionFactories.get(options.build());
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+        map.from(pool.getValidationQuery()).when(StringUtils::hasText).to(builder::validationQuery);
+        // applied after the pool has set its own fixed size strategy, so it replaces it
+        builder.customizer(poolBuilder -> poolBuilder.allocationStrategy(adaptiveAllocationStrategy));
+        return new ConnectionPool(builder.build());
+    }
+
+    @Bean
+    public AdaptivePoolSizer adaptivePoolSizer(ConnectionFactory connectionFactory,
+                                               AdaptiveAllocationStrategy adaptiveAllocationStrategy,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${application.r2dbc.pool.adaptive.interval_ms}") Long interval,
+                                               @Value("${application.r2dbc.pool.adaptive.step}") Integer step,
+                                               @Value("${application.r2dbc.pool.adaptive.acquire_latency_threshold_ms}") Long latencyThreshold,
+                                               @Value("${application.r2dbc.pool.adaptive.shrink_after_samples}") Integer shrinkAfter) {
+        // the bean is wrapped by MetricsConfig, so it is no longer a ConnectionPool
+        ConnectionPool pool = ConnectionFactories.findPool(connectionFactory)
+                .orElseThrow(() -> new IllegalStateException("Connection factory " + POOL_NAME + " is not pooled"));
+        return new AdaptivePoolSizer(pool, POOL_NAME, adaptiveAllocationStrategy, meterRegistry,
+                Duration.ofMillis(interval), step, Duration.ofMillis(latencyThreshold), shrinkAfter);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.bank.omniproductcatalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the limit of an {@link AdaptiveAllocationStrategy} once per {@code interval}. The limit grows by
+ * {@code step}, or by the number of pending acquires if that is larger, whenever an acquire is pending or
+ * the mean acquire latency since the previous sample is over the threshold. It shrinks by {@code step}
+ * after {@code shrinkAfter} samples in a row without pending acquires and with at most half of the
+ * limit in use.
+ */
+public class AdaptivePoolSizer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    private final ConnectionPool pool;
+    private final String poolName;
+    private final AdaptiveAllocationStrategy allocationStrategy;
+    private final MeterRegistry meterRegistry;
+    private final Duration interval;
+    private final int step;
+    private final long latencyThresholdNanos;
+    private final int shrinkAfter;
+    private long lastAcquireCount;
+    private double lastAcquireNanos;
+    private int idleSamples;
+    private volatile Disposable subscription;
+
+    public AdaptivePoolSizer(ConnectionPool pool, String poolName, AdaptiveAllocationStrategy allocationStrategy,
+                             MeterRegistry meterRegistry, Duration interval, int step, Duration latencyThreshold,
+                             int shrinkAfter) {
+        this.pool = pool;
+        this.poolName = poolName;
+        this.allocationStrategy = allocationStrategy;
+        this.meterRegistry = meterRegistry;
+        this.interval = interval;
+        this.step = step;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.shrinkAfter = shrinkAfter;
+    }
+
+    /**
+     * Samples the pool and applies the next limit, called once per interval.
+     */
+    synchronized void adjust() {
+        PoolMetrics metrics = pool.getMetrics().orElse(null);
+        if (metrics == null) {
+            return;
+        }
+        int limit = allocationStrategy.limit();
+        int next = nextLimit(limit, metrics.pendingAcquireSize(), metrics.acquiredSize(), meanAcquireNanos());
+        int applied = allocationStrategy.setLimit(next);
+        if (applied != limit) {
+            logger.info("Connection pool limit changed from {} to {}: pending={}, acquired={}, allocated={}",
+                    limit, applied, metrics.pendingAcquireSize(), metrics.acquiredSize(), metrics.allocatedSize());
+        }
+    }
+
+    int nextLimit(int limit, int pending, int acquired, long meanAcquireNanos) {
+        if (pending > 0 || meanAcquireNanos > latencyThresholdNanos) {
+            idleSamples = 0;
+            return limit + Math.max(step, pending);
+        }
+        if (acquired * 2 > limit) {
+            idleSamples = 0;
+            return limit;
+        }
+        if (++idleSamples < shrinkAfter) {
+            return limit;
+        }
+        idleSamples = 0;
+        return limit - step;
+    }
+
+    /**
+     * Mean latency of the successful acquires since the previous sample, recorded by {@link TimedConnectionFactory}.
+     */
+    private long meanAcquireNanos() {
+        Timer timer = meterRegistry.find(TimedConnectionFactory.ACQUIRE_METRIC)
+                .tag("name", poolName)
+                .tag("outcome", "success")
+                .timer();
+        if (timer == null) {
+            return 0;
+        }
+        long count = timer.count();
+        double totalNanos = timer.totalTime(TimeUnit.NANOSECONDS);
+        long acquires = count - lastAcquireCount;
+        double nanos = totalNanos - lastAcquireNanos;
+        lastAcquireCount = count;
+        lastAcquireNanos = totalNanos;
+        return acquires > 0 ? (long) (nanos / acquires) : 0;
+    }
+
+    @Override
+    public synchronized void start() {
+        // the acquires made during startup include opening the connections, they must not count as slow
+        meanAcquireNanos();
+        subscription = Flux.interval(interval, interval)
+                .subscribe(tick -> adjust(), e -> logger.error("Connection pool sizing stopped", e));
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+}
@@ -6,24 +6,50 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class CacheConfig {
-    @Value("${application.cache.ttl_s}")
-    private Long ttl;
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String PRODUCT_LIST_BY_TYPE = "productListByType";
+    /**
+     * Key of the unfiltered product list in {@link #PRODUCT_LIST_BY_TYPE}.
+     */
+    public static final String ALL_PRODUCTS_KEY = "*";
 
-    @Bean
-    public Caffeine caffeineConfig() {
-        return Caffeine.newBuilder().expireAfterWrite(ttl, TimeUnit.SECONDS);
+    @Value("${application.cache.product_by_id.ttl_s}")
+    private Long productByIdTtl;
+    @Value("${application.cache.product_by_id.max_size}")
+    private Long productByIdMaxSize;
+    @Value("${application.cache.product_list_by_type.ttl_s}")
+    private Long productListTtl;
+    @Value("${application.cache.product_list_by_type.max_weight_bytes}")
+    private Long productListMaxWeight;
+
+    public static String productListKey(String type) {
+        return StringUtils.hasText(type) ? type : ALL_PRODUCTS_KEY;
     }
 
     @Bean
-    public CacheManager cacheManager(Caffeine caffeine) {
+    public CacheManager cacheManager() {
         CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
         caffeineCacheManager.setAsyncCacheMode(true);
-        caffeineCacheManager.setCaffeine(caffeine);
+        // Only the caches below exist, an unknown cache name must not create an unbounded cache
+        caffeineCacheManager.setCacheNames(List.of());
+        caffeineCacheManager.registerCustomCache(PRODUCT_BY_ID, Caffeine.newBuilder()
+                .expireAfterWrite(productByIdTtl, TimeUnit.SECONDS)
+                .maximumSize(productByIdMaxSize)
+                .recordStats()
+                .buildAsync());
+        caffeineCacheManager.registerCustomCache(PRODUCT_LIST_BY_TYPE, Caffeine.newBuilder()
+                .expireAfterWrite(productListTtl, TimeUnit.SECONDS)
+                .maximumWeight(productListMaxWeight)
+                .weigher(new ProductCacheWeigher())
+                .recordStats()
+                .buildAsync());
         return caffeineCacheManager;
     }
 }
@@ -0,0 +1,79 @@
+package ru.bank.omniproductcatalog.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.bank.omniproductcatalog.util.ConnectionFactories;
+
+import java.time.Duration;
+
+/**
+ * Opens the initial connections of the pool and checks each of them with a round trip to Postgres.
+ * Spring Boot reports the application ready only after all {@link ApplicationRunner}s have finished,
+ * so the first requests after a deploy find open connections instead of paying for the connection setup.
+ * A failed warm-up is logged and the connections are opened on demand, as without a warm-up.
+ */
+@Component
+public class ConnectionPoolWarmup implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolWarmup.class);
+
+    private final ConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final Duration timeout;
+
+    public ConnectionPoolWarmup(ConnectionFactory connectionFactory,
+                                @Value("${application.r2dbc.pool.warmup.enabled}") Boolean enabled,
+                                @Value("${application.r2dbc.pool.warmup.timeout_s}") Long timeout) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.timeout = Duration.ofSeconds(timeout);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        ConnectionFactories.findPool(connectionFactory).ifPresent(pool -> {
+            long start = System.nanoTime();
+            try {
+                Integer opened = pool.warmup().block(timeout);
+                long valid = validateIdle(pool).block(timeout);
+                logger.info("Connection pool warmed up in {} ms: {} connections opened, {} of {} idle connections valid",
+                        Duration.ofNanos(System.nanoTime() - start).toMillis(), opened, valid, idleSize(pool));
+            } catch (RuntimeException e) {
+                logger.error("Connection pool warm-up failed, connections will be opened on demand", e);
+            }
+        });
+    }
+
+    /**
+     * Acquires all idle connections at once, so that every one of them is validated exactly once.
+     */
+    private static Mono<Long> validateIdle(ConnectionPool pool) {
+        int idle = idleSize(pool);
+        if (idle == 0) {
+            return Mono.just(0L);
+        }
+        return Flux.range(0, idle)
+                .flatMap(i -> Mono.usingWhen(pool.create(),
+                        connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+                        Connection::close), idle)
+                .filter(Boolean::booleanValue)
+                .count();
+    }
+
+    private static int idleSize(ConnectionPool pool) {
+        return pool.getMetrics().map(PoolMetrics::idleSize).orElse(0);
+    }
+}
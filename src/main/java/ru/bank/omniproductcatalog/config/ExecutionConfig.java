@@ -0,0 +1,29 @@
+package ru.bank.omniproductcatalog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import ru.bank.omniproductcatalog.util.ExecutionPolicy;
+import ru.bank.omniproductcatalog.util.ExecutionSchedulers;
+
+import java.util.Map;
+
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * The policy of an operation is {@code application.execution.operations.<operation>},
+     * {@code application.execution.default_policy} for the operations not listed there.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ExecutionSchedulers executionSchedulers(Environment environment,
+                                                   @Value("${application.execution.default_policy}") ExecutionPolicy defaultPolicy) {
+        Map<String, ExecutionPolicy> operationPolicies = Binder.get(environment)
+                .bind("application.execution.operations", Bindable.mapOf(String.class, ExecutionPolicy.class))
+                .orElse(Map.of());
+        return new ExecutionSchedulers(defaultPolicy, operationPolicies);
+    }
+}
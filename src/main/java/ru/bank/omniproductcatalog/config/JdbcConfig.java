@@ -0,0 +1,49 @@
+package ru.bank.omniproductcatalog.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * The HikariCP pool and the virtual threads of {@code JdbcProductRepository}, in the {@code jdbc} profile.
+ * Product types and the change listeners keep using R2DBC. Spring Boot's own data source is excluded in
+ * {@code application.yml}, so that the R2DBC mode does not get a JDBC pool it never uses.
+ */
+@Configuration
+@Profile("jdbc")
+public class JdbcConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(@Value("${application.jdbc.url}") String url,
+                                       @Value("${application.jdbc.username}") String username,
+                                       @Value("${application.jdbc.password}") String password,
+                                       @Value("${application.jdbc.pool.max_size}") Integer maxSize,
+                                       @Value("${application.jdbc.pool.min_idle}") Integer minIdle,
+                                       @Value("${application.jdbc.pool.connection_timeout_ms}") Long connectionTimeout) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jdbc");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(minIdle);
+        config.setConnectionTimeout(connectionTimeout);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * A new virtual thread per repository call. The pool, not the number of threads, bounds the concurrent queries.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler() {
+        return Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jdbc-", 0).factory()), "jdbc");
+    }
+}
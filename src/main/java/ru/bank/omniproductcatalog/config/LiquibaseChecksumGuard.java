@@ -0,0 +1,123 @@
+package ru.bank.omniproductcatalog.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skips Liquibase when the changelog has not changed since it was last applied to the database. The checksum
+ * is a SHA-256 over the paths and contents of all files in the directory of the master changelog; it is
+ * stored in {@code schema_checksum} after every successful update. A matching checksum costs one query
+ * instead of the changeset checks of Liquibase. A schema rolled back outside the application needs its
+ * {@code schema_checksum} row deleted, so that the next start runs Liquibase again.
+ */
+@Component
+@ConditionalOnProperty(name = "application.liquibase.checksum_guard.enabled", havingValue = "true")
+public class LiquibaseChecksumGuard implements BeanPostProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(LiquibaseChecksumGuard.class);
+
+    private static final String SELECT_CHECKSUM = "SELECT checksum FROM schema_checksum WHERE changelog = ?";
+    private static final String UPSERT_CHECKSUM = """
+            INSERT INTO schema_checksum (changelog, checksum, applied_at)
+            VALUES (?, ?, now() AT TIME ZONE 'UTC')
+            ON CONFLICT (changelog) DO UPDATE SET checksum = excluded.checksum, applied_at = excluded.applied_at
+            """;
+
+    /**
+     * Checksums of the changelogs Liquibase is about to apply, by bean name.
+     */
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof SpringLiquibase liquibase) {
+            String checksum = checksum(liquibase.getChangeLog());
+            if (checksum.equals(storedChecksum(liquibase))) {
+                liquibase.setShouldRun(false);
+                logger.info("Liquibase skipped, changelog {} is applied with checksum {}", liquibase.getChangeLog(), checksum);
+            } else {
+                pending.put(beanName, checksum);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String checksum = pending.remove(beanName);
+        if (checksum != null && bean instanceof SpringLiquibase liquibase) {
+            new JdbcTemplate(liquibase.getDataSource()).update(UPSERT_CHECKSUM, liquibase.getChangeLog(), checksum);
+            logger.info("Changelog {} applied with checksum {}", liquibase.getChangeLog(), checksum);
+        }
+        return bean;
+    }
+
+    private static String storedChecksum(SpringLiquibase liquibase) {
+        try {
+            List<String> stored = new JdbcTemplate(liquibase.getDataSource())
+                    .queryForList(SELECT_CHECKSUM, String.class, liquibase.getChangeLog());
+            return stored.isEmpty() ? null : stored.get(0);
+        } catch (DataAccessException e) {
+            // no schema_checksum table before the first update that creates it
+            logger.debug("No stored checksum of changelog {}", liquibase.getChangeLog(), e);
+            return null;
+        }
+    }
+
+    static String checksum(String changeLog) {
+        String location = changeLog.replaceFirst("^classpath\\*?:/*", "");
+        String directory = location.substring(0, location.lastIndexOf('/') + 1);
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:" + directory + "**/*");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            List<Resource> files = Arrays.stream(resources)
+                    .filter(Resource::isReadable)
+                    .sorted(Comparator.comparing(resource -> relativePath(resource, directory)))
+                    .toList();
+            for (Resource file : files) {
+                digest.update(relativePath(file, directory).getBytes(StandardCharsets.UTF_8));
+                try (InputStream content = file.getInputStream()) {
+                    digest.update(content.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read changelog " + changeLog, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The path from the changelog directory, the same for a file system directory and a nested jar.
+     */
+    private static String relativePath(Resource resource, String directory) {
+        try {
+            String url = resource.getURL().toString();
+            return url.substring(url.lastIndexOf(directory) + directory.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.bank.omniproductcatalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics on top of the ones Spring Boot binds by itself: {@code http.server.requests}, {@code cache.*}
+ * for every cache of {@link CacheConfig} (Caffeine records its stats) and the {@code r2dbc.pool.*} gauges.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps every R2DBC connection pool into a {@link TimedConnectionFactory}.
+     */
+    @Bean
+    public static BeanPostProcessor timedConnectionPoolPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof ConnectionPool pool
+                        ? new TimedConnectionFactory(pool, beanName, meterRegistry)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package ru.bank.omniproductcatalog.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.util.ClassUtils;
+import ru.bank.omniproductcatalog.model.common.ApiError;
+import ru.bank.omniproductcatalog.model.exception.ValidationError;
+import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateErrorDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+import ru.bank.omniproductcatalog.product.mapper.ProductMapper;
+import ru.bank.omniproductcatalog.product.repository.Product;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.util.List;
+
+/**
+ * What the native image needs beyond the hints Spring AOT derives from the beans: the reflection that
+ * the libraries below do on classes it cannot see. Libraries that ship their own native-image metadata,
+ * such as r2dbc-postgresql and Reactor Netty, are not repeated here.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    private static final String CAFFEINE_PACKAGE = "com.github.benmanes.caffeine.cache.";
+    /**
+     * The cache and node classes Caffeine generates for the features of the caches in {@link CacheConfig}:
+     * strong keys and values, statistics, a maximum size or weight and expiry after write. Caffeine loads
+     * them by name, so a new feature in {@link CacheConfig} needs its classes added here.
+     */
+    private static final List<String> CAFFEINE_CLASSES = List.of("SSSMSW", "SSSMWW", "PSWMW");
+
+    private static final List<Class<?>> API_TYPES = List.of(ProductResponseDto.class, ProductPageResponseDto.class,
+            ProductBatchResponseDto.class, NewProductRequestDto.class, UpdateProductRequestDto.class,
+            ProductBulkCreateResponseDto.class, ProductBulkCreateErrorDto.class, ProductLifecycleRequestDto.class,
+            ProductLifecycleResultDto.class, ProductSuggestionDto.class, ApiError.class, ValidationError.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // the MapStruct implementation and the Lombok entities, mapped by Spring Data through reflection
+        hints.reflection().registerType(TypeReference.of(ProductMapper.class.getName() + "Impl"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        for (Class<?> entity : List.of(Product.class, ProductType.class)) {
+            hints.reflection().registerType(entity, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+        // the request and response bodies of the omni-product-catalog-model module, including the error bodies
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        API_TYPES.forEach(type -> bindingHints.registerReflectionHints(hints.reflection(), type));
+
+        // R2DBC finds its drivers with ServiceLoader, each provider is created through its constructor
+        for (String provider : List.of("io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider",
+                "io.r2dbc.pool.PoolingConnectionFactoryProvider")) {
+            hints.reflection().registerType(TypeReference.of(provider), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        // Liquibase: Spring Boot registers only the top level of db/changelog, the changesets are in subdirectories;
+        // the JDBC driver is loaded by the name in spring.liquibase.driver-class-name
+        hints.resources().registerPattern("db/changelog/**");
+        hints.resources().registerPattern("liquibase.build.properties");
+        hints.reflection().registerType(TypeReference.of("org.postgresql.Driver"), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        CAFFEINE_CLASSES.forEach(name -> registerCaffeineClass(hints, classLoader, name));
+    }
+
+    /**
+     * Registers the class and its generated superclasses: their fields are accessed through var handles.
+     */
+    private static void registerCaffeineClass(RuntimeHints hints, ClassLoader classLoader, String name) {
+        for (Class<?> type = ClassUtils.resolveClassName(CAFFEINE_PACKAGE + name, classLoader);
+             type != null && type.getName().startsWith(CAFFEINE_PACKAGE);
+             type = type.getSuperclass()) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
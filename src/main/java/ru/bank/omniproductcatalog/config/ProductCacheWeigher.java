@@ -0,0 +1,62 @@
+package ru.bank.omniproductcatalog.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.Collection;
+
+/**
+ * Estimates the retained heap size in bytes of cached product values, assuming compressed oops.
+ * The estimate only needs to be proportional to the real size for the cache bound to be meaningful.
+ */
+public class ProductCacheWeigher implements Weigher<Object, Object> {
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int LONG_SIZE = align(OBJECT_HEADER + 8);
+    private static final int INSTANT_SIZE = align(OBJECT_HEADER + 8 + 4);
+    private static final int PRODUCT_SIZE = align(OBJECT_HEADER + 6 * REFERENCE + 8);
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = ENTRY_OVERHEAD + estimate(key) + estimate(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    static long estimate(Object value) {
+        if (value instanceof ProductResponseDto product) {
+            return PRODUCT_SIZE
+                    + (product.getId() != null ? LONG_SIZE : 0)
+                    + estimate(product.getName())
+                    + estimate(product.getDescription())
+                    + (product.getOpenDate() != null ? INSTANT_SIZE : 0)
+                    + (product.getCloseDate() != null ? INSTANT_SIZE : 0)
+                    + (product.getVersion() != null ? LONG_SIZE : 0);
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = align(OBJECT_HEADER + REFERENCE + 4) + align(16 + (long) REFERENCE * collection.size());
+            for (Object element : collection) {
+                weight += estimate(element);
+            }
+            return weight;
+        }
+        if (value instanceof String string) {
+            // String object plus its byte[]: Latin-1 strings take one byte per char, the rest two
+            int bytesPerChar = 1;
+            for (int i = 0; i < string.length() && bytesPerChar == 1; i++) {
+                if (string.charAt(i) > 255) {
+                    bytesPerChar = 2;
+                }
+            }
+            return align(OBJECT_HEADER + REFERENCE + 4 + 4) + align(16 + (long) string.length() * bytesPerChar);
+        }
+        if (value instanceof Long) {
+            return LONG_SIZE;
+        }
+        return value != null ? align(OBJECT_HEADER + REFERENCE) : 0;
+    }
+
+    private static int align(long size) {
+        return (int) ((size + 7) & ~7);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.bank.omniproductcatalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every connection acquired from the pool as {@code r2dbc.pool.acquire}, tagged with the pool
+ * {@code name} and {@code outcome}, including the time spent waiting for a connection when the pool is
+ * exhausted. The pool gauges of Spring Boot unwrap this factory and keep reporting the pool behind it.
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionPool>, Disposable {
+    static final String ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+    private final ConnectionPool pool;
+    private final String name;
+    // the registry is looked up on first use, the pool is created before the metrics infrastructure
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Timers timers;
+
+    public TimedConnectionFactory(ConnectionPool pool, String name, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.pool = pool;
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timers current = timers();
+            if (current == null) {
+                return pool.create();
+            }
+            long start = System.nanoTime();
+            return pool.create()
+                    .doFinally(signal -> (signal == SignalType.ON_COMPLETE ? current.success : current.failure)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return pool;
+    }
+
+    /**
+     * Called by Spring Boot on shutdown, through the {@code destroyMethod} of the pool bean.
+     */
+    @Override
+    public void dispose() {
+        pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return pool.isDisposed();
+    }
+
+    private Timers timers() {
+        Timers current = timers;
+        if (current == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return null;
+            }
+            current = new Timers(timer(registry, "success"), timer(registry, "failure"));
+            timers = current;
+        }
+        return current;
+    }
+
+    private Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder(ACQUIRE_METRIC)
+                .description("Time to acquire a connection from the R2DBC pool")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record Timers(Timer success, Timer failure) {
+    }
+}
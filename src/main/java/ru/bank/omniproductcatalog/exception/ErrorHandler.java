@@ -10,6 +10,7 @@ import ru.bank.omniproductcatalog.model.common.ApiError;
 import ru.bank.omniproductcatalog.model.exception.BadRequestException;
 import ru.bank.omniproductcatalog.model.exception.FieldValidationException;
 import ru.bank.omniproductcatalog.model.exception.NotFoundException;
+import ru.bank.omniproductcatalog.model.exception.PreconditionFailedException;
 import ru.bank.omniproductcatalog.model.exception.ServiceTimeoutException;
 
 import java.time.Instant;
@@ -64,4 +65,16 @@ public class ErrorHandler {
                 UUID.randomUUID().toString()
         ));
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Mono<ApiError> handlePreconditionFailedException(final PreconditionFailedException ex, final ServerWebExchange exchange) {
+        return Mono.just(new ApiError(
+                Instant.now(),
+                exchange.getRequest().getPath().toString(),
+                HttpStatus.PRECONDITION_FAILED.value(),
+                ex.getMessage(),
+                UUID.randomUUID().toString()
+        ));
+    }
 }
@@ -0,0 +1,330 @@
+package ru.bank.omniproductcatalog.product.autocomplete;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Product names held in memory for type-ahead completion, so a keystroke never queries Postgres.
+ * <p>
+ * The names are matched by a prefix of any of their words, ignoring case and diacritics, see {@link ProductNames}.
+ * The index is a large {@link ProductNameSegment} loaded from the repository, a small one with the products
+ * written through this instance since, and the sorted ids whose base entries those writes replaced.
+ * A write merges the written products into the small segment, and once it has grown past
+ * {@link #COMPACTION_THRESHOLD} changes the two are merged into a new base in the background.
+ * Writes are serialized, lookups read the current state without locking.
+ * <p>
+ * The whole index is reloaded every {@code refresh_s} seconds, which picks up the writes of other instances.
+ * Writes made while a reload or a compaction runs are applied again on top of the new base.
+ */
+@Component
+public class ProductNameIndex implements SmartLifecycle {
+    static final int COMPACTION_THRESHOLD = 4096;
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameIndex.class);
+    private static final long[] NO_IDS = new long[0];
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final Object writeLock = new Object();
+    private volatile State state;
+    private final Set<List<Runnable>> rebuildWrites = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean compacting;
+    private volatile Mono<Void> compaction = Mono.empty();
+    private volatile Disposable subscription;
+
+    public ProductNameIndex(ProductRepository productRepository,
+                            @Value("${application.product.autocomplete.enabled}") boolean enabled,
+                            @Value("${application.product.autocomplete.refresh_s}") Long refreshInterval) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.refreshInterval = Duration.ofSeconds(refreshInterval);
+    }
+
+    /**
+     * @param productTypeId type of the products to complete, {@code null} for all types
+     * @return at most {@code limit} products with a word starting with the prefix, ordered by the text from
+     * that word on; empty until the index is loaded
+     */
+    public List<ProductSuggestionDto> complete(String prefix, Long productTypeId, int limit) {
+        State current = state;
+        String key = ProductNames.normalize(prefix);
+        if (current == null || key.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        ProductNameSegment base = current.base();
+        ProductNameSegment delta = current.delta();
+        // positions over the entries of the type only, so a filtered lookup never reads the other types' entries
+        int i = base.lowerBound(key, productTypeId);
+        int j = delta.lowerBound(key, productTypeId);
+        int baseEnd = base.endPosition(productTypeId);
+        int deltaEnd = delta.endPosition(productTypeId);
+        List<ProductSuggestionDto> found = new ArrayList<>(Math.min(limit, 16));
+        long[] foundIds = new long[limit];
+        while (found.size() < limit) {
+            int baseEntry = i < baseEnd ? base.entry(i, productTypeId) : -1;
+            int deltaEntry = j < deltaEnd ? delta.entry(j, productTypeId) : -1;
+            boolean inBase = baseEntry >= 0 && base.startsWith(baseEntry, key);
+            boolean inDelta = deltaEntry >= 0 && delta.startsWith(deltaEntry, key);
+            ProductNameSegment segment;
+            int entry;
+            if (inDelta && (!inBase || delta.compareEntries(deltaEntry, base, baseEntry) < 0)) {
+                segment = delta;
+                entry = deltaEntry;
+                j++;
+            } else if (inBase) {
+                i++;
+                if (ProductNameSegment.isRemoved(current.removed(), base.id(baseEntry))) {
+                    continue;
+                }
+                segment = base;
+                entry = baseEntry;
+            } else {
+                break;
+            }
+            if (!contains(foundIds, found.size(), segment.id(entry))) {
+                foundIds[found.size()] = segment.id(entry);
+                found.add(segment.suggestion(entry));
+            }
+        }
+        return found;
+    }
+
+    public boolean isReady() {
+        return state != null;
+    }
+
+    public void productSaved(ProductResponseDto product) {
+        productsSaved(List.of(product));
+    }
+
+    public void productsSaved(Collection<ProductResponseDto> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<ProductSuggestionDto> suggestions = products.stream()
+                .map(ProductNameIndex::toSuggestion)
+                .toList();
+        write(() -> put(suggestions));
+    }
+
+    public void productDeleted(Long id) {
+        write(() -> remove(id));
+    }
+
+    /**
+     * Loads all product names and swaps them in as the new base.
+     */
+    Mono<Void> reload() {
+        return rebuild(started -> productRepository.streamAllOrderByOpenDate(null)
+                        .map(ProductNameIndex::toSuggestion)
+                        .collectList()
+                        // sorting a large catalog takes a while, off the thread the rows arrive on
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(ProductNameSegment::of), false)
+                .doOnNext(loaded -> logger.info("Product name index loaded {} products", loaded.productCount()))
+                .then();
+    }
+
+    /**
+     * @return the compaction in progress or the last one, which completes once the merged base is swapped in
+     */
+    Mono<Void> compaction() {
+        return compaction;
+    }
+
+    /**
+     * @return the number of products written since the last load or compaction
+     */
+    int deltaSize() {
+        State current = state;
+        return current != null ? current.delta().productCount() : 0;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Loaded in the background: until the first load completes, completions are empty rather than slow
+        subscription = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reload()
+                        .onErrorResume(e -> {
+                            logger.error("Product name index failed to load, keeping the previous names", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    private void write(Runnable change) {
+        boolean compact;
+        synchronized (writeLock) {
+            if (state != null) {
+                change.run();
+            }
+            rebuildWrites.forEach(writes -> writes.add(change));
+            compact = startCompaction();
+        }
+        if (compact) {
+            compact();
+        }
+    }
+
+    private void put(List<ProductSuggestionDto> products) {
+        long[] ids = products.stream().mapToLong(ProductSuggestionDto::getId).sorted().distinct().toArray();
+        State current = state;
+        state = new State(current.base(), ProductNameSegment.merge(current.delta(), ids, ProductNameSegment.of(products)),
+                union(current.removed(), ids));
+    }
+
+    private void remove(long id) {
+        long[] ids = {id};
+        State current = state;
+        state = new State(current.base(), ProductNameSegment.merge(current.delta(), ids, ProductNameSegment.EMPTY),
+                union(current.removed(), ids));
+    }
+
+    /**
+     * Must be called holding the write lock.
+     *
+     * @return whether the caller is to start a compaction, which is the case for one caller at a time
+     */
+    private boolean startCompaction() {
+        State current = state;
+        if (compacting || current == null
+                || current.delta().productCount() + current.removed().length <= COMPACTION_THRESHOLD) {
+            return false;
+        }
+        compacting = true;
+        return true;
+    }
+
+    private void compact() {
+        Mono<Void> started = rebuild(current -> Mono.fromCallable(() ->
+                                ProductNameSegment.merge(current.base(), current.removed(), current.delta()))
+                        .subscribeOn(Schedulers.boundedElastic()), true)
+                .onErrorResume(e -> {
+                    logger.error("Product name index failed to compact, keeping the delta", e);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    boolean compactAgain;
+                    synchronized (writeLock) {
+                        compacting = false;
+                        compactAgain = startCompaction();
+                    }
+                    if (compactAgain) {
+                        compact();
+                    }
+                })
+                .then()
+                .cache();
+        compaction = started;
+        started.subscribe();
+    }
+
+    /**
+     * Builds a new base off the write path from the state at the start, then swaps it in and applies again
+     * the writes made meanwhile, which the built base may or may not include.
+     *
+     * @param sameBase whether the new base is dropped if another one was swapped in meanwhile, which is the case
+     *                 for a compaction that a reload overtook
+     */
+    private Mono<ProductNameSegment> rebuild(Function<State, Mono<ProductNameSegment>> build, boolean sameBase) {
+        return Mono.defer(() -> {
+            List<Runnable> writes = new ArrayList<>();
+            State started;
+            synchronized (writeLock) {
+                rebuildWrites.add(writes);
+                started = state;
+            }
+            return build.apply(started)
+                    .doOnNext(base -> {
+                        synchronized (writeLock) {
+                            if (!sameBase || state.base() == started.base()) {
+                                state = new State(base, ProductNameSegment.EMPTY, NO_IDS);
+                                writes.forEach(Runnable::run);
+                            }
+                        }
+                    })
+                    // a failed or cancelled rebuild stops recording the writes
+                    .doFinally(signal -> {
+                        synchronized (writeLock) {
+                            rebuildWrites.remove(writes);
+                        }
+                    });
+        });
+    }
+
+    private static ProductSuggestionDto toSuggestion(ProductResponseDto product) {
+        return new ProductSuggestionDto(product.getId(), product.getName(), product.getProductTypeId());
+    }
+
+    private static long[] union(long[] sorted, long[] otherSorted) {
+        long[] union = new long[sorted.length + otherSorted.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length || j < otherSorted.length) {
+            long next;
+            if (j >= otherSorted.length || (i < sorted.length && sorted[i] <= otherSorted[j])) {
+                next = sorted[i++];
+            } else {
+                next = otherSorted[j++];
+            }
+            if (count == 0 || union[count - 1] != next) {
+                union[count++] = next;
+            }
+        }
+        return Arrays.copyOf(union, count);
+    }
+
+    private static boolean contains(long[] ids, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param removed sorted ids of the base products that are deleted or replaced by the delta
+     */
+    private record State(ProductNameSegment base, ProductNameSegment delta, long[] removed) {
+    }
+}
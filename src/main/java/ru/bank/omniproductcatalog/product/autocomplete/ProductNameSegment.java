@@ -0,0 +1,392 @@
+package ru.bank.omniproductcatalog.product.autocomplete;
+
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable sorted array over the words of product names, so a name is found by a prefix of any of its words.
+ * <p>
+ * The products are held in parallel arrays sorted by id. Every entry is a word start in a normalized name,
+ * and its key is the rest of the name from there; the entries are sorted by key, then by product id.
+ * A key is an offset into the name rather than a string of its own, so a lookup compares the typed prefix
+ * with the names in place.
+ * <p>
+ * The entries are also listed by product type, in the same order within a type, so a lookup filtered by type is a
+ * binary search and a scan over the entries of that type only. A position walks either list: with no type it is the
+ * entry itself, with a type it is an index into the entries of that type.
+ */
+final class ProductNameSegment {
+    static final ProductNameSegment EMPTY = of(List.of());
+
+    private final long[] ids;
+    private final long[] productTypeIds;
+    private final String[] names;
+    private final String[] normalizedNames;
+    private final int[] entryProducts;
+    private final int[] entryOffsets;
+    private final TypeIndex types;
+
+    private ProductNameSegment(long[] ids, long[] productTypeIds, String[] names, String[] normalizedNames,
+                               int[] entryProducts, int[] entryOffsets, TypeIndex types) {
+        this.ids = ids;
+        this.productTypeIds = productTypeIds;
+        this.names = names;
+        this.normalizedNames = normalizedNames;
+        this.entryProducts = entryProducts;
+        this.entryOffsets = entryOffsets;
+        this.types = types;
+    }
+
+    /**
+     * @param products products to index, the last one wins for a repeated id
+     */
+    static ProductNameSegment of(Collection<ProductSuggestionDto> products) {
+        ProductSuggestionDto[] sorted = products.toArray(ProductSuggestionDto[]::new);
+        Arrays.sort(sorted, Comparator.comparing(ProductSuggestionDto::getId));
+        long[] ids = new long[sorted.length];
+        long[] productTypeIds = new long[sorted.length];
+        String[] names = new String[sorted.length];
+        String[] normalizedNames = new String[sorted.length];
+        int count = 0;
+        int entryCount = 0;
+        for (ProductSuggestionDto product : sorted) {
+            if (count > 0 && ids[count - 1] == product.getId()) {
+                count--;
+                entryCount -= wordCount(normalizedNames[count]);
+            }
+            ids[count] = product.getId();
+            productTypeIds[count] = product.getProductTypeId();
+            names[count] = product.getName();
+            normalizedNames[count] = ProductNames.normalize(product.getName());
+            entryCount += wordCount(normalizedNames[count]);
+            count++;
+        }
+
+        int[] wordProducts = new int[entryCount];
+        int[] wordOffsets = new int[entryCount];
+        int entry = 0;
+        for (int product = 0; product < count; product++) {
+            String name = normalizedNames[product];
+            for (int offset = 0; offset < name.length(); offset++) {
+                if (offset == 0 || name.charAt(offset - 1) == ' ') {
+                    wordProducts[entry] = product;
+                    wordOffsets[entry] = offset;
+                    entry++;
+                }
+            }
+        }
+        Integer[] order = new Integer[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byKey = compareKeys(normalizedNames[wordProducts[a]], wordOffsets[a], normalizedNames[wordProducts[b]], wordOffsets[b]);
+            return byKey != 0 ? byKey : Long.compare(ids[wordProducts[a]], ids[wordProducts[b]]);
+        });
+        int[] entryProducts = new int[entryCount];
+        int[] entryOffsets = new int[entryCount];
+        for (int i = 0; i < entryCount; i++) {
+            entryProducts[i] = wordProducts[order[i]];
+            entryOffsets[i] = wordOffsets[order[i]];
+        }
+        long[] segmentTypeIds = Arrays.copyOf(productTypeIds, count);
+        return new ProductNameSegment(Arrays.copyOf(ids, count), segmentTypeIds,
+                Arrays.copyOf(names, count), Arrays.copyOf(normalizedNames, count), entryProducts, entryOffsets,
+                TypeIndex.of(segmentTypeIds, entryProducts));
+    }
+
+    /**
+     * Merges two segments without sorting again. The top segment is expected to be the small one: every top entry
+     * is placed by a binary search in the base, and the base entries between are copied without comparing them.
+     *
+     * @param removed sorted ids of the base products to leave out; a product in both segments is taken from the top
+     */
+    static ProductNameSegment merge(ProductNameSegment base, long[] removed, ProductNameSegment top) {
+        int baseCount = base.ids.length;
+        int topCount = top.ids.length;
+        int[] baseIndexes = new int[baseCount];
+        int[] topIndexes = new int[topCount];
+        long[] ids = new long[baseCount + topCount];
+        long[] productTypeIds = new long[ids.length];
+        String[] names = new String[ids.length];
+        String[] normalizedNames = new String[ids.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        int r = 0;
+        while (i < baseCount || j < topCount) {
+            // the removed ids are sorted like the products, so one pass over them finds every removed product
+            while (i < baseCount && r < removed.length && removed[r] < base.ids[i]) {
+                r++;
+            }
+            if (i < baseCount && ((r < removed.length && removed[r] == base.ids[i])
+                    || (j < topCount && base.ids[i] == top.ids[j]))) {
+                baseIndexes[i++] = -1;
+            } else if (j >= topCount || (i < baseCount && base.ids[i] < top.ids[j])) {
+                base.copyProduct(i, ids, productTypeIds, names, normalizedNames, count);
+                baseIndexes[i++] = count++;
+            } else {
+                top.copyProduct(j, ids, productTypeIds, names, normalizedNames, count);
+                topIndexes[j++] = count++;
+            }
+        }
+
+        int[] entryProducts = new int[base.entryProducts.length + top.entryProducts.length];
+        int[] entryOffsets = new int[entryProducts.length];
+        int[] baseEntries = new int[base.entryProducts.length];
+        int[] topEntries = new int[top.entryProducts.length];
+        int entryCount = 0;
+        i = 0;
+        for (j = 0; j < top.entryProducts.length; j++) {
+            int end = base.lowerBound(i, top, j);
+            entryCount = base.copyEntries(i, end, baseIndexes, entryProducts, entryOffsets, baseEntries, entryCount);
+            i = end;
+            entryProducts[entryCount] = topIndexes[top.entryProducts[j]];
+            entryOffsets[entryCount] = top.entryOffsets[j];
+            topEntries[j] = entryCount++;
+        }
+        entryCount = base.copyEntries(i, base.entryProducts.length, baseIndexes, entryProducts, entryOffsets,
+                baseEntries, entryCount);
+        return new ProductNameSegment(Arrays.copyOf(ids, count), Arrays.copyOf(productTypeIds, count),
+                Arrays.copyOf(names, count), Arrays.copyOf(normalizedNames, count),
+                Arrays.copyOf(entryProducts, entryCount), Arrays.copyOf(entryOffsets, entryCount),
+                TypeIndex.merge(base.types, baseEntries, top.types, topEntries, entryCount));
+    }
+
+    static boolean isRemoved(long[] removed, long id) {
+        return removed.length > 0 && Arrays.binarySearch(removed, id) >= 0;
+    }
+
+    int productCount() {
+        return ids.length;
+    }
+
+    /**
+     * @param productTypeId type of the entries to walk, {@code null} for all entries
+     * @return the first position whose key is not less than the normalized prefix, so the positions of the entries
+     * that start with it follow
+     */
+    int lowerBound(String prefix, Long productTypeId) {
+        int low = productTypeId == null ? 0 : types.start(productTypeId);
+        int high = endPosition(productTypeId);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int entry = entry(middle, productTypeId);
+            if (compareKeys(normalizedNames[entryProducts[entry]], entryOffsets[entry], prefix, 0) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param productTypeId type of the entries to walk, {@code null} for all entries
+     * @return the position after the last entry of the type
+     */
+    int endPosition(Long productTypeId) {
+        return productTypeId == null ? entryProducts.length : types.end(productTypeId);
+    }
+
+    /**
+     * @param productTypeId type of the entries to walk, {@code null} for all entries
+     * @return the entry at the position
+     */
+    int entry(int position, Long productTypeId) {
+        return productTypeId == null ? position : types.entries()[position];
+    }
+
+    boolean startsWith(int entry, String prefix) {
+        return normalizedNames[entryProducts[entry]].startsWith(prefix, entryOffsets[entry]);
+    }
+
+    int compareEntries(int entry, ProductNameSegment other, int otherEntry) {
+        int byKey = compareKeys(normalizedNames[entryProducts[entry]], entryOffsets[entry],
+                other.normalizedNames[other.entryProducts[otherEntry]], other.entryOffsets[otherEntry]);
+        return byKey != 0 ? byKey : Long.compare(id(entry), other.id(otherEntry));
+    }
+
+    long id(int entry) {
+        return ids[entryProducts[entry]];
+    }
+
+    ProductSuggestionDto suggestion(int entry) {
+        int product = entryProducts[entry];
+        return new ProductSuggestionDto(ids[product], names[product], productTypeIds[product]);
+    }
+
+    /**
+     * @return the products of the segment, without the ones whose ids are in the sorted {@code excludedIds}
+     */
+    List<ProductSuggestionDto> products(long[] excludedIds) {
+        List<ProductSuggestionDto> products = new ArrayList<>(ids.length);
+        for (int product = 0; product < ids.length; product++) {
+            if (!isRemoved(excludedIds, ids[product])) {
+                products.add(new ProductSuggestionDto(ids[product], names[product], productTypeIds[product]));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * @return the first entry from {@code from} on that is not less than the entry of the other segment
+     */
+    private int lowerBound(int from, ProductNameSegment other, int otherEntry) {
+        int low = from;
+        int high = entryProducts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareEntries(middle, other, otherEntry) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies the entries from {@code from} to {@code to} with their products renumbered by {@code indexes},
+     * leaving out the entries of the products numbered -1.
+     *
+     * @param positions receives the target index of every copied entry, -1 for one left out
+     * @return the number of entries in the target arrays after the copy
+     */
+    private int copyEntries(int from, int to, int[] indexes, int[] entryProducts, int[] entryOffsets,
+                            int[] positions, int count) {
+        for (int entry = from; entry < to; entry++) {
+            int product = indexes[this.entryProducts[entry]];
+            if (product >= 0) {
+                entryProducts[count] = product;
+                entryOffsets[count] = this.entryOffsets[entry];
+                positions[entry] = count++;
+            } else {
+                positions[entry] = -1;
+            }
+        }
+        return count;
+    }
+
+    private void copyProduct(int product, long[] ids, long[] productTypeIds, String[] names, String[] normalizedNames, int to) {
+        ids[to] = this.ids[product];
+        productTypeIds[to] = this.productTypeIds[product];
+        names[to] = this.names[product];
+        normalizedNames[to] = this.normalizedNames[product];
+    }
+
+    private static int wordCount(String normalizedName) {
+        if (normalizedName.isEmpty()) {
+            return 0;
+        }
+        int count = 1;
+        for (int i = 0; i < normalizedName.length(); i++) {
+            if (normalizedName.charAt(i) == ' ') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compares {@code a} from {@code aOffset} with {@code b} from {@code bOffset} like {@link String#compareTo}.
+     */
+    private static int compareKeys(String a, int aOffset, String b, int bOffset) {
+        int aLength = a.length() - aOffset;
+        int bLength = b.length() - bOffset;
+        int length = Math.min(aLength, bLength);
+        for (int k = 0; k < length; k++) {
+            char aChar = a.charAt(aOffset + k);
+            char bChar = b.charAt(bOffset + k);
+            if (aChar != bChar) {
+                return aChar - bChar;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * The entries listed by product type: the entries of {@code typeIds[t]} are
+     * {@code entries[starts[t]..starts[t + 1])}, in entry order.
+     *
+     * @param typeIds sorted product type ids
+     */
+    private record TypeIndex(long[] typeIds, int[] starts, int[] entries) {
+        /**
+         * Lists the entries by type with a counting sort, which keeps the entry order within each type.
+         */
+        private static TypeIndex of(long[] productTypeIds, int[] entryProducts) {
+            long[] typeIds = Arrays.stream(productTypeIds).sorted().distinct().toArray();
+            int[] productTypes = new int[productTypeIds.length];
+            for (int product = 0; product < productTypeIds.length; product++) {
+                productTypes[product] = Arrays.binarySearch(typeIds, productTypeIds[product]);
+            }
+            int[] starts = new int[typeIds.length + 1];
+            for (int entryProduct : entryProducts) {
+                starts[productTypes[entryProduct] + 1]++;
+            }
+            for (int type = 0; type < typeIds.length; type++) {
+                starts[type + 1] += starts[type];
+            }
+            int[] next = Arrays.copyOf(starts, typeIds.length);
+            int[] entries = new int[entryProducts.length];
+            for (int entry = 0; entry < entryProducts.length; entry++) {
+                entries[next[productTypes[entryProducts[entry]]]++] = entry;
+            }
+            return new TypeIndex(typeIds, starts, entries);
+        }
+
+        /**
+         * Merges the lists of two merged segments type by type. A merge keeps the order of the entries of both,
+         * so the target indexes of a type's entries ascend and the lists are read and written in order, which
+         * is faster on a large base than sorting the merged entries by type again.
+         *
+         * @param basePositions target index of every base entry, -1 for one left out
+         * @param topPositions  target index of every top entry
+         */
+        private static TypeIndex merge(TypeIndex base, int[] basePositions, TypeIndex top, int[] topPositions,
+                                       int entryCount) {
+            long[] typeIds = LongStream.concat(Arrays.stream(base.typeIds), Arrays.stream(top.typeIds))
+                    .sorted().distinct().toArray();
+            int[] starts = new int[typeIds.length + 1];
+            int[] entries = new int[entryCount];
+            int count = 0;
+            for (int type = 0; type < typeIds.length; type++) {
+                starts[type] = count;
+                int b = base.start(typeIds[type]);
+                int baseEnd = base.end(typeIds[type]);
+                int t = top.start(typeIds[type]);
+                int topEnd = top.end(typeIds[type]);
+                while (b < baseEnd || t < topEnd) {
+                    int basePosition = b < baseEnd ? basePositions[base.entries[b]] : -1;
+                    if (b < baseEnd && basePosition < 0) {
+                        b++;
+                    } else if (t >= topEnd || (b < baseEnd && basePosition < topPositions[top.entries[t]])) {
+                        entries[count++] = basePosition;
+                        b++;
+                    } else {
+                        entries[count++] = topPositions[top.entries[t++]];
+                    }
+                }
+            }
+            starts[typeIds.length] = count;
+            return new TypeIndex(typeIds, starts, entries);
+        }
+
+        private int start(long productTypeId) {
+            int type = Arrays.binarySearch(typeIds, productTypeId);
+            return type >= 0 ? starts[type] : 0;
+        }
+
+        private int end(long productTypeId) {
+            int type = Arrays.binarySearch(typeIds, productTypeId);
+            return type >= 0 ? starts[type + 1] : 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.bank.omniproductcatalog.product.autocomplete;
+
+import java.text.Normalizer;
+
+/**
+ * Folding of product names and typed prefixes into the form the index compares: lower case, without
+ * diacritics (ё is е, й is и), with every run of punctuation and whitespace turned into one space.
+ */
+final class ProductNames {
+
+    private ProductNames() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                separator = false;
+            } else if (!isMark(c)) {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+}
@@ -0,0 +1,91 @@
+package ru.bank.omniproductcatalog.product.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.bank.omniproductcatalog.config.CacheConfig;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Keeps the product caches consistent after a write by touching only the entries the write can affect:
+ * the product itself, the list of its type and the unfiltered list.
+ * <p>
+ * Written products are evicted rather than put: of two concurrent updates the one that commits last may finish
+ * first, and putting the value it returned would keep the older state cached. The next read loads the committed row.
+ * <p>
+ * Must be called after the write is committed. An async load that is still in flight for an evicted key
+ * is discarded by Caffeine together with the mapping, so it cannot put the old value back.
+ */
+@Component
+public class ProductCacheInvalidator {
+    private final CacheManager cacheManager;
+
+    public ProductCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void productSaved(ProductResponseDto product, String typeName) {
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        if (productById != null) {
+            productById.evict(product.getId());
+        }
+        evictLists(typeName);
+    }
+
+    /**
+     * Same as {@link #productSaved} for every product, but each affected list is evicted only once.
+     */
+    public void productsSaved(Collection<ProductResponseDto> products, Collection<String> typeNames) {
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        if (productById != null) {
+            products.forEach(product -> productById.evict(product.getId()));
+        }
+        evictLists(typeNames);
+    }
+
+    /**
+     * Same as {@link #productsSaved} for products changed in place, when only their ids are at hand.
+     */
+    public void productsChanged(Collection<Long> ids, Collection<String> typeNames) {
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        if (productById != null) {
+            ids.forEach(productById::evict);
+        }
+        evictLists(typeNames);
+    }
+
+    public void productDeleted(Long id, String typeName) {
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        if (productById != null) {
+            productById.evict(id);
+        }
+        evictLists(typeName);
+    }
+
+    private void evictLists(Collection<String> typeNames) {
+        if (typeNames.stream().anyMatch(Objects::isNull)) {
+            evictLists((String) null);
+        } else {
+            typeNames.forEach(this::evictLists);
+        }
+    }
+
+    /**
+     * @param typeName type of the changed product, {@code null} if unknown, in which case every list is dropped
+     */
+    private void evictLists(String typeName) {
+        Cache productLists = cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE);
+        if (productLists == null) {
+            return;
+        }
+        if (typeName == null) {
+            productLists.clear();
+            return;
+        }
+        productLists.evict(typeName);
+        productLists.evict(CacheConfig.ALL_PRODUCTS_KEY);
+    }
+}
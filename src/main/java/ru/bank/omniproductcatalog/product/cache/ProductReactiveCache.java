@@ -0,0 +1,139 @@
+package ru.bank.omniproductcatalog.product.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.bank.omniproductcatalog.config.CacheConfig;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of products on top of the Caffeine caches from {@link CacheConfig}.
+ * <p>
+ * Lists are stored as completed immutable {@code List}s: the loader result is cached only after the whole
+ * Flux has completed, a failed load is removed by Caffeine and never cached, and every later subscriber
+ * replays the same list without touching the repository. A subscriber that cancels does not cancel the
+ * shared load other subscribers may be waiting for.
+ * <p>
+ * Concurrent misses for the same key are coalesced: the first one starts the load and puts its future
+ * into the cache, the others subscribe to that future, so they share one query and one mapped result.
+ * A bulk read loads only the keys that are missing, with a single loader call.
+ * {@code product.cache.requests} counts the calls (keys for a bulk read) per cache with {@code result} = hit, load or coalesced.
+ */
+@Component
+public class ProductReactiveCache {
+    private static final String REQUESTS_METRIC = "product.cache.requests";
+
+    private final SharedCache productById;
+    private final SharedCache productLists;
+
+    public ProductReactiveCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.productById = new SharedCache(asyncCache(cacheManager, CacheConfig.PRODUCT_BY_ID),
+                CacheConfig.PRODUCT_BY_ID, meterRegistry);
+        this.productLists = new SharedCache(asyncCache(cacheManager, CacheConfig.PRODUCT_LIST_BY_TYPE),
+                CacheConfig.PRODUCT_LIST_BY_TYPE, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Flux<ProductResponseDto> getList(String type, Supplier<Flux<ProductResponseDto>> loader) {
+        return productLists.get(CacheConfig.productListKey(type), () -> loader.get()
+                        .collectList()
+                        .map(List::copyOf))
+                .flatMapIterable(list -> (List<ProductResponseDto>) list);
+    }
+
+    /**
+     * An empty loader result is not cached and is returned as an empty Mono.
+     */
+    public Mono<ProductResponseDto> getById(Long id, Supplier<Mono<ProductResponseDto>> loader) {
+        return productById.get(id, loader::get)
+                .cast(ProductResponseDto.class);
+    }
+
+    /**
+     * Looks up all ids with one bulk read of the cache and calls the loader once, only with the ids that are
+     * neither cached nor already being loaded. Ids the loader does not return are left out of the result.
+     */
+    @SuppressWarnings("unchecked")
+    public Mono<Map<Long, ProductResponseDto>> getAllById(Collection<Long> ids,
+                                                          Function<Set<Long>, Mono<Map<Long, ProductResponseDto>>> loader) {
+        return productById.getAll(ids, missing -> loader.apply((Set<Long>) missing))
+                .map(products -> (Map<Long, ProductResponseDto>) (Map<?, ?>) products);
+    }
+
+    private static final class SharedCache {
+        private final AsyncCache<Object, Object> cache;
+        private final Counter hits;
+        private final Counter loads;
+        private final Counter coalesced;
+
+        private SharedCache(AsyncCache<Object, Object> cache, String name, MeterRegistry meterRegistry) {
+            this.cache = cache;
+            this.hits = counter(meterRegistry, name, "hit");
+            this.loads = counter(meterRegistry, name, "load");
+            this.coalesced = counter(meterRegistry, name, "coalesced");
+        }
+
+        private Mono<Object> get(Object key, Supplier<Mono<?>> loader) {
+            return Mono.fromFuture(() -> {
+                // Caffeine runs the mapping function on this thread, before get() returns
+                boolean[] started = new boolean[1];
+                CompletableFuture<Object> future = cache.get(key, (k, executor) -> {
+                    started[0] = true;
+                    return loader.get().<Object>map(value -> value).toFuture();
+                });
+                if (started[0]) {
+                    loads.increment();
+                } else if (future.isDone()) {
+                    hits.increment();
+                } else {
+                    coalesced.increment();
+                }
+                return future;
+            }, true);
+        }
+
+        private Mono<Map<Object, Object>> getAll(Collection<?> keys, Function<Set<?>, Mono<? extends Map<?, ?>>> loader) {
+            return Mono.fromFuture(() -> {
+                // a key already in the cache is either a completed hit or joins the load in flight
+                for (Object key : keys) {
+                    CompletableFuture<Object> future = cache.getIfPresent(key);
+                    if (future != null) {
+                        (future.isDone() ? hits : coalesced).increment();
+                    }
+                }
+                return cache.getAll(keys, (missing, executor) -> {
+                    loads.increment(missing.size());
+                    return loader.apply(missing).toFuture();
+                });
+            }, true);
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String cache, String result) {
+            return Counter.builder(REQUESTS_METRIC)
+                    .description("Product cache requests by result; coalesced requests joined a load already in flight")
+                    .tag("cache", cache)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static AsyncCache<Object, Object> asyncCache(CacheManager cacheManager, String name) {
+        if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) {
+            throw new IllegalStateException("Caffeine cache " + name + " is not configured");
+        }
+        return cache.getAsyncCache();
+    }
+}
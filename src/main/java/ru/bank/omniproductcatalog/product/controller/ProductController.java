@@ -3,21 +3,35 @@ package ru.bank.omniproductcatalog.product.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.bank.omniproductcatalog.model.exception.FieldValidationException;
+import ru.bank.omniproductcatalog.model.exception.PreconditionFailedException;
 import ru.bank.omniproductcatalog.model.exception.ValidationError;
 import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateErrorDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
 import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
 import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
 import ru.bank.omniproductcatalog.product.service.ProductService;
 import ru.bank.omniproductcatalog.util.MonoUtils;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -27,20 +41,44 @@ public class ProductController {
     private final ProductService productService;
     private final MonoUtils monoUtils;
     private final Long timeout;
+    private final Integer defaultPageSize;
+    private final Integer maxPageSize;
+    private final Integer maxBatchSize;
+    private final Integer maxBulkCreateSize;
+    private final Integer maxLifecycleSize;
+    private final Integer maxSearchQueryLength;
+    private final Integer defaultAutocompleteSize;
+    private final Integer maxAutocompleteSize;
 
     public ProductController(ProductService productService,
                              MonoUtils monoUtils,
-                             @Value("${application.product.timeout}") Long timeout) {
+                             @Value("${application.product.timeout}") Long timeout,
+                             @Value("${application.product.page.default_size}") Integer defaultPageSize,
+                             @Value("${application.product.page.max_size}") Integer maxPageSize,
+                             @Value("${application.product.batch.max_size}") Integer maxBatchSize,
+                             @Value("${application.product.bulk_create.max_size}") Integer maxBulkCreateSize,
+                             @Value("${application.product.lifecycle.max_size}") Integer maxLifecycleSize,
+                             @Value("${application.product.search.max_query_length}") Integer maxSearchQueryLength,
+                             @Value("${application.product.autocomplete.default_size}") Integer defaultAutocompleteSize,
+                             @Value("${application.product.autocomplete.max_size}") Integer maxAutocompleteSize) {
         this.productService = productService;
         this.monoUtils = monoUtils;
         this.timeout = timeout;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBulkCreateSize = maxBulkCreateSize;
+        this.maxLifecycleSize = maxLifecycleSize;
+        this.maxSearchQueryLength = maxSearchQueryLength;
+        this.defaultAutocompleteSize = defaultAutocompleteSize;
+        this.maxAutocompleteSize = maxAutocompleteSize;
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public Flux<ProductResponseDto> getProducts(@RequestParam(required = false) String type) {
         logger.info("Fetching products with type: {}", type);
-        return monoUtils.oksServiceCallableRight(productService.getAllProducts(type), timeout)
+        return monoUtils.oksServiceCallableRight("get_products", productService.getAllProducts(type), timeout)
                 .doOnNext(product -> {
                     if (type != null) {
                         logger.info("Successfully fetched products with type: {}", type);
@@ -50,11 +88,84 @@ public class ProductController {
                 });
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<ProductResponseDto> streamProducts(@RequestParam(required = false) String type) {
+        logger.info("Streaming products with type: {}", type);
+        return monoUtils.oksServiceCallableRight("stream_products", productService.streamAllProducts(type), timeout)
+                .doOnComplete(() -> logger.info("Successfully streamed products with type: {}", type));
+    }
+
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ProductPageResponseDto> getProductsPage(@RequestParam(required = false) String type,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit) {
+        logger.info("Fetching products page with type: {}, cursor: {}, limit: {}", type, cursor, limit);
+        List<ValidationError> validationErrors = validatePageLimit(limit);
+        if (!validationErrors.isEmpty()) {
+            return Mono.error(new FieldValidationException("Invalid page request", validationErrors));
+        }
+        int pageSize = limit != null ? limit : defaultPageSize;
+        return monoUtils.oksServiceCallableRight("get_products_page", productService.getProductsPage(type, cursor, pageSize), timeout)
+                .doOnNext(page -> logger.info("Successfully fetched {} products, has next page: {}",
+                        page.getItems().size(), page.getNextCursor() != null));
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ProductPageResponseDto> searchProducts(@RequestParam(required = false) String q,
+                                                       @RequestParam(required = false) String type,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit) {
+        logger.info("Searching products with query: {}, type: {}, cursor: {}, limit: {}", q, type, cursor, limit);
+        List<ValidationError> validationErrors = validateSearchQuery(q);
+        validationErrors.addAll(validatePageLimit(limit));
+        if (!validationErrors.isEmpty()) {
+            return Mono.error(new FieldValidationException("Invalid search request", validationErrors));
+        }
+        int pageSize = limit != null ? limit : defaultPageSize;
+        return monoUtils.oksServiceCallableRight("search_products", productService.searchProducts(q.trim(), type, cursor, pageSize), timeout)
+                .doOnNext(page -> logger.info("Successfully found {} products, has next page: {}",
+                        page.getItems().size(), page.getNextCursor() != null));
+    }
+
+    /**
+     * Completes a name typed into a type-ahead box from the in-memory name index, without querying the database.
+     */
+    @GetMapping("/autocomplete")
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<ProductSuggestionDto> autocompleteProducts(@RequestParam(required = false) String prefix,
+                                                           @RequestParam(required = false) String type,
+                                                           @RequestParam(required = false) Integer limit) {
+        logger.info("Completing products with prefix: {}, type: {}, limit: {}", prefix, type, limit);
+        List<ValidationError> validationErrors = validateAutocompleteRequest(prefix, limit);
+        if (!validationErrors.isEmpty()) {
+            return Flux.error(new FieldValidationException("Invalid autocomplete request", validationErrors));
+        }
+        int size = limit != null ? limit : defaultAutocompleteSize;
+        return monoUtils.oksServiceCallableRight("autocomplete_products", productService.autocompleteProducts(prefix, type, size), timeout);
+    }
+
+    @GetMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ProductBatchResponseDto> getProductsByIds(@RequestParam List<Long> ids) {
+        logger.info("Fetching products with ids: {}", ids);
+        List<ValidationError> validationErrors = validateBatchIds(ids);
+        if (!validationErrors.isEmpty()) {
+            return Mono.error(new FieldValidationException("Invalid batch request", validationErrors));
+        }
+        return monoUtils.oksServiceCallableRight("get_products_by_ids", productService.getProductsByIds(ids), timeout)
+                .doOnNext(batch -> logger.info("Successfully fetched {} products, missing ids: {}",
+                        batch.getProducts().size(), batch.getMissingIds()));
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public Mono<ProductResponseDto> getProductById(@PathVariable Long id) {
+    public Mono<ProductResponseDto> getProductById(@PathVariable Long id, ServerHttpResponse response) {
         logger.info("Fetching product with id: {}", id);
-        return monoUtils.oksServiceCallableRight(productService.getProductById(id), timeout)
+        return monoUtils.oksServiceCallableRight("get_product_by_id", productService.getProductById(id), timeout)
+                .doOnNext(product -> setETag(response, product))
                 .doOnNext(product -> logger.info("Successfully fetched product with id={}", id));
     }
 
@@ -67,30 +178,111 @@ public class ProductController {
         if (!validationErrors.isEmpty()) {
             return Mono.error(new FieldValidationException("Invalid product data", validationErrors));
         }
-        return monoUtils.oksServiceCallableRight(productService.createProduct(newProductRequestDto), timeout)
+        return monoUtils.oksServiceCallableRight("create_product", productService.createProduct(newProductRequestDto), timeout)
                 .doOnNext(product -> logger.info("Successfully created product={}", newProductRequestDto));
     }
 
+    /**
+     * Creates the valid products in one transaction and reports every rejected item by its index in the request,
+     * so one bad item does not fail the whole batch.
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ProductBulkCreateResponseDto> createProducts(@RequestBody List<NewProductRequestDto> newProductRequestDtos) {
+        logger.info("Creating {} products", newProductRequestDtos != null ? newProductRequestDtos.size() : null);
+        List<ValidationError> validationErrors = validateBulkCreateSize(newProductRequestDtos);
+        if (!validationErrors.isEmpty()) {
+            return Mono.error(new FieldValidationException("Invalid batch request", validationErrors));
+        }
+
+        Map<Integer, NewProductRequestDto> validRequests = new LinkedHashMap<>();
+        List<ProductBulkCreateErrorDto> rejected = new ArrayList<>();
+        for (int i = 0; i < newProductRequestDtos.size(); i++) {
+            List<ValidationError> errors = validateNewRequest(newProductRequestDtos.get(i));
+            if (errors.isEmpty()) {
+                validRequests.put(i, newProductRequestDtos.get(i));
+            } else {
+                rejected.add(new ProductBulkCreateErrorDto(i, errors));
+            }
+        }
+        return monoUtils.oksServiceCallableRight("create_products", productService.createProducts(validRequests), timeout)
+                .map(response -> {
+                    List<ProductBulkCreateErrorDto> errors = new ArrayList<>(rejected);
+                    errors.addAll(response.getErrors());
+                    errors.sort(Comparator.comparing(ProductBulkCreateErrorDto::getIndex));
+                    return new ProductBulkCreateResponseDto(response.getCreated(), errors);
+                })
+                .doOnNext(response -> logger.info("Successfully created {} products, rejected {}",
+                        response.getCreated().size(), response.getErrors().size()));
+    }
+
+    /**
+     * Opens or closes the given products, or every product of the given type, and returns the outcome per product.
+     */
+    @PostMapping("/lifecycle")
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<ProductLifecycleResultDto> changeLifecycle(@RequestBody ProductLifecycleRequestDto productLifecycleRequestDto) {
+        logger.info("Changing products lifecycle: {}", productLifecycleRequestDto);
+        List<ValidationError> validationErrors = validateLifecycleRequest(productLifecycleRequestDto);
+        if (!validationErrors.isEmpty()) {
+            return Flux.error(new FieldValidationException("Invalid lifecycle request", validationErrors));
+        }
+        return monoUtils.oksServiceCallableRight("change_lifecycle", productService.changeLifecycle(productLifecycleRequestDto), timeout)
+                .doOnComplete(() -> logger.info("Successfully changed products lifecycle: {}", productLifecycleRequestDto));
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public Mono<Void> deleteProduct(@PathVariable Long id) {
-        logger.info("Deleting product with id: {}", id);
-        return monoUtils.oksServiceCallableRight(productService.deleteProduct(id), timeout)
+    public Mono<Void> deleteProduct(@PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("Deleting product with id: {}, If-Match: {}", id, ifMatch);
+        return Mono.defer(() -> monoUtils.oksServiceCallableRight(
+                        "delete_product", productService.deleteProduct(id, parseIfMatch(ifMatch)), timeout))
                 .then(Mono.fromRunnable(() -> logger.info("Successfully deleted product with id={}", id)));
     }
 
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public Mono<ProductResponseDto> updateProduct(@RequestBody UpdateProductRequestDto updateProductRequestDto, @PathVariable Long id) {
-        logger.info("Updating product: {}", updateProductRequestDto);
+    public Mono<ProductResponseDto> updateProduct(@RequestBody UpdateProductRequestDto updateProductRequestDto, @PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  ServerHttpResponse response) {
+        logger.info("Updating product: {}, If-Match: {}", updateProductRequestDto, ifMatch);
         List<ValidationError> validationErrors = validateUpdateRequest(updateProductRequestDto);
         if (!validationErrors.isEmpty()) {
             return Mono.error(new FieldValidationException("Invalid product data", validationErrors));
         }
-        return monoUtils.oksServiceCallableRight(productService.updateProduct(id, updateProductRequestDto), timeout)
+        return Mono.defer(() -> monoUtils.oksServiceCallableRight(
+                        "update_product", productService.updateProduct(id, updateProductRequestDto, parseIfMatch(ifMatch)), timeout))
+                .doOnNext(product -> setETag(response, product))
                 .doOnNext(product -> logger.info("Successfully updated product={}", updateProductRequestDto));
     }
 
+    /**
+     * The ETag of a product is its quoted version, so an {@code If-Match} value is the version the client expects.
+     *
+     * @return the expected version, {@code null} if there is no precondition
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through: an ETag this service never issued cannot match
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current product version");
+    }
+
+    private static void setETag(ServerHttpResponse response, ProductResponseDto product) {
+        if (product.getVersion() != null) {
+            response.getHeaders().setETag("\"" + product.getVersion() + "\"");
+        }
+    }
+
     public List<ValidationError> validateNewRequest(NewProductRequestDto newProductRequestDto) {
         List<ValidationError> errors = new ArrayList<>();
         Optional<NewProductRequestDto> optional = Optional.ofNullable(newProductRequestDto);
@@ -125,6 +317,82 @@ public class ProductController {
         return errors;
     }
 
+    public List<ValidationError> validatePageLimit(Integer limit) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (limit != null && (limit < 1 || limit > maxPageSize)) {
+            errors.add(new ValidationError("limit", "Limit must be between 1 and " + maxPageSize));
+        }
+        return errors;
+    }
+
+    public List<ValidationError> validateSearchQuery(String query) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (!StringUtils.hasText(query)) {
+            errors.add(new ValidationError("q", "Search query cannot be null or empty"));
+        } else if (query.length() > maxSearchQueryLength) {
+            errors.add(new ValidationError("q", "Search query must be at most " + maxSearchQueryLength + " characters"));
+        }
+        return errors;
+    }
+
+    public List<ValidationError> validateAutocompleteRequest(String prefix, Integer limit) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (!StringUtils.hasText(prefix)) {
+            errors.add(new ValidationError("prefix", "Prefix cannot be null or empty"));
+        } else if (prefix.length() > maxSearchQueryLength) {
+            errors.add(new ValidationError("prefix", "Prefix must be at most " + maxSearchQueryLength + " characters"));
+        }
+        if (limit != null && (limit < 1 || limit > maxAutocompleteSize)) {
+            errors.add(new ValidationError("limit", "Limit must be between 1 and " + maxAutocompleteSize));
+        }
+        return errors;
+    }
+
+    public List<ValidationError> validateBatchIds(List<Long> ids) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (ids == null || ids.isEmpty() || ids.contains(null)) {
+            errors.add(new ValidationError("ids", "Ids cannot be null or empty"));
+        } else if (ids.size() > maxBatchSize) {
+            errors.add(new ValidationError("ids", "No more than " + maxBatchSize + " ids can be requested at once"));
+        }
+        return errors;
+    }
+
+    public List<ValidationError> validateBulkCreateSize(List<NewProductRequestDto> newProductRequestDtos) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (newProductRequestDtos == null || newProductRequestDtos.isEmpty()) {
+            errors.add(new ValidationError("newProductRequestDtos", "Product requests cannot be null or empty"));
+        } else if (newProductRequestDtos.size() > maxBulkCreateSize) {
+            errors.add(new ValidationError("newProductRequestDtos",
+                    "No more than " + maxBulkCreateSize + " products can be created at once"));
+        }
+        return errors;
+    }
+
+    public List<ValidationError> validateLifecycleRequest(ProductLifecycleRequestDto productLifecycleRequestDto) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (productLifecycleRequestDto == null) {
+            errors.add(new ValidationError("productLifecycleRequestDto", "Lifecycle request cannot be null"));
+            return errors;
+        }
+
+        if (productLifecycleRequestDto.open() == null) {
+            errors.add(new ValidationError("open", "Open cannot be null"));
+        }
+        List<Long> ids = productLifecycleRequestDto.ids();
+        boolean hasType = StringUtils.hasText(productLifecycleRequestDto.type());
+        if ((ids == null) == !hasType) {
+            errors.add(new ValidationError("ids", "Exactly one of ids or type must be set"));
+        } else if (ids != null) {
+            if (ids.isEmpty() || ids.contains(null)) {
+                errors.add(new ValidationError("ids", "Ids cannot be null or empty"));
+            } else if (ids.size() > maxLifecycleSize) {
+                errors.add(new ValidationError("ids", "No more than " + maxLifecycleSize + " ids can be changed at once"));
+            }
+        }
+        return errors;
+    }
+
     private static void validProductDescription(String description, List<ValidationError> errors) {
         if (!StringUtils.hasText(description)) {
             errors.add(new ValidationError("description", "Description cannot be null or empty"));
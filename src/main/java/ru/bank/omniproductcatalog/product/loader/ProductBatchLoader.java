@@ -0,0 +1,131 @@
+package ru.bank.omniproductcatalog.product.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.bank.omniproductcatalog.product.repository.Product;
+import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads products by id in micro-batches: ids requested concurrently within {@code max_wait_us}, up to
+ * {@code max_size} of them, are read with one {@code ANY(:ids)} query and the rows are handed back to the
+ * waiting callers. An id without a row completes its caller empty, exactly like {@code findProductById}.
+ * <p>
+ * Each lookup waits at most {@code max_wait_us} for the batch to fill. At most {@code max_concurrent_batches}
+ * batch queries run at once, so the loader cannot take more connections than the pool holds; further full batches
+ * wait for one of them to finish. When disabled or not running, lookups go straight to {@code findProductById}.
+ * If the batching pipeline fails it is logged and started again; the lookups it held fail, as do the ones still
+ * waiting when the loader is stopped.
+ */
+@Component
+public class ProductBatchLoader implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ProductBatchLoader.class);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final int maxConcurrentBatches;
+    private volatile FluxSink<Request> requests;
+    private volatile Disposable subscription;
+
+    public ProductBatchLoader(ProductRepository productRepository,
+                              @Value("${application.product.batch_loader.enabled}") boolean enabled,
+                              @Value("${application.product.batch_loader.max_size}") int maxBatchSize,
+                              @Value("${application.product.batch_loader.max_wait_us}") long maxWaitMicros,
+                              @Value("${application.product.batch_loader.max_concurrent_batches}") int maxConcurrentBatches) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = Duration.ofNanos(maxWaitMicros * 1000);
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+
+    public Mono<Product> load(Long id) {
+        return Mono.defer(() -> {
+            FluxSink<Request> current = requests;
+            if (current == null || current.isCancelled()) {
+                return productRepository.findProductById(id);
+            }
+            Sinks.One<Product> result = Sinks.one();
+            current.next(new Request(id, result));
+            return result.asMono();
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.<Request>create(sink -> requests = sink)
+                // fair backpressure: a full batch waits for demand instead of failing the pipeline with an overflow
+                .bufferTimeout(maxBatchSize, maxWait, true)
+                .flatMap(this::loadBatch, maxConcurrentBatches)
+                .doOnDiscard(Request.class, request -> request.fail(dropped()))
+                .doOnError(e -> logger.error("Product batch loader failed, restarting it", e))
+                .retry()
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        requests = null;
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    private Mono<Void> loadBatch(List<Request> batch) {
+        Set<Long> ids = batch.stream().map(Request::id).collect(Collectors.toSet());
+        return productRepository.findProductsByIds(ids)
+                .collectMap(Product::getId)
+                .doOnNext(products -> batch.forEach(request -> request.complete(products)))
+                .doOnError(e -> {
+                    logger.error("Failed to load products with ids={}", ids, e);
+                    batch.forEach(request -> request.fail(e));
+                })
+                .onErrorResume(e -> Mono.empty())
+                .doOnCancel(() -> batch.forEach(request -> request.fail(dropped())))
+                .then();
+    }
+
+    private static IllegalStateException dropped() {
+        return new IllegalStateException("Product batch loader stopped before loading the product");
+    }
+
+    private record Request(Long id, Sinks.One<Product> result) {
+        private void complete(Map<Long, Product> products) {
+            Product product = products.get(id);
+            if (product != null) {
+                result.tryEmitValue(product);
+            } else {
+                result.tryEmitEmpty();
+            }
+        }
+
+        private void fail(Throwable e) {
+            result.tryEmitError(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ru.bank.omniproductcatalog.product.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import ru.bank.omniproductcatalog.model.exception.BadRequestException;
+import ru.bank.omniproductcatalog.model.exception.FieldValidationException;
+import ru.bank.omniproductcatalog.model.exception.NotFoundException;
+import ru.bank.omniproductcatalog.model.exception.PreconditionFailedException;
+import ru.bank.omniproductcatalog.model.exception.ServiceTimeoutException;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeRegistry;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeSnapshot;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Timers of the product service and repository calls, tagged with {@code operation}, product {@code type}
+ * and {@code outcome}. A call is timed from subscription to its terminal signal, so a Flux is timed
+ * until its last element has been consumed and a cancelled call is recorded with outcome {@code cancelled}.
+ * <p>
+ * The type tag is a product type name only if the product type registry knows it, any other value is tagged
+ * {@code unknown}, so a client cannot create new time series by sending new type names.
+ */
+@Component
+public class ProductMetrics {
+    public static final String SERVICE = "product.service";
+    public static final String REPOSITORY = "product.repository";
+    /**
+     * Type tag of a call for products of every type.
+     */
+    public static final String ALL_TYPES = "all";
+    /**
+     * Type tag of a call that is not for one product type, such as a read by id.
+     */
+    public static final String NO_TYPE = "none";
+    public static final String UNKNOWN_TYPE = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final ProductTypeRegistry productTypeRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ProductMetrics(MeterRegistry meterRegistry, ProductTypeRegistry productTypeRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.productTypeRegistry = productTypeRegistry;
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> timedMono(String metric, String operation, String type) {
+        return source -> Mono.defer(() -> {
+            Call call = new Call(metric, operation, type);
+            return source
+                    .doOnNext(value -> call.emitted = true)
+                    .doOnError(call::failed)
+                    .doFinally(signal -> call.stop(signal, true));
+        });
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> timedFlux(String metric, String operation, String type) {
+        return source -> Flux.defer(() -> {
+            Call call = new Call(metric, operation, type);
+            return source
+                    .doOnError(call::failed)
+                    .doFinally(signal -> call.stop(signal, false));
+        });
+    }
+
+    public String typeTag(String typeName) {
+        if (!StringUtils.hasText(typeName)) {
+            return ALL_TYPES;
+        }
+        ProductTypeSnapshot productTypes = productTypeRegistry.current();
+        return productTypes != null && productTypes.findByName(typeName) != null ? typeName : UNKNOWN_TYPE;
+    }
+
+    public String typeTag(Long productTypeId) {
+        if (productTypeId == null) {
+            return ALL_TYPES;
+        }
+        ProductTypeSnapshot productTypes = productTypeRegistry.current();
+        ProductType productType = productTypes != null ? productTypes.findById(productTypeId) : null;
+        return productType != null ? productType.getName() : UNKNOWN_TYPE;
+    }
+
+    static String outcome(Throwable error) {
+        if (error instanceof NotFoundException) {
+            return "not_found";
+        }
+        if (error instanceof BadRequestException || error instanceof FieldValidationException
+                || error instanceof PreconditionFailedException) {
+            return "client_error";
+        }
+        if (error instanceof ServiceTimeoutException || error instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
+
+    private Timer timer(TimerKey key) {
+        return timers.computeIfAbsent(key, k -> Timer.builder(k.metric())
+                .description("Product " + (SERVICE.equals(k.metric()) ? "service" : "repository") + " calls")
+                .tag("operation", k.operation())
+                .tag("type", k.type())
+                .tag("outcome", k.outcome())
+                .register(meterRegistry));
+    }
+
+    private record TimerKey(String metric, String operation, String type, String outcome) {
+    }
+
+    private final class Call {
+        private final String metric;
+        private final String operation;
+        private final String type;
+        private final long start;
+        private volatile boolean emitted;
+        private volatile String errorOutcome;
+
+        private Call(String metric, String operation, String type) {
+            this.metric = metric;
+            this.operation = operation;
+            this.type = type;
+            this.start = meterRegistry.config().clock().monotonicTime();
+        }
+
+        private void failed(Throwable error) {
+            errorOutcome = outcome(error);
+        }
+
+        private void stop(SignalType signal, boolean single) {
+            String outcome;
+            if (signal == SignalType.CANCEL) {
+                // a Mono may be cancelled right after its value was delivered
+                outcome = single && emitted ? "success" : "cancelled";
+            } else if (signal == SignalType.ON_ERROR) {
+                outcome = errorOutcome;
+            } else {
+                outcome = single && !emitted ? "empty" : "success";
+            }
+            long elapsed = meterRegistry.config().clock().monotonicTime() - start;
+            timer(new TimerKey(metric, operation, type, outcome)).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+}
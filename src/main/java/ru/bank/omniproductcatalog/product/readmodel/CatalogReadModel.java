@@ -0,0 +1,329 @@
+package ru.bank.omniproductcatalog.product.readmodel;
+
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.mapper.ProductMapper;
+import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+import ru.bank.omniproductcatalog.util.ConnectionFactories;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory copy of the catalog, kept fresh by the {@code product_changes} notifications
+ * that the product table trigger sends on every insert, update, delete and truncate.
+ * <p>
+ * Notifications that arrive within {@code max_batch_wait_ms} of each other, or while the previous ones are applied,
+ * are applied together: the products inserted or updated are read with one query and merged into the snapshot at once.
+ * <p>
+ * The snapshot is dropped while the listening connection is down, so readers fall back
+ * to the repository instead of serving data that may have missed changes.
+ * <p>
+ * Lookups by id read the writes of this instance: a product it inserted, updated or deleted is not looked up
+ * in the snapshot, and readers fall back to the repository, until the snapshot has applied the change. The version
+ * the write left tells when an insert or update is applied, the delete notification when a delete is. Lists and the
+ * writes of other instances are applied asynchronously, usually within {@code max_batch_wait_ms} of the commit.
+ */
+@Component
+public class CatalogReadModel implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReadModel.class);
+    private static final String CHANNEL = "product_changes";
+    private static final String RELOAD = "RELOAD:";
+
+    private final ConnectionFactory connectionFactory;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration maxBatchWait;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final Map<Long, Write> writes = new ConcurrentHashMap<>();
+    private volatile Disposable subscription;
+
+    public CatalogReadModel(ConnectionFactory connectionFactory,
+                            ProductRepository productRepository,
+                            ProductMapper productMapper,
+                            @Value("${application.catalog.read_model.enabled}") boolean enabled,
+                            @Value("${application.catalog.read_model.max_batch_size}") int maxBatchSize,
+                            @Value("${application.catalog.read_model.max_batch_wait_ms}") long maxBatchWait) {
+        this.connectionFactory = connectionFactory;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchWait = Duration.ofMillis(maxBatchWait);
+    }
+
+    /**
+     * @param productTypeId type of the products to list, {@code null} for all types
+     */
+    public Optional<List<ProductResponseDto>> findAll(Long productTypeId) {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? Optional.of(current.findAll(productTypeId)) : Optional.empty();
+    }
+
+    /**
+     * @return empty if the read model is not ready, otherwise the lookup result, which is
+     * {@code Optional.of(Optional.empty())} for an id that does not exist
+     */
+    public Optional<Optional<ProductResponseDto>> findById(Long id) {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null || writes.containsKey(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(Optional.ofNullable(current.findById(id)));
+    }
+
+    /**
+     * @return empty if the read model is not ready or has not applied a write of one of the ids yet, otherwise
+     * the products found for the ids, all read from the same snapshot
+     */
+    public Optional<Map<Long, ProductResponseDto>> findAllById(Collection<Long> ids) {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null || ids.stream().anyMatch(writes::containsKey)) {
+            return Optional.empty();
+        }
+        Map<Long, ProductResponseDto> found = new HashMap<>();
+        for (Long id : ids) {
+            ProductResponseDto product = current.findById(id);
+            if (product != null) {
+                found.put(id, product);
+            }
+        }
+        return Optional.of(found);
+    }
+
+    public boolean isReady() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * Called with a product this instance inserted or updated, before the write is answered. The product is read
+     * from the repository until the snapshot has it at this version or later.
+     */
+    public void productSaved(Long id, Long version) {
+        if (!enabled) {
+            return;
+        }
+        writes.compute(id, (key, write) -> settle(key, (write != null ? write : Write.NONE).withSaved(version),
+                snapshot.get(), false));
+    }
+
+    /**
+     * Wraps the delete of a product by this instance. The product is read from the repository from the moment the
+     * delete starts until the snapshot has applied it. A delete that emits nothing or fails only lasts until it ends.
+     */
+    public <T> Mono<T> deleting(Long id, Mono<T> delete) {
+        if (!enabled) {
+            return delete;
+        }
+        return Mono.using(
+                () -> writes.merge(id, Write.DELETING, (write, deleting) -> write.withDeleteStarted()),
+                ignored -> delete.doOnNext(result -> writes.computeIfPresent(id, (key, write) -> write.withDeleted())),
+                ignored -> writes.computeIfPresent(id, (key, write) -> settle(key, write.withDeleteFinished(),
+                        snapshot.get(), false)));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.usingWhen(
+                        Mono.from(ConnectionFactories.unwrap(connectionFactory).create()).cast(PostgresqlConnection.class),
+                        this::listen,
+                        Connection::close)
+                .bufferTimeout(maxBatchSize, maxBatchWait, true)
+                .concatMap(this::apply)
+                .doOnError(e -> {
+                    logger.error("Catalog read model lost its notification connection, serving from repository", e);
+                    snapshot.set(null);
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        snapshot.set(null);
+        writes.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    private Flux<String> listen(PostgresqlConnection connection) {
+        // The full reload is queued first and the notifications are subscribed right after it,
+        // so changes committed while the catalog is loading are applied on top of it
+        return connection.createStatement("LISTEN " + CHANNEL)
+                .execute()
+                .flatMap(result -> result.getRowsUpdated())
+                .thenMany(Flux.just(RELOAD)
+                        .concatWith(connection.getNotifications()
+                                .onBackpressureBuffer()
+                                .map(Notification::getParameter)));
+    }
+
+    private Mono<Void> apply(List<String> events) {
+        // A reload reads every product, so it covers the changes notified before it
+        int reloadAt = -1;
+        for (int i = 0; i < events.size(); i++) {
+            if (!isProductChange(events.get(i))) {
+                reloadAt = i;
+            }
+        }
+        // The last change of a product wins: it is either read again or removed
+        Set<Long> savedIds = new HashSet<>();
+        Set<Long> removedIds = new HashSet<>();
+        for (String event : events.subList(reloadAt + 1, events.size())) {
+            int separator = event.indexOf(':');
+            Long id = Long.valueOf(event.substring(separator + 1));
+            if (event.startsWith("DELETE")) {
+                savedIds.remove(id);
+                removedIds.add(id);
+            } else {
+                removedIds.remove(id);
+                savedIds.add(id);
+            }
+        }
+        Mono<Void> reloaded = reloadAt >= 0 ? reload() : Mono.empty();
+        return reloaded.then(Mono.defer(() -> applyChanges(savedIds, removedIds)));
+    }
+
+    private Mono<Void> applyChanges(Set<Long> savedIds, Set<Long> removedIds) {
+        if (savedIds.isEmpty()) {
+            if (!removedIds.isEmpty()) {
+                updateSnapshot(current -> current.withChanges(List.of(), removedIds));
+                settleWrites(removedIds, removedIds, false);
+            }
+            return Mono.empty();
+        }
+        return productRepository.findProductsByIds(savedIds)
+                .map(productMapper::toProductResponseDto)
+                .collectList()
+                .doOnNext(saved -> {
+                    // a product saved and deleted again before it was read has no row left
+                    Set<Long> missingIds = new HashSet<>(savedIds);
+                    saved.forEach(product -> missingIds.remove(product.getId()));
+                    missingIds.addAll(removedIds);
+                    updateSnapshot(current -> current.withChanges(saved, missingIds));
+                    Set<Long> changedIds = new HashSet<>(savedIds);
+                    changedIds.addAll(missingIds);
+                    settleWrites(changedIds, missingIds, false);
+                })
+                .then();
+    }
+
+    private Mono<Void> reload() {
+        return productRepository.findAllOrderByOpenDate()
+                .map(productMapper::toProductResponseDto)
+                .collectList()
+                .doOnNext(products -> {
+                    snapshot.set(CatalogSnapshot.of(products));
+                    settleWrites(Set.copyOf(writes.keySet()), Set.of(), true);
+                    logger.info("Catalog read model loaded {} products", products.size());
+                })
+                .then();
+    }
+
+    private static boolean isProductChange(String event) {
+        return event.startsWith("INSERT:") || event.startsWith("UPDATE:") || event.startsWith("DELETE:");
+    }
+
+    private void updateSnapshot(UnaryOperator<CatalogSnapshot> change) {
+        snapshot.updateAndGet(current -> current != null ? change.apply(current) : null);
+    }
+
+    /**
+     * Forgets the writes the snapshot has caught up with.
+     *
+     * @param ids        ids whose changes were just applied
+     * @param removedIds ids among them the snapshot has just removed
+     * @param reloaded   the snapshot was just read in full
+     */
+    private void settleWrites(Set<Long> ids, Set<Long> removedIds, boolean reloaded) {
+        CatalogSnapshot current = snapshot.get();
+        for (Long id : ids) {
+            writes.computeIfPresent(id, (key, write) ->
+                    settle(key, removedIds.contains(key) ? write.withRemoved() : write, current, reloaded));
+        }
+    }
+
+    /**
+     * @return the write, or {@code null} once the snapshot has caught up with it and it can be forgotten
+     */
+    private static Write settle(Long id, Write write, CatalogSnapshot current, boolean reloaded) {
+        if (write.deletes() > 0 || current == null) {
+            return write;
+        }
+        ProductResponseDto product = current.findById(id);
+        if (write.deleted()) {
+            // ids are never reused, so a product the snapshot has removed, or a full read made after the delete
+            // missed, stays deleted
+            return write.removed() || reloaded && product == null ? null : write;
+        }
+        return write.removed() || write.version() < 0 || product != null && product.getVersion() >= write.version()
+                ? null : write;
+    }
+
+    /**
+     * A write of one product by this instance that the snapshot may not have applied yet.
+     *
+     * @param deletes number of deletes of the product still running
+     * @param version highest version the inserts and updates left, -1 if none
+     * @param deleted a delete has removed the product
+     * @param removed the snapshot has applied the removal of the product
+     */
+    private record Write(int deletes, long version, boolean deleted, boolean removed) {
+        private static final Write NONE = new Write(0, -1, false, false);
+        private static final Write DELETING = new Write(1, -1, false, false);
+
+        private Write withSaved(long savedVersion) {
+            return new Write(deletes, Math.max(version, savedVersion), deleted, removed);
+        }
+
+        private Write withDeleteStarted() {
+            return new Write(deletes + 1, version, deleted, removed);
+        }
+
+        private Write withDeleteFinished() {
+            return new Write(deletes - 1, version, deleted, removed);
+        }
+
+        private Write withDeleted() {
+            return new Write(deletes, version, true, removed);
+        }
+
+        private Write withRemoved() {
+            return new Write(deletes, version, deleted, true);
+        }
+    }
+}
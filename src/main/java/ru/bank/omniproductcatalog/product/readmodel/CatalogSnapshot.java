@@ -0,0 +1,140 @@
+package ru.bank.omniproductcatalog.product.readmodel;
+
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the whole catalog. Changes produce a new snapshot, readers never see a half-applied one.
+ * <p>
+ * The products of a type are listed by type id, so a renamed type keeps its products: the name a caller asks for
+ * is resolved to the id through the product type registry on every read.
+ */
+public final class CatalogSnapshot {
+    static final Comparator<ProductResponseDto> OPEN_DATE_ORDER = Comparator
+            .comparing(ProductResponseDto::getOpenDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ProductResponseDto::getId)
+            .reversed();
+
+    private final Map<Long, ProductResponseDto> byId;
+    private final Map<Long, List<ProductResponseDto>> byTypeId;
+    private final List<ProductResponseDto> all;
+
+    private CatalogSnapshot(Map<Long, ProductResponseDto> byId, Map<Long, List<ProductResponseDto>> byTypeId,
+                            List<ProductResponseDto> all) {
+        this.byId = byId;
+        this.byTypeId = byTypeId;
+        this.all = all;
+    }
+
+    public static CatalogSnapshot of(List<ProductResponseDto> products) {
+        Map<Long, ProductResponseDto> byId = new HashMap<>();
+        products.forEach(product -> byId.put(product.getId(), product));
+        List<ProductResponseDto> all = byId.values().stream()
+                .sorted(OPEN_DATE_ORDER)
+                .toList();
+        Map<Long, List<ProductResponseDto>> byTypeId = all.stream()
+                .collect(Collectors.groupingBy(ProductResponseDto::getProductTypeId, Collectors.toUnmodifiableList()));
+        return new CatalogSnapshot(byId, byTypeId, all);
+    }
+
+    /**
+     * Applies a batch of changes at once. The sorted lists are not sorted again: the changed products are taken
+     * out and the saved ones merged back in, and only the lists of the types the batch touches are rebuilt.
+     *
+     * @param saved      inserted or updated products, replacing the products with the same ids
+     * @param removedIds ids of the deleted products
+     */
+    public CatalogSnapshot withChanges(Collection<ProductResponseDto> saved, Collection<Long> removedIds) {
+        Map<Long, ProductResponseDto> changedById = new HashMap<>(byId);
+        Set<Long> changedIds = new HashSet<>();
+        Set<Long> changedTypeIds = new HashSet<>();
+        for (Long id : removedIds) {
+            ProductResponseDto removed = changedById.remove(id);
+            if (removed != null) {
+                changedIds.add(id);
+                changedTypeIds.add(removed.getProductTypeId());
+            }
+        }
+        for (ProductResponseDto product : saved) {
+            ProductResponseDto replaced = changedById.put(product.getId(), product);
+            if (replaced != null) {
+                changedTypeIds.add(replaced.getProductTypeId());
+            }
+            changedIds.add(product.getId());
+            changedTypeIds.add(product.getProductTypeId());
+        }
+        if (changedIds.isEmpty()) {
+            return this;
+        }
+
+        List<ProductResponseDto> added = changedIds.stream()
+                .map(changedById::get)
+                .filter(Objects::nonNull)
+                .sorted(OPEN_DATE_ORDER)
+                .toList();
+        Map<Long, List<ProductResponseDto>> addedByTypeId = added.stream()
+                .collect(Collectors.groupingBy(ProductResponseDto::getProductTypeId));
+        Map<Long, List<ProductResponseDto>> changedByTypeId = new HashMap<>(byTypeId);
+        for (Long typeId : changedTypeIds) {
+            List<ProductResponseDto> merged = merge(byTypeId.getOrDefault(typeId, List.of()), changedIds,
+                    addedByTypeId.getOrDefault(typeId, List.of()));
+            if (merged.isEmpty()) {
+                changedByTypeId.remove(typeId);
+            } else {
+                changedByTypeId.put(typeId, merged);
+            }
+        }
+        return new CatalogSnapshot(changedById, changedByTypeId, merge(all, changedIds, added));
+    }
+
+    public ProductResponseDto findById(Long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @param productTypeId type of the products to list, {@code null} for all types
+     */
+    public List<ProductResponseDto> findAll(Long productTypeId) {
+        if (productTypeId == null) {
+            return all;
+        }
+        return byTypeId.getOrDefault(productTypeId, List.of());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * @param sorted  products in {@link #OPEN_DATE_ORDER}
+     * @param dropped ids of the products to leave out
+     * @param added   products in {@link #OPEN_DATE_ORDER} to merge in
+     */
+    private static List<ProductResponseDto> merge(List<ProductResponseDto> sorted, Set<Long> dropped,
+                                                  List<ProductResponseDto> added) {
+        List<ProductResponseDto> merged = new ArrayList<>(sorted.size() + added.size());
+        int next = 0;
+        for (ProductResponseDto product : sorted) {
+            if (dropped.contains(product.getId())) {
+                continue;
+            }
+            while (next < added.size() && OPEN_DATE_ORDER.compare(added.get(next), product) < 0) {
+                merged.add(added.get(next++));
+            }
+            merged.add(product);
+        }
+        merged.addAll(added.subList(next, added.size()));
+        return Collections.unmodifiableList(merged);
+    }
+}
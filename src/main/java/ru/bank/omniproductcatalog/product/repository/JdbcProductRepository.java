@@ -0,0 +1,342 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.metrics.ProductMetrics;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeRegistry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * {@link ProductRepository} over blocking JDBC, for the {@code jdbc} profile. Every call runs on its own
+ * virtual thread of the {@code jdbcScheduler}, which parks instead of blocking a carrier thread while it
+ * waits for Postgres, and borrows a connection from the HikariCP pool for the duration of the call.
+ * The SQL and the row mapping are the ones of {@link R2dbcProductRepository}.
+ */
+@Repository
+@Profile("jdbc")
+public class JdbcProductRepository implements ProductRepository {
+    private static final JdbcQuery FIND_ALL = JdbcQuery.of(ProductQueries.FIND_ALL);
+    private static final JdbcQuery FIND_BY_ID = JdbcQuery.of(ProductQueries.FIND_BY_ID);
+    private static final JdbcQuery FIND_BY_IDS = JdbcQuery.of(ProductQueries.FIND_BY_IDS);
+    private static final JdbcQuery FIND_RESPONSES = JdbcQuery.of(ProductQueries.FIND_RESPONSES);
+    private static final JdbcQuery FIND_RESPONSES_BY_TYPE = JdbcQuery.of(ProductQueries.FIND_RESPONSES_BY_TYPE);
+    private static final JdbcQuery FIND_RESPONSES_BY_IDS = JdbcQuery.of(ProductQueries.FIND_RESPONSES_BY_IDS);
+    private static final JdbcQuery FIND_FIRST_PAGE = JdbcQuery.of(ProductQueries.FIND_FIRST_PAGE);
+    private static final JdbcQuery FIND_FIRST_PAGE_BY_TYPE = JdbcQuery.of(ProductQueries.FIND_FIRST_PAGE_BY_TYPE);
+    private static final JdbcQuery FIND_NEXT_PAGE = JdbcQuery.of(ProductQueries.FIND_NEXT_PAGE);
+    private static final JdbcQuery FIND_NEXT_PAGE_BY_TYPE = JdbcQuery.of(ProductQueries.FIND_NEXT_PAGE_BY_TYPE);
+    private static final JdbcQuery SEARCH_QUERY = JdbcQuery.of(ProductQueries.SEARCH_QUERY);
+    private static final JdbcQuery SEARCH = JdbcQuery.of(ProductQueries.SEARCH);
+    private static final JdbcQuery INSERT_PRODUCT = JdbcQuery.of(ProductQueries.INSERT_PRODUCT);
+    private static final JdbcQuery INSERT_RETURNING_PRODUCT = JdbcQuery.of(ProductQueries.INSERT_RETURNING_PRODUCT);
+    private static final JdbcQuery UPDATE_RETURNING_PRODUCT = JdbcQuery.of(ProductQueries.UPDATE_RETURNING_PRODUCT);
+    private static final JdbcQuery DELETE_RETURNING_PRODUCT = JdbcQuery.of(ProductQueries.DELETE_RETURNING_PRODUCT);
+    private static final JdbcQuery OPEN_BY_IDS = JdbcQuery.of(ProductQueries.OPEN_BY_IDS);
+    private static final JdbcQuery CLOSE_BY_IDS = JdbcQuery.of(ProductQueries.CLOSE_BY_IDS);
+    private static final JdbcQuery OPEN_BY_TYPE = JdbcQuery.of(ProductQueries.OPEN_BY_TYPE);
+    private static final JdbcQuery CLOSE_BY_TYPE = JdbcQuery.of(ProductQueries.CLOSE_BY_TYPE);
+    private static final String[] GENERATED_COLUMNS = {"product_id", "version"};
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler scheduler;
+    private final ProductTypeRegistry productTypeRegistry;
+    private final ProductMetrics productMetrics;
+    private final Integer streamFetchSize;
+    private final Integer insertBatchSize;
+    private final Integer searchMaxCandidates;
+
+    public JdbcProductRepository(DataSource dataSource,
+                                 @Qualifier("jdbcScheduler") Scheduler scheduler,
+                                 ProductTypeRegistry productTypeRegistry,
+                                 ProductMetrics productMetrics,
+                                 @Value("${application.product.stream.fetch_size}") Integer streamFetchSize,
+                                 @Value("${application.product.bulk_create.insert_batch_size}") Integer insertBatchSize,
+                                 @Value("${application.product.search.max_candidates}") Integer searchMaxCandidates) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.scheduler = scheduler;
+        this.productTypeRegistry = productTypeRegistry;
+        this.productMetrics = productMetrics;
+        this.streamFetchSize = streamFetchSize;
+        this.insertBatchSize = insertBatchSize;
+        this.searchMaxCandidates = searchMaxCandidates;
+    }
+
+    @Override
+    public Flux<Product> findAllOrderByOpenDate() {
+        return productTypeRegistry.snapshot()
+                .flatMapMany(productTypes -> query(FIND_ALL, row -> ProductRowMapper.toProduct(row, productTypes)))
+                .transform(timedFlux("findAllOrderByOpenDate", ProductMetrics.ALL_TYPES));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> findResponsesOrderByOpenDate(Long productTypeId) {
+        Flux<ProductResponseDto> responses = productTypeId != null
+                ? query(FIND_RESPONSES_BY_TYPE, ProductRowMapper::toResponse, productTypeId)
+                : query(FIND_RESPONSES, ProductRowMapper::toResponse);
+        return responses.transform(timedFlux("findResponsesOrderByOpenDate", productMetrics.typeTag(productTypeId)));
+    }
+
+    /**
+     * Reads the rows through a server-side cursor, {@code streamFetchSize} rows per round trip, in a read-only
+     * transaction that holds its connection until the last row is read or the subscriber cancels. Rows are read
+     * on the virtual thread as the subscriber requests them.
+     */
+    @Override
+    public Flux<ProductResponseDto> streamAllOrderByOpenDate(Long productTypeId) {
+        Object[] arguments = productTypeId != null ? new Object[]{productTypeId} : new Object[0];
+        JdbcQuery query = productTypeId != null ? FIND_RESPONSES_BY_TYPE : FIND_RESPONSES;
+        return Flux.generate(() -> Cursor.open(dataSource, query, streamFetchSize, arguments),
+                        (Cursor cursor, SynchronousSink<ProductResponseDto> sink) -> {
+                            try {
+                                if (cursor.resultSet.next()) {
+                                    sink.next(ProductRowMapper.toResponse(cursor.row));
+                                } else {
+                                    sink.complete();
+                                }
+                            } catch (SQLException e) {
+                                sink.error(translate(query, e));
+                            }
+                            return cursor;
+                        },
+                        Cursor::close)
+                .onErrorMap(SQLException.class, e -> translate(query, e))
+                .subscribeOn(scheduler)
+                .transform(timedFlux("streamAllOrderByOpenDate", productMetrics.typeTag(productTypeId)));
+    }
+
+    @Override
+    public Mono<Product> findProductById(Long id) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> queryOne(FIND_BY_ID, row -> ProductRowMapper.toProduct(row, productTypes), id))
+                .transform(timedMono("findProductById", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<Product> findProductsByIds(Collection<Long> ids) {
+        return productTypeRegistry.snapshot()
+                .flatMapMany(productTypes -> query(FIND_BY_IDS, row -> ProductRowMapper.toProduct(row, productTypes),
+                        (Object) ids.toArray(Long[]::new)))
+                .transform(timedFlux("findProductsByIds", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> findResponsesByIds(Collection<Long> ids) {
+        return query(FIND_RESPONSES_BY_IDS, ProductRowMapper::toResponse, (Object) ids.toArray(Long[]::new))
+                .transform(timedFlux("findResponsesByIds", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> findPageOrderByOpenDate(Long productTypeId, ProductKeyset after, int limit) {
+        List<Object> arguments = new ArrayList<>(4);
+        if (productTypeId != null) {
+            arguments.add(productTypeId);
+        }
+        if (after != null) {
+            arguments.add(after.openDate());
+            arguments.add(after.id());
+        }
+        arguments.add(limit);
+        JdbcQuery query;
+        if (after == null) {
+            query = productTypeId != null ? FIND_FIRST_PAGE_BY_TYPE : FIND_FIRST_PAGE;
+        } else {
+            query = productTypeId != null ? FIND_NEXT_PAGE_BY_TYPE : FIND_NEXT_PAGE;
+        }
+        return query(query, ProductRowMapper::toResponse, arguments.toArray())
+                .transform(timedFlux("findPageOrderByOpenDate", productMetrics.typeTag(productTypeId)));
+    }
+
+    @Override
+    public Flux<ProductSearchHit> searchProducts(String text, Long productTypeId, ProductSearchKeyset after, int limit) {
+        return queryOne(SEARCH_QUERY, row -> row.get(0, String.class), text)
+                .flatMapMany(searchQuery -> query(SEARCH, ProductRowMapper::toSearchHit, searchQuery, text, productTypeId,
+                        searchMaxCandidates, after != null ? after.rank() : null, after != null ? after.id() : null, limit))
+                .transform(timedFlux("searchProducts", productMetrics.typeTag(productTypeId)));
+    }
+
+    @Override
+    public Mono<Product> insertProduct(Product product) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> queryOne(INSERT_RETURNING_PRODUCT,
+                        row -> ProductRowMapper.toProduct(row, productTypes), insertArguments(product)))
+                .transform(timedMono("insertProduct", productMetrics.typeTag(product.getProductTypeId())));
+    }
+
+    @Override
+    public Mono<ProductWriteResult> updateProduct(Long id, Long expectedVersion, String name, String description,
+                                                  Boolean open, Instant time) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> queryOne(UPDATE_RETURNING_PRODUCT,
+                        row -> ProductRowMapper.toWriteResult(row, productTypes),
+                        id, expectedVersion, name, description, open, time))
+                .transform(timedMono("updateProduct", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Mono<ProductWriteResult> deleteProduct(Long id, Long expectedVersion) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> queryOne(DELETE_RETURNING_PRODUCT,
+                        row -> ProductRowMapper.toWriteResult(row, productTypes), id, expectedVersion))
+                .transform(timedMono("deleteProduct", ProductMetrics.NO_TYPE));
+    }
+
+    /**
+     * Inserts the products in one transaction, {@code insertBatchSize} products per JDBC batch. Generated ids
+     * are set on the given products, which are emitted in the same order.
+     */
+    @Override
+    public Flux<Product> insertAll(List<Product> products) {
+        return call(() -> transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<List<Product>>) connection -> {
+                    for (int from = 0; from < products.size(); from += insertBatchSize) {
+                        insertBatch(connection, products.subList(from, Math.min(from + insertBatchSize, products.size())));
+                    }
+                    return products;
+                })))
+                .flatMapIterable(Function.identity())
+                .transform(timedFlux("insertAll", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductLifecycleChange> changeLifecycle(Collection<Long> ids, Long productTypeId, boolean open, Instant time) {
+        JdbcQuery query = ids != null
+                ? (open ? OPEN_BY_IDS : CLOSE_BY_IDS)
+                : (open ? OPEN_BY_TYPE : CLOSE_BY_TYPE);
+        Object filter = ids != null ? ids.toArray(Long[]::new) : productTypeId;
+        return productTypeRegistry.snapshot()
+                .flatMapMany(productTypes -> query(query, row -> ProductRowMapper.toLifecycleChange(row, productTypes),
+                        filter, time, "omni"))
+                .transform(timedFlux("changeLifecycle", ids != null ? ProductMetrics.NO_TYPE : productMetrics.typeTag(productTypeId)));
+    }
+
+    private <T> Flux<T> query(JdbcQuery query, Function<Readable, T> mapper, Object... arguments) {
+        return call(() -> jdbcTemplate.query(query.creator(arguments), rows(mapper)))
+                .flatMapIterable(Function.identity());
+    }
+
+    private <T> Mono<T> queryOne(JdbcQuery query, Function<Readable, T> mapper, Object... arguments) {
+        return call(() -> DataAccessUtils.singleResult(jdbcTemplate.query(query.creator(arguments), rows(mapper))));
+    }
+
+    /**
+     * Runs the blocking call on a virtual thread, empty if it returns {@code null}.
+     */
+    private <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+
+    private static <T> ResultSetExtractor<List<T>> rows(Function<Readable, T> mapper) {
+        return resultSet -> {
+            Readable row = new ResultSetReadable(resultSet);
+            List<T> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                rows.add(mapper.apply(row));
+            }
+            return rows;
+        };
+    }
+
+    private static void insertBatch(Connection connection, List<Product> batch) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_PRODUCT.sql(), GENERATED_COLUMNS)) {
+            for (Product product : batch) {
+                INSERT_PRODUCT.bind(connection, statement, insertArguments(product));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet generated = statement.getGeneratedKeys()) {
+                for (Product product : batch) {
+                    generated.next();
+                    product.setId(generated.getLong(1));
+                    product.setVersion(generated.getLong(2));
+                }
+            }
+        }
+    }
+
+    private static Object[] insertArguments(Product product) {
+        return new Object[]{product.getName(), product.getProductTypeId(), product.getDescription(),
+                product.getOpenDate(), product.getCloseDate(), product.getCreateTime(), product.getCreateUser(),
+                product.getLastModifyTime(), product.getLastModifyUser()};
+    }
+
+    private DataAccessException translate(JdbcQuery query, SQLException e) {
+        return jdbcTemplate.getExceptionTranslator().translate("streamAllOrderByOpenDate", query.sql(), e);
+    }
+
+    private <T> Function<Mono<T>, Mono<T>> timedMono(String operation, String type) {
+        return productMetrics.timedMono(ProductMetrics.REPOSITORY, operation, type);
+    }
+
+    private <T> Function<Flux<T>, Flux<T>> timedFlux(String operation, String type) {
+        return productMetrics.timedFlux(ProductMetrics.REPOSITORY, operation, type);
+    }
+
+    /**
+     * An open server-side cursor: Postgres only fetches rows in batches of the fetch size inside a transaction.
+     */
+    private static final class Cursor {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final Readable row;
+
+        private Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.row = new ResultSetReadable(resultSet);
+        }
+
+        static Cursor open(DataSource dataSource, JdbcQuery query, int fetchSize, Object... arguments) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                PreparedStatement statement = connection.prepareStatement(query.sql());
+                statement.setFetchSize(fetchSize);
+                query.bind(connection, statement, arguments);
+                return new Cursor(connection, statement, statement.executeQuery());
+            } catch (SQLException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try (connection; statement; resultSet) {
+                connection.rollback();
+            } catch (SQLException e) {
+                // the cursor is done either way, a broken connection is evicted by the pool
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A statement of {@link ProductQueries} for JDBC, which only knows {@code ?} placeholders. Every {@code $n}
+ * becomes a {@code ?}, and the arguments are bound in the order of the placeholders, so a parameter used twice
+ * is bound twice. Instants are bound as UTC {@code timestamp} values, the same way the R2DBC driver stores them.
+ */
+record JdbcQuery(String sql, int[] parameters) {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$(\\d+)");
+
+    static JdbcQuery of(String postgresSql) {
+        Matcher matcher = PLACEHOLDER.matcher(postgresSql);
+        List<Integer> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        while (matcher.find()) {
+            parameters.add(Integer.parseInt(matcher.group(1)) - 1);
+            matcher.appendReplacement(sql, "?");
+        }
+        matcher.appendTail(sql);
+        return new JdbcQuery(sql.toString(), parameters.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    PreparedStatementCreator creator(Object... arguments) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            bind(connection, statement, arguments);
+            return statement;
+        };
+    }
+
+    /**
+     * @param arguments the arguments by the number of their {@code $n} placeholder, starting from {@code $1}
+     */
+    void bind(Connection connection, PreparedStatement statement, Object... arguments) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            Object argument = arguments[parameters[i]];
+            if (argument instanceof Instant instant) {
+                statement.setObject(i + 1, LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+            } else if (argument instanceof Long[] ids) {
+                statement.setArray(i + 1, connection.createArrayOf("bigint", ids));
+            } else {
+                statement.setObject(i + 1, argument);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 import ru.bank.omniproductcatalog.producttype.repository.ProductType;
@@ -35,6 +36,8 @@ public class Product {
     private Instant lastModifyTime;
     @Column("last_modify_user")
     private String lastModifyUser;
+    @Version
+    private Long version;
     @Transient
     private ProductType productType;
 }
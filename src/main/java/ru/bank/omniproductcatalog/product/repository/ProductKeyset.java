@@ -0,0 +1,44 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import ru.bank.omniproductcatalog.model.exception.BadRequestException;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last product of a page in the {@code open_date DESC NULLS LAST, product_id DESC} order.
+ * Serialized to an opaque url-safe cursor that the client sends back to get the next page.
+ */
+public record ProductKeyset(Instant openDate, Long id) {
+    private static final String NULL_DATE = "-";
+
+    public static ProductKeyset of(ProductResponseDto product) {
+        return new ProductKeyset(product.getOpenDate(), product.getId());
+    }
+
+    public String toCursor() {
+        String date = openDate == null ? NULL_DATE : openDate.getEpochSecond() + "." + openDate.getNano();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductKeyset fromCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            String date = decoded.substring(0, separator);
+            Long id = Long.valueOf(decoded.substring(separator + 1));
+            if (NULL_DATE.equals(date)) {
+                return new ProductKeyset(null, id);
+            }
+            int dot = date.indexOf('.');
+            Instant openDate = Instant.ofEpochSecond(Long.parseLong(date.substring(0, dot)),
+                    Long.parseLong(date.substring(dot + 1)));
+            return new ProductKeyset(openDate, id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
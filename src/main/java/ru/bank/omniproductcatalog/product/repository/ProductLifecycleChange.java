@@ -0,0 +1,11 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+
+/**
+ * Result of a bulk open/close for one product that exists.
+ *
+ * @param version version the change left, {@code null} unless the product was updated
+ */
+public record ProductLifecycleChange(Long id, String typeName, ProductLifecycleOutcome outcome, Long version) {
+}
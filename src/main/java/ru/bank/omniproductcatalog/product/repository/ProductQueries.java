@@ -0,0 +1,147 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+/**
+ * SQL of the product repository. Every statement is a constant, so the driver sees the same text on every
+ * call and reuses the statement it has already prepared on the connection.
+ * <p>
+ * Reads select the columns in the order of {@link ProductRowMapper}, which reads them by position:
+ * {@link #PRODUCT_COLUMNS} for the entity and the shorter {@link #RESPONSE_COLUMNS} for reads that only
+ * return {@code ProductResponseDto}.
+ */
+final class ProductQueries {
+    static final String PRODUCT_COLUMNS = "p.product_id, p.name, p.product_type_id, p.description, p.open_date, " +
+            "p.close_date, p.create_time, p.create_user, p.last_modify_time, p.last_modify_user, p.version";
+    static final String RESPONSE_COLUMNS = "p.product_id, p.name, p.product_type_id, p.description, p.open_date, " +
+            "p.close_date, p.version";
+
+    private static final String OPEN_DATE_ORDER = " ORDER BY p.open_date DESC NULLS LAST";
+    // Same order as "open_date DESC NULLS LAST", but as a single key that idx_product_open_date_id can range-scan
+    private static final String PAGE_SORT_KEY = "COALESCE(p.open_date, '-infinity'::timestamp)";
+    private static final String PAGE_ORDER = " ORDER BY " + PAGE_SORT_KEY + " DESC, p.product_id DESC";
+
+    static final String FIND_ALL = "SELECT " + PRODUCT_COLUMNS + " FROM product p" + OPEN_DATE_ORDER;
+    static final String FIND_BY_ID = "SELECT " + PRODUCT_COLUMNS + " FROM product p WHERE p.product_id = $1";
+    static final String FIND_BY_IDS = "SELECT " + PRODUCT_COLUMNS + " FROM product p WHERE p.product_id = ANY($1)";
+
+    static final String FIND_RESPONSES = "SELECT " + RESPONSE_COLUMNS + " FROM product p" + OPEN_DATE_ORDER;
+    static final String FIND_RESPONSES_BY_TYPE = "SELECT " + RESPONSE_COLUMNS + " FROM product p " +
+            "WHERE p.product_type_id = $1" + OPEN_DATE_ORDER;
+    static final String FIND_RESPONSES_BY_IDS = "SELECT " + RESPONSE_COLUMNS + " FROM product p " +
+            "WHERE p.product_id = ANY($1)";
+
+    static final String FIND_FIRST_PAGE = "SELECT " + RESPONSE_COLUMNS + " FROM product p" +
+            PAGE_ORDER + " LIMIT $1";
+    static final String FIND_FIRST_PAGE_BY_TYPE = "SELECT " + RESPONSE_COLUMNS + " FROM product p " +
+            "WHERE p.product_type_id = $1" + PAGE_ORDER + " LIMIT $2";
+    // $1 = open date and $2 = id of the last product of the previous page, $3 = limit
+    static final String FIND_NEXT_PAGE = "SELECT " + RESPONSE_COLUMNS + " FROM product p " +
+            "WHERE (" + PAGE_SORT_KEY + ", p.product_id) < " +
+            "(COALESCE(CAST($1 AS timestamp), '-infinity'::timestamp), $2)" + PAGE_ORDER + " LIMIT $3";
+    static final String FIND_NEXT_PAGE_BY_TYPE = "SELECT " + RESPONSE_COLUMNS + " FROM product p " +
+            "WHERE p.product_type_id = $1 AND (" + PAGE_SORT_KEY + ", p.product_id) < " +
+            "(COALESCE(CAST($2 AS timestamp), '-infinity'::timestamp), $3)" + PAGE_ORDER + " LIMIT $4";
+
+    // $1 = search text. Every word of the text matches itself or one of the 3 words of product_search_word most
+    // similar to it, found through the trigram index, so a misspelled word still finds the product. No row if the
+    // text has no words
+    static final String SEARCH_QUERY = "SELECT s.search_query FROM (" +
+            "SELECT CAST(to_tsquery('russian', string_agg('(' || array_to_string(" +
+            "ARRAY(SELECT quote_literal(w) FROM unnest(t.word || t.similar) AS w), ' | ') || ')', ' & ')) AS text) " +
+            "AS search_query " +
+            "FROM (SELECT t.word, ARRAY(SELECT w.word FROM product_search_word w " +
+            "WHERE w.word % t.word AND w.word <> t.word ORDER BY w.word <-> t.word LIMIT 3) AS similar " +
+            "FROM unnest(tsvector_to_array(to_tsvector('simple', $1))) AS t(word)) t) s " +
+            "WHERE s.search_query IS NOT NULL";
+    // $1 = tsquery from SEARCH_QUERY, $2 = search text, $3 = product type id or null, $4 = max candidates,
+    // $5 = rank and $6 = id of the last product of the previous page or null, $7 = limit.
+    // The tsquery is bound as a value rather than built in the statement, so every execution is planned for it:
+    // the $4 newest matches of a common word are found by walking the primary key until there are enough, those
+    // of a selective query through idx_product_search_vector. Only these candidates are ranked; a match of the
+    // words as typed adds to the rank of the fuzzy query, so exact matches come first
+    static final String SEARCH = "WITH hit AS (" +
+            "SELECT " + RESPONSE_COLUMNS + ", " +
+            "ts_rank(p.search_vector, CAST($1 AS tsquery)) + ts_rank(p.search_vector, plainto_tsquery('russian', $2)) " +
+            "AS rank " +
+            "FROM (SELECT * FROM product c " +
+            "WHERE c.search_vector @@ CAST($1 AS tsquery) AND (CAST($3 AS bigint) IS NULL OR c.product_type_id = $3) " +
+            "ORDER BY c.product_id DESC LIMIT $4) p) " +
+            "SELECT * FROM hit p " +
+            "WHERE CAST($5 AS real) IS NULL OR (p.rank, p.product_id) < ($5, $6) " +
+            "ORDER BY p.rank DESC, p.product_id DESC LIMIT $7";
+
+    static final String INSERT_PRODUCT = "INSERT INTO product (name, product_type_id, description, open_date, " +
+            "close_date, create_time, create_user, last_modify_time, last_modify_user) " +
+            "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9)";
+    static final String INSERT_RETURNING_PRODUCT = "WITH p AS (" + INSERT_PRODUCT + " RETURNING *) " +
+            "SELECT " + PRODUCT_COLUMNS + " FROM p";
+    // A closed product is never reopened and a stale version is never overwritten: the UPDATE skips the row,
+    // and the outer SELECT still returns the locked target row, with null product columns and its current
+    // version, to tell it apart from a missing product. Closing a closed product keeps its close_date
+    static final String UPDATE_RETURNING_PRODUCT = "WITH target AS (" +
+            "SELECT product_id, open_date, close_date, version FROM product WHERE product_id = $1 FOR UPDATE), " +
+            "p AS (" +
+            "UPDATE product u SET " +
+            "name = COALESCE(CAST($3 AS varchar), u.name), " +
+            "description = COALESCE(CAST($4 AS varchar), u.description), " +
+            "open_date = CASE WHEN CAST($5 AS boolean) IS TRUE AND u.open_date IS NULL " +
+            "THEN $6 ELSE u.open_date END, " +
+            "close_date = CASE WHEN CAST($5 AS boolean) IS FALSE AND u.open_date IS NOT NULL AND u.close_date IS NULL " +
+            "THEN $6 ELSE u.close_date END, " +
+            "last_modify_time = $6, " +
+            "version = u.version + 1 " +
+            "FROM target t " +
+            "WHERE u.product_id = t.product_id " +
+            "AND (CAST($2 AS bigint) IS NULL OR t.version = $2) " +
+            "AND NOT (CAST($5 AS boolean) IS TRUE AND t.open_date IS NOT NULL AND t.close_date IS NOT NULL) " +
+            "RETURNING u.*) " +
+            "SELECT " + PRODUCT_COLUMNS + ", t.version AS current_version " +
+            "FROM target t " +
+            "LEFT JOIN p ON p.product_id = t.product_id";
+    static final String DELETE_RETURNING_PRODUCT = "WITH target AS (" +
+            "SELECT product_id, version FROM product WHERE product_id = $1 FOR UPDATE), " +
+            "p AS (" +
+            "DELETE FROM product d " +
+            "USING target t " +
+            "WHERE d.product_id = t.product_id AND (CAST($2 AS bigint) IS NULL OR t.version = $2) " +
+            "RETURNING d.*) " +
+            "SELECT " + PRODUCT_COLUMNS + ", t.version AS current_version " +
+            "FROM target t " +
+            "LEFT JOIN p ON p.product_id = t.product_id";
+
+    // Same state rules as UPDATE_RETURNING_PRODUCT: a product is opened only if it was never opened, and closed
+    // only if it is open, so a closed product is never reopened and close_date is never overwritten
+    private static final String OPEN_CONDITION = "t.open_date IS NULL";
+    private static final String CLOSE_CONDITION = "t.open_date IS NOT NULL AND t.close_date IS NULL";
+    // $1 = ids or product type id, $2 = time, $3 = user
+    static final String OPEN_BY_IDS = lifecycle("product_id = ANY($1)", "open_date", OPEN_CONDITION);
+    static final String CLOSE_BY_IDS = lifecycle("product_id = ANY($1)", "close_date", CLOSE_CONDITION);
+    static final String OPEN_BY_TYPE = lifecycle("product_type_id = $1", "open_date", OPEN_CONDITION);
+    static final String CLOSE_BY_TYPE = lifecycle("product_type_id = $1", "close_date", CLOSE_CONDITION);
+
+    private ProductQueries() {
+    }
+
+    /**
+     * Locks the selected rows, updates those whose state allows it and classifies every selected row in one
+     * statement. The final SELECT sees the rows as they were before the UPDATE, so a product that was already
+     * closed is told apart from one that did not need a change.
+     */
+    private static String lifecycle(String filter, String dateColumn, String condition) {
+        return "WITH target AS (" +
+                "SELECT product_id, product_type_id, open_date, close_date FROM product " +
+                "WHERE " + filter + " FOR UPDATE), " +
+                "updated AS (" +
+                "UPDATE product p SET " + dateColumn + " = $2, " +
+                "last_modify_time = $2, last_modify_user = $3, version = p.version + 1 " +
+                "FROM target t " +
+                "WHERE p.product_id = t.product_id AND " + condition + " " +
+                "RETURNING p.product_id, p.version) " +
+                "SELECT t.product_id, t.product_type_id, " +
+                "CASE WHEN u.product_id IS NOT NULL THEN 'UPDATED' " +
+                "WHEN t.close_date IS NOT NULL THEN 'ALREADY_CLOSED' " +
+                "ELSE 'UNCHANGED' END AS outcome, u.version " +
+                "FROM target t " +
+                "LEFT JOIN updated u ON u.product_id = t.product_id " +
+                "ORDER BY t.product_id";
+    }
+}
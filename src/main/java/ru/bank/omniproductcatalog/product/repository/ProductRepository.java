@@ -1,6 +1,71 @@
 package ru.bank.omniproductcatalog.product.repository;
 
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
 
-public interface ProductRepository extends ReactiveCrudRepository<Product, Long>, CustomProductRepository {
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Product storage used by the service. {@link R2dbcProductRepository} is the default implementation,
+ * {@link JdbcProductRepository} replaces it in the {@code jdbc} profile.
+ */
+public interface ProductRepository {
+    Flux<Product> findAllOrderByOpenDate();
+
+    /**
+     * @param productTypeId the type of the products, {@code null} for all products
+     */
+    Flux<ProductResponseDto> findResponsesOrderByOpenDate(Long productTypeId);
+
+    Flux<ProductResponseDto> streamAllOrderByOpenDate(Long productTypeId);
+
+    Mono<Product> findProductById(Long id);
+
+    Flux<Product> findProductsByIds(Collection<Long> ids);
+
+    Flux<ProductResponseDto> findResponsesByIds(Collection<Long> ids);
+
+    Flux<ProductResponseDto> findPageOrderByOpenDate(Long productTypeId, ProductKeyset after, int limit);
+
+    /**
+     * Full-text search over the name and the description, tolerant to typos, ordered by relevance. Only the
+     * newest {@code max_candidates} matches are ranked.
+     *
+     * @param productTypeId the type of the products, {@code null} for all products
+     * @param after         the last hit of the previous page, {@code null} for the first page
+     */
+    Flux<ProductSearchHit> searchProducts(String text, Long productTypeId, ProductSearchKeyset after, int limit);
+
+    /**
+     * Inserts the product and returns it with its generated id and product type. Fails with
+     * {@code DataIntegrityViolationException} if the product type does not exist.
+     */
+    Mono<Product> insertProduct(Product product);
+
+    /**
+     * Applies the non-null changes in one statement, with the open/close rules of
+     * {@code ProductServiceImpl.updateProduct}, and increments the version.
+     *
+     * @param expectedVersion the update is rejected unless the row has this version, {@code null} to skip the check
+     * @return empty if there is no product with the id, otherwise the result, which is not applied if the version
+     * does not match or the product is closed and {@code open} asks to reopen it
+     */
+    Mono<ProductWriteResult> updateProduct(Long id, Long expectedVersion, String name, String description,
+                                           Boolean open, Instant time);
+
+    /**
+     * @param expectedVersion the delete is rejected unless the row has this version, {@code null} to skip the check
+     * @return empty if there is no product with the id, otherwise the result with the deleted product and its type
+     */
+    Mono<ProductWriteResult> deleteProduct(Long id, Long expectedVersion);
+
+    Flux<Product> insertAll(List<Product> products);
+
+    /**
+     * Opens or closes either the products with the given ids or every product of the given type.
+     */
+    Flux<ProductLifecycleChange> changeLifecycle(Collection<Long> ids, Long productTypeId, boolean open, Instant time);
 }
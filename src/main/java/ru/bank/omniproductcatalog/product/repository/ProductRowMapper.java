@@ -0,0 +1,97 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import io.r2dbc.spi.Readable;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeSnapshot;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.time.Instant;
+
+/**
+ * Maps rows of {@link ProductQueries} by column position, which skips the per-column name lookup,
+ * and calls the constructors directly instead of going through a builder per row.
+ */
+final class ProductRowMapper {
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int PRODUCT_TYPE_ID = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int OPEN_DATE = 4;
+    private static final int CLOSE_DATE = 5;
+    private static final int CREATE_TIME = 6;
+    private static final int CREATE_USER = 7;
+    private static final int LAST_MODIFY_TIME = 8;
+    private static final int LAST_MODIFY_USER = 9;
+    private static final int VERSION = 10;
+    private static final int CURRENT_VERSION = 11;
+    private static final int RESPONSE_VERSION = 6;
+    private static final int RANK = 7;
+
+    private ProductRowMapper() {
+    }
+
+    /**
+     * Maps a {@link ProductQueries#PRODUCT_COLUMNS} row. The product type is the snapshot's instance,
+     * or null if the type is not in the snapshot.
+     */
+    static Product toProduct(Readable row, ProductTypeSnapshot productTypes) {
+        Long productTypeId = row.get(PRODUCT_TYPE_ID, Long.class);
+        return new Product(
+                row.get(ID, Long.class),
+                row.get(NAME, String.class),
+                productTypeId,
+                row.get(DESCRIPTION, String.class),
+                row.get(OPEN_DATE, Instant.class),
+                row.get(CLOSE_DATE, Instant.class),
+                row.get(CREATE_TIME, Instant.class),
+                row.get(CREATE_USER, String.class),
+                row.get(LAST_MODIFY_TIME, Instant.class),
+                row.get(LAST_MODIFY_USER, String.class),
+                row.get(VERSION, Long.class),
+                productTypes.findById(productTypeId));
+    }
+
+    /**
+     * Maps a {@link ProductQueries#RESPONSE_COLUMNS} row.
+     */
+    static ProductResponseDto toResponse(Readable row) {
+        return new ProductResponseDto(
+                row.get(ID, Long.class),
+                row.get(NAME, String.class),
+                row.get(PRODUCT_TYPE_ID, Long.class),
+                row.get(DESCRIPTION, String.class),
+                row.get(OPEN_DATE, Instant.class),
+                row.get(CLOSE_DATE, Instant.class),
+                row.get(RESPONSE_VERSION, Long.class));
+    }
+
+    /**
+     * Maps a {@link ProductQueries#SEARCH} row: the {@link ProductQueries#RESPONSE_COLUMNS} followed by the rank.
+     */
+    static ProductSearchHit toSearchHit(Readable row) {
+        return new ProductSearchHit(toResponse(row), row.get(RANK, Float.class));
+    }
+
+    /**
+     * Maps a row of the update and delete statements: the product columns, null if the write was not applied,
+     * followed by the version the row had before the write.
+     */
+    static ProductWriteResult toWriteResult(Readable row, ProductTypeSnapshot productTypes) {
+        Product product = row.get(ID, Long.class) != null ? toProduct(row, productTypes) : null;
+        return new ProductWriteResult(product, row.get(CURRENT_VERSION, Long.class));
+    }
+
+    /**
+     * Maps a row of the lifecycle statements: product id, product type id, outcome and the version of an updated
+     * product.
+     */
+    static ProductLifecycleChange toLifecycleChange(Readable row, ProductTypeSnapshot productTypes) {
+        ProductType productType = productTypes.findById(row.get(1, Long.class));
+        return new ProductLifecycleChange(
+                row.get(0, Long.class),
+                productType != null ? productType.getName() : null,
+                ProductLifecycleOutcome.valueOf(row.get(2, String.class)),
+                row.get(3, Long.class));
+    }
+}
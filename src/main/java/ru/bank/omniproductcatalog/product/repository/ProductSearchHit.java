@@ -0,0 +1,9 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+/**
+ * A product found by the full-text search, with the rank it is ordered by.
+ */
+public record ProductSearchHit(ProductResponseDto product, float rank) {
+}
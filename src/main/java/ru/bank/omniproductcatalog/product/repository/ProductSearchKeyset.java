@@ -0,0 +1,37 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import ru.bank.omniproductcatalog.model.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last product of a search page in the {@code rank DESC, product_id DESC} order.
+ * The rank is the {@code real} Postgres computed, which a {@code float} holds exactly, so the next page
+ * starts right after the product. Serialized to an opaque url-safe cursor, like {@link ProductKeyset}.
+ */
+public record ProductSearchKeyset(float rank, Long id) {
+
+    public static ProductSearchKeyset of(ProductSearchHit hit) {
+        return new ProductSearchKeyset(hit.rank(), hit.product().getId());
+    }
+
+    public String toCursor() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((rank + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductSearchKeyset fromCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            float rank = Float.parseFloat(decoded.substring(0, separator));
+            if (!Float.isFinite(rank)) {
+                throw new NumberFormatException(decoded);
+            }
+            return new ProductSearchKeyset(rank, Long.valueOf(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+/**
+ * Result of a conditional write to a product that exists.
+ *
+ * @param product        the product as written, {@code null} if the write was rejected
+ * @param currentVersion version of the row when the write was attempted
+ */
+public record ProductWriteResult(Product product, Long currentVersion) {
+    public boolean applied() {
+        return product != null;
+    }
+}
@@ -0,0 +1,290 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import io.r2dbc.spi.Parameter;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.metrics.ProductMetrics;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeRegistry;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+@Repository
+@Profile("!jdbc")
+public class R2dbcProductRepository implements ProductRepository {
+    private final DatabaseClient client;
+    private final TransactionalOperator transactionalOperator;
+    private final ProductTypeRegistry productTypeRegistry;
+    private final ProductMetrics productMetrics;
+    private final Integer streamFetchSize;
+    private final Integer insertBatchSize;
+    private final Integer searchMaxCandidates;
+
+    public R2dbcProductRepository(DatabaseClient client,
+                                  TransactionalOperator transactionalOperator,
+                                  ProductTypeRegistry productTypeRegistry,
+                                  ProductMetrics productMetrics,
+                                  @Value("${application.product.stream.fetch_size}") Integer streamFetchSize,
+                                  @Value("${application.product.bulk_create.insert_batch_size}") Integer insertBatchSize,
+                                  @Value("${application.product.search.max_candidates}") Integer searchMaxCandidates) {
+        this.client = client;
+        this.transactionalOperator = transactionalOperator;
+        this.productTypeRegistry = productTypeRegistry;
+        this.productMetrics = productMetrics;
+        this.streamFetchSize = streamFetchSize;
+        this.insertBatchSize = insertBatchSize;
+        this.searchMaxCandidates = searchMaxCandidates;
+    }
+
+    @Override
+    public Flux<Product> findAllOrderByOpenDate() {
+        return withProductTypes(client.sql(ProductQueries.FIND_ALL))
+                .transform(timedFlux("findAllOrderByOpenDate", ProductMetrics.ALL_TYPES));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> findResponsesOrderByOpenDate(Long productTypeId) {
+        DatabaseClient.GenericExecuteSpec spec = productTypeId != null
+                ? client.sql(ProductQueries.FIND_RESPONSES_BY_TYPE).bind(0, productTypeId)
+                : client.sql(ProductQueries.FIND_RESPONSES);
+        return spec.map(ProductRowMapper::toResponse)
+                .all()
+                .transform(timedFlux("findResponsesOrderByOpenDate", productMetrics.typeTag(productTypeId)));
+    }
+
+    /**
+     * Reads the rows through a server-side cursor, {@code streamFetchSize} rows per round trip,
+     * so only rows that the subscriber has requested are pulled from Postgres.
+     */
+    @Override
+    public Flux<ProductResponseDto> streamAllOrderByOpenDate(Long productTypeId) {
+        DatabaseClient.GenericExecuteSpec spec = productTypeId != null
+                ? client.sql(ProductQueries.FIND_RESPONSES_BY_TYPE).bind(0, productTypeId)
+                : client.sql(ProductQueries.FIND_RESPONSES);
+        return spec.filter(statement -> statement.fetchSize(streamFetchSize))
+                .map(ProductRowMapper::toResponse)
+                .all()
+                .transform(timedFlux("streamAllOrderByOpenDate", productMetrics.typeTag(productTypeId)));
+    }
+
+    @Override
+    public Mono<Product> findProductById(Long id) {
+        return withProductTypes(client.sql(ProductQueries.FIND_BY_ID)
+                .bind(0, id))
+                .singleOrEmpty()
+                .transform(timedMono("findProductById", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<Product> findProductsByIds(Collection<Long> ids) {
+        return withProductTypes(client.sql(ProductQueries.FIND_BY_IDS)
+                .bind(0, ids.toArray(Long[]::new)))
+                .transform(timedFlux("findProductsByIds", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> findResponsesByIds(Collection<Long> ids) {
+        return client.sql(ProductQueries.FIND_RESPONSES_BY_IDS)
+                .bind(0, ids.toArray(Long[]::new))
+                .map(ProductRowMapper::toResponse)
+                .all()
+                .transform(timedFlux("findResponsesByIds", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> findPageOrderByOpenDate(Long productTypeId, ProductKeyset after, int limit) {
+        DatabaseClient.GenericExecuteSpec spec;
+        int index = 0;
+        if (after == null) {
+            spec = client.sql(productTypeId != null ? ProductQueries.FIND_FIRST_PAGE_BY_TYPE : ProductQueries.FIND_FIRST_PAGE);
+        } else {
+            spec = client.sql(productTypeId != null ? ProductQueries.FIND_NEXT_PAGE_BY_TYPE : ProductQueries.FIND_NEXT_PAGE);
+        }
+        if (productTypeId != null) {
+            spec = spec.bind(index++, productTypeId);
+        }
+        if (after != null) {
+            LocalDateTime openDate = after.openDate() != null
+                    ? LocalDateTime.ofInstant(after.openDate(), ZoneOffset.UTC)
+                    : null;
+            spec = spec.bind(index++, nullable(openDate, LocalDateTime.class))
+                    .bind(index++, after.id());
+        }
+        return spec.bind(index, limit)
+                .map(ProductRowMapper::toResponse)
+                .all()
+                .transform(timedFlux("findPageOrderByOpenDate", productMetrics.typeTag(productTypeId)));
+    }
+
+    @Override
+    public Flux<ProductSearchHit> searchProducts(String text, Long productTypeId, ProductSearchKeyset after, int limit) {
+        return client.sql(ProductQueries.SEARCH_QUERY)
+                .bind(0, text)
+                .map(row -> row.get(0, String.class))
+                .one()
+                .flatMapMany(searchQuery -> client.sql(ProductQueries.SEARCH)
+                        .bind(0, searchQuery)
+                        .bind(1, text)
+                        .bind(2, nullable(productTypeId, Long.class))
+                        .bind(3, searchMaxCandidates)
+                        .bind(4, nullable(after != null ? after.rank() : null, Float.class))
+                        .bind(5, nullable(after != null ? after.id() : null, Long.class))
+                        .bind(6, limit)
+                        .map(ProductRowMapper::toSearchHit)
+                        .all())
+                .transform(timedFlux("searchProducts", productMetrics.typeTag(productTypeId)));
+    }
+
+    @Override
+    public Mono<Product> insertProduct(Product product) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> client.sql(ProductQueries.INSERT_RETURNING_PRODUCT)
+                        .bind(0, product.getName())
+                        .bind(1, product.getProductTypeId())
+                        .bind(2, nullable(product.getDescription(), String.class))
+                        .bind(3, nullable(product.getOpenDate(), Instant.class))
+                        .bind(4, nullable(product.getCloseDate(), Instant.class))
+                        .bind(5, product.getCreateTime())
+                        .bind(6, product.getCreateUser())
+                        .bind(7, product.getLastModifyTime())
+                        .bind(8, product.getLastModifyUser())
+                        .map(row -> ProductRowMapper.toProduct(row, productTypes))
+                        .one())
+                .transform(timedMono("insertProduct", productMetrics.typeTag(product.getProductTypeId())));
+    }
+
+    @Override
+    public Mono<ProductWriteResult> updateProduct(Long id, Long expectedVersion, String name, String description,
+                                             Boolean open, Instant time) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> client.sql(ProductQueries.UPDATE_RETURNING_PRODUCT)
+                        .bind(0, id)
+                        .bind(1, nullable(expectedVersion, Long.class))
+                        .bind(2, nullable(name, String.class))
+                        .bind(3, nullable(description, String.class))
+                        .bind(4, nullable(open, Boolean.class))
+                        .bind(5, time)
+                        .map(row -> ProductRowMapper.toWriteResult(row, productTypes))
+                        .one())
+                .transform(timedMono("updateProduct", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Mono<ProductWriteResult> deleteProduct(Long id, Long expectedVersion) {
+        return productTypeRegistry.snapshot()
+                .flatMap(productTypes -> client.sql(ProductQueries.DELETE_RETURNING_PRODUCT)
+                        .bind(0, id)
+                        .bind(1, nullable(expectedVersion, Long.class))
+                        .map(row -> ProductRowMapper.toWriteResult(row, productTypes))
+                        .one())
+                .transform(timedMono("deleteProduct", ProductMetrics.NO_TYPE));
+    }
+
+    /**
+     * Inserts the products in one transaction. Every {@code insertBatchSize} products share one prepared
+     * statement with a binding per product, which the driver sends as a single batch, instead of a round
+     * trip per product. Generated ids are set on the given products, which are emitted in the same order.
+     */
+    @Override
+    public Flux<Product> insertAll(List<Product> products) {
+        Flux<Product> inserted = Flux.fromIterable(products)
+                .buffer(insertBatchSize)
+                .concatMap(batch -> client.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(ProductQueries.INSERT_PRODUCT)
+                            .returnGeneratedValues("product_id", "version");
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bindProduct(statement, batch.get(i));
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> {
+                                Product generated = new Product();
+                                generated.setId(row.get(0, Long.class));
+                                generated.setVersion(row.get(1, Long.class));
+                                return generated;
+                            }))
+                            .zipWithIterable(batch, (generated, product) -> {
+                                product.setId(generated.getId());
+                                product.setVersion(generated.getVersion());
+                                return product;
+                            });
+                }));
+        return transactionalOperator.transactional(inserted)
+                .transform(timedFlux("insertAll", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductLifecycleChange> changeLifecycle(Collection<Long> ids, Long productTypeId, boolean open, Instant time) {
+        DatabaseClient.GenericExecuteSpec spec = ids != null
+                ? client.sql(open ? ProductQueries.OPEN_BY_IDS : ProductQueries.CLOSE_BY_IDS)
+                .bind(0, ids.toArray(Long[]::new))
+                : client.sql(open ? ProductQueries.OPEN_BY_TYPE : ProductQueries.CLOSE_BY_TYPE)
+                .bind(0, productTypeId);
+        DatabaseClient.GenericExecuteSpec statement = spec
+                .bind(1, time)
+                .bind(2, "omni");
+        return productTypeRegistry.snapshot()
+                .flatMapMany(productTypes -> statement.map(row -> ProductRowMapper.toLifecycleChange(row, productTypes))
+                        .all())
+                .transform(timedFlux("changeLifecycle", ids != null ? ProductMetrics.NO_TYPE : productMetrics.typeTag(productTypeId)));
+    }
+
+    private <T> Function<Mono<T>, Mono<T>> timedMono(String operation, String type) {
+        return productMetrics.timedMono(ProductMetrics.REPOSITORY, operation, type);
+    }
+
+    private <T> Function<Flux<T>, Flux<T>> timedFlux(String operation, String type) {
+        return productMetrics.timedFlux(ProductMetrics.REPOSITORY, operation, type);
+    }
+
+    private static void bindProduct(Statement statement, Product product) {
+        statement.bind(0, product.getName());
+        statement.bind(1, product.getProductTypeId());
+        bindNullable(statement, 2, product.getDescription(), String.class);
+        bindNullable(statement, 3, product.getOpenDate(), Instant.class);
+        bindNullable(statement, 4, product.getCloseDate(), Instant.class);
+        statement.bind(5, product.getCreateTime());
+        statement.bind(6, product.getCreateUser());
+        statement.bind(7, product.getLastModifyTime());
+        statement.bind(8, product.getLastModifyUser());
+    }
+
+    private static void bindNullable(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+
+    /**
+     * @return a bind value for {@link DatabaseClient}, which takes a null only through a typed parameter
+     */
+    private static Parameter nullable(Object value, Class<?> type) {
+        return value != null ? Parameters.in(value) : Parameters.in(type);
+    }
+
+    /**
+     * Maps the rows with the product types of one registry snapshot, so every product of a type references
+     * the same {@code ProductType} instance.
+     */
+    private Flux<Product> withProductTypes(DatabaseClient.GenericExecuteSpec spec) {
+        return productTypeRegistry.snapshot()
+                .flatMapMany(productTypes -> spec.map(row -> ProductRowMapper.toProduct(row, productTypes))
+                        .all());
+    }
+}
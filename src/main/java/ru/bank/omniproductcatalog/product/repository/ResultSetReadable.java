@@ -0,0 +1,49 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.jdbc.InvalidResultSetAccessException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The current row of a JDBC {@link ResultSet} as an R2DBC {@link Readable}, so {@link ProductRowMapper}
+ * maps the rows of both repositories. Indexes start from 0, as in R2DBC, and {@code timestamp} columns
+ * are read as UTC instants.
+ */
+final class ResultSetReadable implements Readable {
+    private final ResultSet resultSet;
+
+    ResultSetReadable(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        try {
+            return read(index + 1, type);
+        } catch (SQLException e) {
+            throw new InvalidResultSetAccessException(e);
+        }
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        try {
+            return read(resultSet.findColumn(name), type);
+        } catch (SQLException e) {
+            throw new InvalidResultSetAccessException(e);
+        }
+    }
+
+    private <T> T read(int column, Class<T> type) throws SQLException {
+        if (type == Instant.class) {
+            LocalDateTime value = resultSet.getObject(column, LocalDateTime.class);
+            return value != null ? type.cast(value.toInstant(ZoneOffset.UTC)) : null;
+        }
+        return resultSet.getObject(column, type);
+    }
+}
@@ -3,18 +3,56 @@ package ru.bank.omniproductcatalog.product.service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
 import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
 import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
 
+import java.util.List;
+import java.util.Map;
+
 public interface ProductService {
 
     Mono<ProductResponseDto> createProduct(NewProductRequestDto newProductRequestDto);
 
+    /**
+     * @param requests already validated requests keyed by their index in the client's batch
+     */
+    Mono<ProductBulkCreateResponseDto> createProducts(Map<Integer, NewProductRequestDto> requests);
+
     Flux<ProductResponseDto> getAllProducts(String type);
 
+    Flux<ProductResponseDto> streamAllProducts(String type);
+
+    Mono<ProductPageResponseDto> getProductsPage(String type, String cursor, int limit);
+
+    /**
+     * @return the products matching the query, the most relevant first, and the cursor of the next page
+     */
+    Mono<ProductPageResponseDto> searchProducts(String query, String type, String cursor, int limit);
+
+    /**
+     * @return at most {@code limit} products with a name word starting with the prefix, from the in-memory name index
+     */
+    Flux<ProductSuggestionDto> autocompleteProducts(String prefix, String type, int limit);
+
     Mono<ProductResponseDto> getProductById(Long id);
 
-    Mono<Void> deleteProduct(Long id);
+    Mono<ProductBatchResponseDto> getProductsByIds(List<Long> ids);
+
+    /**
+     * @param expectedVersion version the client last read, {@code null} to delete unconditionally
+     */
+    Mono<Void> deleteProduct(Long id, Long expectedVersion);
+
+    /**
+     * @param expectedVersion version the client last read, {@code null} to update unconditionally
+     */
+    Mono<ProductResponseDto> updateProduct(Long id, UpdateProductRequestDto updateProductRequestDto, Long expectedVersion);
 
-    Mono<ProductResponseDto> updateProduct(Long id, UpdateProductRequestDto updateProductRequestDto);
+    Flux<ProductLifecycleResultDto> changeLifecycle(ProductLifecycleRequestDto productLifecycleRequestDto);
 }
@@ -1,28 +1,55 @@
 package ru.bank.omniproductcatalog.product.service;
 
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.bank.omniproductcatalog.model.exception.BadRequestException;
 import ru.bank.omniproductcatalog.model.exception.NotFoundException;
+import ru.bank.omniproductcatalog.model.exception.PreconditionFailedException;
+import ru.bank.omniproductcatalog.model.exception.ValidationError;
 import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateErrorDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
 import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
 import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+import ru.bank.omniproductcatalog.product.autocomplete.ProductNameIndex;
+import ru.bank.omniproductcatalog.product.cache.ProductCacheInvalidator;
+import ru.bank.omniproductcatalog.product.cache.ProductReactiveCache;
+import ru.bank.omniproductcatalog.product.loader.ProductBatchLoader;
 import ru.bank.omniproductcatalog.product.mapper.ProductMapper;
+import ru.bank.omniproductcatalog.product.metrics.ProductMetrics;
+import ru.bank.omniproductcatalog.product.readmodel.CatalogReadModel;
 import ru.bank.omniproductcatalog.product.repository.Product;
+import ru.bank.omniproductcatalog.product.repository.ProductKeyset;
+import ru.bank.omniproductcatalog.product.repository.ProductLifecycleChange;
 import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+import ru.bank.omniproductcatalog.product.repository.ProductSearchHit;
+import ru.bank.omniproductcatalog.product.repository.ProductSearchKeyset;
 import ru.bank.omniproductcatalog.producttype.repository.ProductType;
 import ru.bank.omniproductcatalog.producttype.service.ProductTypeService;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -30,108 +57,272 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductTypeService productTypeService;
     private final ProductMapper productMapper;
-
-    private final CacheManager cacheManager;
+    private final CatalogReadModel catalogReadModel;
+    private final ProductReactiveCache productReactiveCache;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductBatchLoader productBatchLoader;
+    private final ProductMetrics productMetrics;
+    private final ProductNameIndex productNameIndex;
 
     public ProductServiceImpl(ProductRepository productRepository,
                               ProductTypeService productTypeService,
                               ProductMapper productMapper,
-                              CacheManager cacheManager) {
+                              CatalogReadModel catalogReadModel,
+                              ProductReactiveCache productReactiveCache,
+                              ProductCacheInvalidator productCacheInvalidator,
+                              ProductBatchLoader productBatchLoader,
+                              ProductMetrics productMetrics,
+                              ProductNameIndex productNameIndex) {
         this.productRepository = productRepository;
         this.productTypeService = productTypeService;
         this.productMapper = productMapper;
-        this.cacheManager = cacheManager;
+        this.catalogReadModel = catalogReadModel;
+        this.productReactiveCache = productReactiveCache;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.productBatchLoader = productBatchLoader;
+        this.productMetrics = productMetrics;
+        this.productNameIndex = productNameIndex;
     }
 
 
     @Override
-    @Cacheable(value = "products")
     public Flux<ProductResponseDto> getAllProducts(String type) {
-        if (StringUtils.hasText(type)) {
-            return productRepository.findAllByTypeOrderByOpenDate(type)
-                    .map(productMapper::toProductResponseDto);
-        }
-        return productRepository.findAllOrderByOpenDate()
-                .map(productMapper::toProductResponseDto);
+        return withProductTypeId(type, productTypeId -> {
+            Optional<List<ProductResponseDto>> fromReadModel = catalogReadModel.findAll(productTypeId);
+            if (fromReadModel.isPresent()) {
+                return Flux.fromIterable(fromReadModel.get());
+            }
+            return productReactiveCache.getList(type, () -> productRepository.findResponsesOrderByOpenDate(productTypeId));
+        }).transform(timedFlux("getAllProducts", productMetrics.typeTag(type)));
+    }
+
+    @Override
+    public Flux<ProductResponseDto> streamAllProducts(String type) {
+        return withProductTypeId(type, productRepository::streamAllOrderByOpenDate)
+                .transform(timedFlux("streamAllProducts", productMetrics.typeTag(type)));
+    }
+
+    @Override
+    public Mono<ProductPageResponseDto> getProductsPage(String type, String cursor, int limit) {
+        return Mono.defer(() -> {
+            ProductKeyset after = StringUtils.hasText(cursor) ? ProductKeyset.fromCursor(cursor) : null;
+            return withProductTypeId(type, productTypeId -> productRepository.findPageOrderByOpenDate(productTypeId, after, limit + 1))
+                    .collectList()
+                    .map(products -> toPage(products, limit));
+        }).transform(timedMono("getProductsPage", productMetrics.typeTag(type)));
+    }
+
+    @Override
+    public Mono<ProductPageResponseDto> searchProducts(String query, String type, String cursor, int limit) {
+        return Mono.defer(() -> {
+            ProductSearchKeyset after = StringUtils.hasText(cursor) ? ProductSearchKeyset.fromCursor(cursor) : null;
+            return withProductTypeId(type, productTypeId -> productRepository.searchProducts(query, productTypeId, after, limit + 1))
+                    .collectList()
+                    .map(hits -> toSearchPage(hits, limit));
+        }).transform(timedMono("searchProducts", productMetrics.typeTag(type)));
+    }
+
+    @Override
+    public Flux<ProductSuggestionDto> autocompleteProducts(String prefix, String type, int limit) {
+        return withProductTypeId(type, productTypeId -> Flux.fromIterable(productNameIndex.complete(prefix, productTypeId, limit)))
+                .transform(timedFlux("autocompleteProducts", productMetrics.typeTag(type)));
     }
 
     @Override
-    @Cacheable(value = "products", key = "#id")
     public Mono<ProductResponseDto> getProductById(Long id) {
-        return productRepository.findProductById(id)
+        Mono<ProductResponseDto> product = catalogReadModel.findById(id)
+                .map(Mono::justOrEmpty)
+                .orElseGet(() -> productReactiveCache.getById(id, () -> productBatchLoader.load(id)
+                        .map(productMapper::toProductResponseDto)));
+        return product
                 .switchIfEmpty(Mono.error(new NotFoundException("Product with id=" + id + " not found")))
                 .doOnError(NotFoundException.class, e -> logger.error("Product with id={} not found", id))
-                .map(productMapper::toProductResponseDto);
+                .transform(timedMono("getProductById", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Mono<ProductBatchResponseDto> getProductsByIds(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Mono<Map<Long, ProductResponseDto>> products = catalogReadModel.findAllById(uniqueIds)
+                .map(Mono::just)
+                .orElseGet(() -> productReactiveCache.getAllById(uniqueIds, missingIds ->
+                        productRepository.findResponsesByIds(missingIds)
+                                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()))));
+        return products.map(found -> toBatch(uniqueIds, found))
+                .transform(timedMono("getProductsByIds", ProductMetrics.NO_TYPE));
     }
 
     @Override
     public Mono<ProductResponseDto> createProduct(NewProductRequestDto newProductRequestDto) {
         return productTypeService.getProductTypeById(newProductRequestDto.productTypeId())
-                .flatMap(productType -> {
-                    Product product = createProductFromRequest(newProductRequestDto, productType);
-                    return productRepository.save(product)
-                            .map(savedProduct -> {
-                                ProductResponseDto productResponseDto = mapToResponseDto(savedProduct, productType);
-                                Cache cache = cacheManager.getCache("products");
-                                if (cache != null) {
-                                    cache.put(savedProduct.getId(), productResponseDto);
-                                    cache.clear();
-                                }
-                                return productResponseDto;
+                .then(Mono.defer(() -> productRepository.insertProduct(createProductFromRequest(newProductRequestDto))))
+                // a type deleted after the registry lookup
+                .onErrorMap(DataIntegrityViolationException.class, e -> new NotFoundException(
+                        "Product type with id " + newProductRequestDto.productTypeId() + " not found"))
+                .map(savedProduct -> {
+                    ProductResponseDto productResponseDto = productMapper.toProductResponseDto(savedProduct);
+                    catalogReadModel.productSaved(productResponseDto.getId(), productResponseDto.getVersion());
+                    productCacheInvalidator.productSaved(productResponseDto, typeName(savedProduct));
+                    productNameIndex.productSaved(productResponseDto);
+                    return productResponseDto;
+                })
+                .transform(timedMono("createProduct", productMetrics.typeTag(newProductRequestDto.productTypeId())));
+    }
+
+    @Override
+    public Mono<ProductBulkCreateResponseDto> createProducts(Map<Integer, NewProductRequestDto> requests) {
+        Set<Long> productTypeIds = requests.values().stream()
+                .map(NewProductRequestDto::productTypeId)
+                .collect(Collectors.toSet());
+        return Flux.fromIterable(productTypeIds)
+                .flatMap(productTypeId -> productTypeService.getProductTypeById(productTypeId)
+                        .onErrorResume(NotFoundException.class, e -> Mono.empty()))
+                .collectMap(ProductType::getId)
+                .flatMap(productTypes -> {
+                    List<Product> products = new ArrayList<>();
+                    List<ProductBulkCreateErrorDto> errors = new ArrayList<>();
+                    requests.forEach((index, request) -> {
+                        ProductType productType = productTypes.get(request.productTypeId());
+                        if (productType == null) {
+                            errors.add(new ProductBulkCreateErrorDto(index, List.of(new ValidationError("productTypeId",
+                                    "Product type with id " + request.productTypeId() + " not found"))));
+                        } else {
+                            products.add(createProductFromRequest(request));
+                        }
+                    });
+                    if (products.isEmpty()) {
+                        return Mono.just(new ProductBulkCreateResponseDto(List.of(), errors));
+                    }
+                    return productRepository.insertAll(products)
+                            .map(savedProduct -> mapToResponseDto(savedProduct, productTypes.get(savedProduct.getProductTypeId())))
+                            .collectList()
+                            .map(created -> {
+                                Set<String> typeNames = new HashSet<>();
+                                productTypes.values().forEach(productType -> typeNames.add(productType.getName()));
+                                created.forEach(product -> catalogReadModel.productSaved(product.getId(), product.getVersion()));
+                                productCacheInvalidator.productsSaved(created, typeNames);
+                                productNameIndex.productsSaved(created);
+                                return new ProductBulkCreateResponseDto(created, errors);
                             });
-                });
+                })
+                .transform(timedMono("createProducts", ProductMetrics.NO_TYPE));
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "products", allEntries = true),
-            @CacheEvict(value = "products", key = "#id")
-    })
-    public Mono<Void> deleteProduct(Long id) {
-        return productRepository.findProductById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Product with id=" + id + " not found")))
-                .flatMap(product -> productRepository.deleteById(id))
+    public Mono<Void> deleteProduct(Long id, Long expectedVersion) {
+        return catalogReadModel.deleting(id, productRepository.deleteProduct(id, expectedVersion)
+                        .switchIfEmpty(Mono.error(new NotFoundException("Product with id=" + id + " not found")))
+                        .flatMap(result -> result.applied()
+                                ? Mono.just(result.product())
+                                : Mono.error(versionMismatch(id, expectedVersion, result.currentVersion()))))
+                .doOnNext(product -> {
+                    productCacheInvalidator.productDeleted(id, typeName(product));
+                    productNameIndex.productDeleted(id);
+                })
+                .transform(timedMono("deleteProduct", ProductMetrics.NO_TYPE))
+                .then()
                 .doOnError(NotFoundException.class, e -> logger.error("Product with id={} not found", id));
     }
 
     @Override
-    public Mono<ProductResponseDto> updateProduct(Long id, UpdateProductRequestDto updateProductRequestDto) {
-        return productRepository.findProductById(id)
+    public Mono<ProductResponseDto> updateProduct(Long id, UpdateProductRequestDto updateProductRequestDto, Long expectedVersion) {
+        return Mono.defer(() -> productRepository.updateProduct(id, expectedVersion, updateProductRequestDto.name(),
+                        updateProductRequestDto.description(), updateProductRequestDto.open(), Instant.now()))
                 .switchIfEmpty(Mono.error(new NotFoundException("Product with id=" + id + " not found")))
-                .flatMap(product -> {
-                    if (updateProductRequestDto.name() != null)
-                        product.setName(updateProductRequestDto.name());
-                    if (updateProductRequestDto.description() != null)
-                        product.setDescription(updateProductRequestDto.description());
-
-                    if (updateProductRequestDto.open() != null) {
-                        if (product.getOpenDate() == null && updateProductRequestDto.open()) {
-                            product.setOpenDate(Instant.now());
-                        } else if (product.getOpenDate() != null && !updateProductRequestDto.open()) {
-                            product.setCloseDate(Instant.now());
-                        } else if (product.getCloseDate() != null && updateProductRequestDto.open()) {
-                            return Mono.error(new BadRequestException("Product is already closed"));
-                        }
+                .flatMap(result -> {
+                    if (result.applied()) {
+                        return Mono.just(result.product());
                     }
-                    product.setLastModifyTime(Instant.now());
-                    product.setProductType(null);
-                    return productRepository.save(product);
-                })
-                .map(savedProduct -> {
-                    ProductResponseDto productResponseDto = productMapper.toProductResponseDto(savedProduct);
-                    Cache cache = cacheManager.getCache("products");
-                    if (cache != null) {
-                        cache.put(savedProduct.getId(), productResponseDto);
-                        cache.clear();
+                    if (expectedVersion != null && !expectedVersion.equals(result.currentVersion())) {
+                        return Mono.error(versionMismatch(id, expectedVersion, result.currentVersion()));
                     }
-                    cacheManager.getCache("products").evict(savedProduct.getId());
-                    cacheManager.getCache("products").put(savedProduct.getId(), productResponseDto);
-                    cacheManager.getCache("products").clear();
+                    return Mono.error(new BadRequestException("Product is already closed"));
+                })
+                .map(updatedProduct -> {
+                    ProductResponseDto productResponseDto = productMapper.toProductResponseDto(updatedProduct);
+                    catalogReadModel.productSaved(productResponseDto.getId(), productResponseDto.getVersion());
+                    productCacheInvalidator.productSaved(productResponseDto, typeName(updatedProduct));
+                    productNameIndex.productSaved(productResponseDto);
                     return productResponseDto;
-                });
+                })
+                .transform(timedMono("updateProduct", ProductMetrics.NO_TYPE));
+    }
+
+    @Override
+    public Flux<ProductLifecycleResultDto> changeLifecycle(ProductLifecycleRequestDto productLifecycleRequestDto) {
+        boolean open = productLifecycleRequestDto.open();
+        Instant now = Instant.now();
+        Mono<List<ProductLifecycleResultDto>> results;
+        if (productLifecycleRequestDto.ids() != null) {
+            Set<Long> ids = new LinkedHashSet<>(productLifecycleRequestDto.ids());
+            results = productRepository.changeLifecycle(ids, null, open, now)
+                    .collectMap(ProductLifecycleChange::id)
+                    .map(changes -> {
+                        productsChanged(changes.values());
+                        return ids.stream()
+                                .map(id -> new ProductLifecycleResultDto(id, changes.containsKey(id)
+                                        ? changes.get(id).outcome() : ProductLifecycleOutcome.NOT_FOUND))
+                                .toList();
+                    });
+        } else {
+            results = productTypeService.getProductTypeByName(productLifecycleRequestDto.type())
+                    .flatMap(productType -> productRepository.changeLifecycle(null, productType.getId(), open, now)
+                            .collectList())
+                    .map(changes -> {
+                        productsChanged(changes);
+                        return changes.stream()
+                                .map(change -> new ProductLifecycleResultDto(change.id(), change.outcome()))
+                                .toList();
+                    });
+        }
+        String type = productLifecycleRequestDto.ids() != null
+                ? ProductMetrics.NO_TYPE : productMetrics.typeTag(productLifecycleRequestDto.type());
+        return results.transform(timedMono("changeLifecycle", type))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    /**
+     * Resolves the type name to its id through the product type registry, so an unknown type fails with
+     * {@link NotFoundException} without querying the products. A blank type passes a null id, meaning all types.
+     */
+    private <T> Flux<T> withProductTypeId(String type, Function<Long, Publisher<T>> query) {
+        if (!StringUtils.hasText(type)) {
+            return Flux.from(query.apply(null));
+        }
+        return productTypeService.getProductTypeByName(type)
+                .flatMapMany(productType -> query.apply(productType.getId()));
+    }
+
+    private <T> Function<Mono<T>, Mono<T>> timedMono(String operation, String type) {
+        return productMetrics.timedMono(ProductMetrics.SERVICE, operation, type);
+    }
+
+    private <T> Function<Flux<T>, Flux<T>> timedFlux(String operation, String type) {
+        return productMetrics.timedFlux(ProductMetrics.SERVICE, operation, type);
+    }
+
+    private void productsChanged(Collection<ProductLifecycleChange> changes) {
+        List<ProductLifecycleChange> updated = changes.stream()
+                .filter(change -> change.outcome() == ProductLifecycleOutcome.UPDATED)
+                .toList();
+        updated.forEach(change -> catalogReadModel.productSaved(change.id(), change.version()));
+        if (!updated.isEmpty()) {
+            productCacheInvalidator.productsChanged(
+                    updated.stream().map(ProductLifecycleChange::id).toList(),
+                    updated.stream().map(ProductLifecycleChange::typeName).collect(Collectors.toCollection(HashSet::new)));
+        }
+    }
+
+    private static PreconditionFailedException versionMismatch(Long id, Long expectedVersion, Long currentVersion) {
+        logger.warn("Product with id={} has version={}, expected version={}", id, currentVersion, expectedVersion);
+        return new PreconditionFailedException("Product with id=" + id + " has been modified");
+    }
+
+    private static String typeName(Product product) {
+        return product.getProductType() != null ? product.getProductType().getName() : null;
     }
 
-    private Product createProductFromRequest(NewProductRequestDto newProductRequestDto, ProductType productType) {
+    private Product createProductFromRequest(NewProductRequestDto newProductRequestDto) {
         Product product = productMapper.toProduct(newProductRequestDto);
         Instant now = Instant.now();
 
@@ -141,13 +332,41 @@ public class ProductServiceImpl implements ProductService {
 
         product.setCreateTime(now);
         product.setLastModifyTime(now);
-        product.setProductTypeId(productType.getId());
+        product.setProductTypeId(newProductRequestDto.productTypeId());
         product.setCreateUser("omni");
         product.setLastModifyUser("omni");
 
         return product;
     }
 
+    private static ProductPageResponseDto toPage(List<ProductResponseDto> products, int limit) {
+        boolean hasNext = products.size() > limit;
+        List<ProductResponseDto> page = hasNext ? List.copyOf(products.subList(0, limit)) : products;
+        String nextCursor = hasNext ? ProductKeyset.of(page.get(page.size() - 1)).toCursor() : null;
+        return new ProductPageResponseDto(page, nextCursor);
+    }
+
+    private static ProductPageResponseDto toSearchPage(List<ProductSearchHit> hits, int limit) {
+        boolean hasNext = hits.size() > limit;
+        List<ProductSearchHit> page = hasNext ? hits.subList(0, limit) : hits;
+        String nextCursor = hasNext ? ProductSearchKeyset.of(page.get(page.size() - 1)).toCursor() : null;
+        return new ProductPageResponseDto(page.stream().map(ProductSearchHit::product).toList(), nextCursor);
+    }
+
+    private static ProductBatchResponseDto toBatch(Set<Long> ids, Map<Long, ProductResponseDto> found) {
+        List<ProductResponseDto> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            ProductResponseDto product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponseDto(products, missingIds);
+    }
+
     private ProductResponseDto mapToResponseDto(Product product, ProductType productType) {
         product.setProductType(productType);
         return productMapper.toProductResponseDto(product);
@@ -0,0 +1,133 @@
+package ru.bank.omniproductcatalog.producttype.registry;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import ru.bank.omniproductcatalog.producttype.repository.ProductTypeRepository;
+import ru.bank.omniproductcatalog.util.ConnectionFactories;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * All product types, held in memory so that product reads and type lookups never query {@code product_type}.
+ * <p>
+ * The types are loaded before the web server starts and reloaded as a whole on every
+ * {@code product_type_changes} notification, which the product_type trigger sends on any change,
+ * and every {@code refresh_s} seconds in case a notification was missed while the listening connection was down.
+ * A reload swaps in a new {@link ProductTypeSnapshot}, readers never see a half-applied one.
+ */
+@Component
+public class ProductTypeRegistry implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ProductTypeRegistry.class);
+    private static final String CHANNEL = "product_type_changes";
+
+    private final ConnectionFactory connectionFactory;
+    private final ProductTypeRepository productTypeRepository;
+    private final Duration refreshInterval;
+    private final Duration loadTimeout;
+    private final AtomicReference<ProductTypeSnapshot> snapshot = new AtomicReference<>();
+    private volatile Disposable subscription;
+
+    public ProductTypeRegistry(ConnectionFactory connectionFactory,
+                               ProductTypeRepository productTypeRepository,
+                               @Value("${application.product_type.registry.refresh_s}") Long refreshInterval,
+                               @Value("${application.product_type.registry.load_timeout_s}") Long loadTimeout) {
+        this.connectionFactory = connectionFactory;
+        this.productTypeRepository = productTypeRepository;
+        this.refreshInterval = Duration.ofSeconds(refreshInterval);
+        this.loadTimeout = Duration.ofSeconds(loadTimeout);
+    }
+
+    /**
+     * @return the current snapshot, loaded first if the registry has not been loaded yet
+     */
+    public Mono<ProductTypeSnapshot> snapshot() {
+        return Mono.defer(() -> {
+            ProductTypeSnapshot current = snapshot.get();
+            return current != null ? Mono.just(current) : reload();
+        });
+    }
+
+    /**
+     * @return the current snapshot without loading it, {@code null} if the registry has not been loaded yet
+     */
+    public ProductTypeSnapshot current() {
+        return snapshot.get();
+    }
+
+    public Mono<ProductTypeSnapshot> reload() {
+        return productTypeRepository.findAll()
+                .collectList()
+                .map(ProductTypeSnapshot::of)
+                .doOnNext(loaded -> {
+                    snapshot.set(loaded);
+                    logger.info("Product type registry loaded {} product types", loaded.size());
+                });
+    }
+
+    @Override
+    public void start() {
+        try {
+            reload().block(loadTimeout);
+        } catch (RuntimeException e) {
+            logger.error("Product type registry failed to load, it will be loaded on first use", e);
+        }
+        subscription = Flux.merge(notifications(), Flux.interval(refreshInterval, refreshInterval))
+                .onBackpressureLatest()
+                .concatMap(signal -> reload()
+                        .onErrorResume(e -> {
+                            logger.error("Product type registry failed to reload, keeping the previous product types", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    /**
+     * Started before the web server, so the first request already finds the types loaded.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Emits once LISTEN is active, which reloads the types changed while the connection was down,
+     * and then once per notification.
+     */
+    private Flux<Object> notifications() {
+        return Flux.usingWhen(
+                        Mono.from(ConnectionFactories.unwrap(connectionFactory).create()).cast(PostgresqlConnection.class),
+                        connection -> connection.createStatement("LISTEN " + CHANNEL)
+                                .execute()
+                                .flatMap(result -> result.getRowsUpdated())
+                                .thenMany(Flux.<Object>just(CHANNEL)
+                                        .concatWith(connection.getNotifications())),
+                        Connection::close)
+                .doOnError(e -> logger.warn("Product type registry lost its notification connection", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+    }
+}
@@ -0,0 +1,53 @@
+package ru.bank.omniproductcatalog.producttype.registry;
+
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of all product types, indexed by id and by name. Every lookup returns the same
+ * {@link ProductType} instance for a type until the registry swaps in a new snapshot.
+ */
+public final class ProductTypeSnapshot {
+    private final Map<Long, ProductType> byId;
+    private final Map<String, ProductType> byName;
+    private final List<ProductType> all;
+
+    private ProductTypeSnapshot(Map<Long, ProductType> byId, Map<String, ProductType> byName, List<ProductType> all) {
+        this.byId = byId;
+        this.byName = byName;
+        this.all = all;
+    }
+
+    public static ProductTypeSnapshot of(List<ProductType> productTypes) {
+        Map<Long, ProductType> byId = new HashMap<>();
+        Map<String, ProductType> byName = new HashMap<>();
+        for (ProductType productType : productTypes) {
+            byId.put(productType.getId(), productType);
+            byName.put(productType.getName(), productType);
+        }
+        List<ProductType> all = productTypes.stream()
+                .sorted(Comparator.comparing(ProductType::getId))
+                .toList();
+        return new ProductTypeSnapshot(Map.copyOf(byId), Map.copyOf(byName), all);
+    }
+
+    public ProductType findById(Long id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    public ProductType findByName(String name) {
+        return name != null ? byName.get(name) : null;
+    }
+
+    public List<ProductType> findAll() {
+        return all;
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
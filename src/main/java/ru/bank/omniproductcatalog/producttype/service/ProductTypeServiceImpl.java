@@ -1,38 +1,38 @@
 package ru.bank.omniproductcatalog.producttype.service;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.bank.omniproductcatalog.model.exception.NotFoundException;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeRegistry;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeSnapshot;
 import ru.bank.omniproductcatalog.producttype.repository.ProductType;
-import ru.bank.omniproductcatalog.producttype.repository.ProductTypeRepository;
 
 @Service
 public class ProductTypeServiceImpl implements ProductTypeService {
-    private final ProductTypeRepository productTypeRepository;
+    private final ProductTypeRegistry productTypeRegistry;
 
-    public ProductTypeServiceImpl(ProductTypeRepository productTypeRepository) {
-        this.productTypeRepository = productTypeRepository;
+    public ProductTypeServiceImpl(ProductTypeRegistry productTypeRegistry) {
+        this.productTypeRegistry = productTypeRegistry;
     }
 
     @Override
-    @Cacheable(value = "productTypes", key = "#id")
     public Mono<ProductType> getProductTypeById(Long id) {
-        return productTypeRepository.findById(id)
+        return productTypeRegistry.snapshot()
+                .mapNotNull(productTypes -> productTypes.findById(id))
                 .switchIfEmpty(Mono.error(new NotFoundException("Product type with id " + id + " not found")));
     }
 
     @Override
-    @Cacheable(value = "productTypes", key = "#name")
     public Mono<ProductType> getProductTypeByName(String name) {
-        return productTypeRepository.findByName(name)
+        return productTypeRegistry.snapshot()
+                .mapNotNull(productTypes -> productTypes.findByName(name))
                 .switchIfEmpty(Mono.error(new NotFoundException("Product type with name " + name + " not found")));
     }
 
     @Override
-    @Cacheable("productTypes")
     public Flux<ProductType> getAllProductTypes() {
-        return productTypeRepository.findAll();
+        return productTypeRegistry.snapshot()
+                .flatMapIterable(ProductTypeSnapshot::findAll);
     }
 }
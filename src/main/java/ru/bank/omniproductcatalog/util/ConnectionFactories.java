@@ -0,0 +1,35 @@
+package ru.bank.omniproductcatalog.util;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+
+import java.util.Optional;
+
+public final class ConnectionFactories {
+    private ConnectionFactories() {
+    }
+
+    /**
+     * Returns the driver connection factory behind the pool and any other wrappers. LISTEN is session state,
+     * so a listener uses its own connection to the driver rather than one borrowed from the pool.
+     */
+    public static ConnectionFactory unwrap(ConnectionFactory connectionFactory) {
+        ConnectionFactory current = connectionFactory;
+        while (current instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory delegate) {
+            current = delegate;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the connection pool behind any wrappers, empty if the connections are not pooled.
+     */
+    public static Optional<ConnectionPool> findPool(ConnectionFactory connectionFactory) {
+        Object current = connectionFactory;
+        while (!(current instanceof ConnectionPool) && current instanceof Wrapped<?> wrapped) {
+            current = wrapped.unwrap();
+        }
+        return current instanceof ConnectionPool pool ? Optional.of(pool) : Optional.empty();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.bank.omniproductcatalog.util;
+
+/**
+ * Where {@link MonoUtils} delivers the result of a service call to the controller.
+ */
+public enum ExecutionPolicy {
+    /**
+     * No thread hop, the result stays on the thread that produced it, usually the Netty event loop
+     * or the R2DBC connection thread. The right choice for non-blocking pipelines.
+     */
+    EVENT_LOOP,
+    /**
+     * A parallel scheduler with one thread per core, for CPU-heavy post-processing of the result.
+     */
+    PARALLEL,
+    /**
+     * A bounded elastic scheduler, for post-processing that blocks.
+     */
+    BOUNDED_ELASTIC,
+    /**
+     * A new virtual thread per result, for post-processing that blocks.
+     */
+    VIRTUAL_THREADS
+}
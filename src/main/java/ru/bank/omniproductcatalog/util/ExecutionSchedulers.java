@@ -0,0 +1,64 @@
+package ru.bank.omniproductcatalog.util;
+
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@link ExecutionPolicy} of every operation and the schedulers behind them. A scheduler is created
+ * only for the policies in use, when the bean is created, and disposed with the bean.
+ */
+public class ExecutionSchedulers implements Disposable {
+    private final ExecutionPolicy defaultPolicy;
+    private final Map<String, ExecutionPolicy> operationPolicies;
+    private final Map<ExecutionPolicy, Scheduler> schedulers = new EnumMap<>(ExecutionPolicy.class);
+    private volatile boolean disposed;
+
+    public ExecutionSchedulers(ExecutionPolicy defaultPolicy, Map<String, ExecutionPolicy> operationPolicies) {
+        this.defaultPolicy = defaultPolicy;
+        this.operationPolicies = Map.copyOf(operationPolicies);
+        schedulers.put(defaultPolicy, newScheduler(defaultPolicy));
+        this.operationPolicies.values().forEach(policy -> schedulers.computeIfAbsent(policy, ExecutionSchedulers::newScheduler));
+    }
+
+    public ExecutionPolicy policy(String operation) {
+        return operationPolicies.getOrDefault(operation, defaultPolicy);
+    }
+
+    /**
+     * @return the scheduler to publish the result of the operation on, {@code null} for {@link ExecutionPolicy#EVENT_LOOP}
+     */
+    public Scheduler scheduler(String operation) {
+        return schedulers.get(policy(operation));
+    }
+
+    private static Scheduler newScheduler(ExecutionPolicy policy) {
+        return switch (policy) {
+            case EVENT_LOOP -> null;
+            case PARALLEL -> Schedulers.newParallel("workers", Runtime.getRuntime().availableProcessors());
+            case BOUNDED_ELASTIC -> Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                    Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "workers-elastic");
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("workers-virtual-", 0).factory()), "workers-virtual");
+        };
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        schedulers.values().forEach(scheduler -> {
+            if (scheduler != null) {
+                scheduler.dispose();
+            }
+        });
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
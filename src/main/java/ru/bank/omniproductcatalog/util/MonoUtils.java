@@ -6,7 +6,6 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 import ru.bank.omniproductcatalog.model.exception.ServiceTimeoutException;
 
 import java.time.Duration;
@@ -15,20 +14,27 @@ import java.util.concurrent.TimeoutException;
 @Component
 public class MonoUtils {
     private static final Logger logger = LoggerFactory.getLogger(MonoUtils.class);
-    private static final Scheduler schedulerCommon = Schedulers.newParallel("workers", 8);
+    private final ExecutionSchedulers executionSchedulers;
 
+    public MonoUtils(ExecutionSchedulers executionSchedulers) {
+        this.executionSchedulers = executionSchedulers;
+    }
 
-    public <T> Mono<T> oksServiceCallableRight(Mono<T> source, Long timeout) {
-        return source
-                .publishOn(schedulerCommon)
+    /**
+     * Applies the timeout to a service call and delivers its result as the {@link ExecutionPolicy}
+     * of the operation, configured under {@code application.execution}.
+     */
+    public <T> Mono<T> oksServiceCallableRight(String operation, Mono<T> source, Long timeout) {
+        Scheduler scheduler = executionSchedulers.scheduler(operation);
+        return (scheduler != null ? source.publishOn(scheduler) : source)
                 .timeout(Duration.ofMillis(timeout))
                 .doOnError(TimeoutException.class, e -> logger.error("Service call timeout after {} ms", timeout))
                 .onErrorResume(TimeoutException.class, e -> Mono.error(new ServiceTimeoutException("Service call timeout")));
     }
 
-    public <T> Flux<T> oksServiceCallableRight(Flux<T> source, Long timeout) {
-        return source
-                .publishOn(schedulerCommon)
+    public <T> Flux<T> oksServiceCallableRight(String operation, Flux<T> source, Long timeout) {
+        Scheduler scheduler = executionSchedulers.scheduler(operation);
+        return (scheduler != null ? source.publishOn(scheduler) : source)
                 .timeout(Duration.ofMillis(timeout))
                 .doOnError(TimeoutException.class, e -> logger.error("Service call timeout after {} ms", timeout))
                 .onErrorResume(TimeoutException.class, e -> Flux.error(new ServiceTimeoutException("Service call timeout")));
@@ -0,0 +1,116 @@
+package ru.bank.omniproductcatalog.smoke;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application started as a separate process, either the native executable or {@code java -jar}, so both
+ * builds are started and measured the same way: the time from the launch until the health endpoint answers,
+ * and the resident set size of the process.
+ */
+final class ApplicationProcess implements AutoCloseable {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final Process process;
+    private final int port;
+    private final Duration startupTime;
+
+    private ApplicationProcess(Process process, int port, Duration startupTime) {
+        this.process = process;
+        this.port = port;
+        this.startupTime = startupTime;
+    }
+
+    /**
+     * Starts the command with the arguments on a free port and waits until the application is up.
+     */
+    static ApplicationProcess start(List<String> command, List<String> arguments, Path log, Duration timeout)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> commandLine = new ArrayList<>(command);
+        commandLine.addAll(arguments);
+        commandLine.add("--server.port=" + port);
+        Files.createDirectories(log.toAbsolutePath().getParent());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(commandLine)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        long deadline = start + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return new ApplicationProcess(process, port, Duration.ofNanos(System.nanoTime() - start));
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        process.destroyForcibly();
+        throw new IllegalStateException("Application is not up after " + timeout + ", see " + log);
+    }
+
+    int port() {
+        return port;
+    }
+
+    Duration startupTime() {
+        return startupTime;
+    }
+
+    /**
+     * @return the resident set size in megabytes, -1 where {@code /proc} is not available
+     */
+    long residentSetSizeMb() {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("\\D", ""))
+                    .mapToLong(kilobytes -> Long.parseLong(kilobytes) / 1024)
+                    .findFirst()
+                    .orElse(-1L);
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package ru.bank.omniproductcatalog.smoke;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every endpoint of the product controller on a running build of the application: the native
+ * executable with {@code gradle nativeSmokeTest}, the executable jar with {@code gradle jvmSmokeTest}.
+ * The startup time and the resident set size after the start and after the calls are logged, so the
+ * two runs compare the builds.
+ */
+public class ApplicationSmokeTest {
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationSmokeTest.class);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final long CARD_TYPE_ID = 1L;
+
+    private static final PostgreSQLContainer<?> POSTGRES_CONTAINER =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("omni-product-catalog-smoke")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    private static String label;
+    private static ApplicationProcess application;
+    private static long startupRssMb;
+    private static WebTestClient webTestClient;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        label = System.getProperty("smoke.label", "application");
+        List<String> command = Arrays.asList(System.getProperty("smoke.command").trim().split("\\s+"));
+        Path log = Path.of(System.getProperty("smoke.log_dir", "build/smoke"), label + ".log");
+        POSTGRES_CONTAINER.start();
+        String address = POSTGRES_CONTAINER.getHost() + ":" + POSTGRES_CONTAINER.getFirstMappedPort()
+                + "/" + POSTGRES_CONTAINER.getDatabaseName();
+        application = ApplicationProcess.start(command, List.of(
+                "--spring.r2dbc.url=r2dbc:postgresql://" + address,
+                "--spring.r2dbc.username=" + POSTGRES_CONTAINER.getUsername(),
+                "--spring.r2dbc.password=" + POSTGRES_CONTAINER.getPassword(),
+                "--spring.liquibase.url=jdbc:postgresql://" + address), log, STARTUP_TIMEOUT);
+        startupRssMb = application.residentSetSizeMb();
+        logger.info("{}: up in {} ms, RSS {} MB", label, application.startupTime().toMillis(), startupRssMb);
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + application.port() + "/api/v1/products")
+                .responseTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        if (application != null) {
+            logger.info("{}: up in {} ms, RSS {} MB after the start, {} MB after the calls", label,
+                    application.startupTime().toMillis(), startupRssMb, application.residentSetSizeMb());
+            application.close();
+        }
+        POSTGRES_CONTAINER.stop();
+    }
+
+    @Test
+    void createProduct_returnsCreatedProduct() {
+        ProductResponseDto product = create("Smoke card");
+
+        assertThat(product.getId()).isNotNull();
+        assertThat(product.getName()).isEqualTo("Smoke card");
+        assertThat(product.getOpenDate()).isNotNull();
+    }
+
+    @Test
+    void getProductById_returnsProductWithETag() {
+        ProductResponseDto created = create("Smoke card by id");
+
+        webTestClient.get().uri("/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + created.getVersion() + "\"")
+                .expectBody(ProductResponseDto.class).value(product -> {
+                    assertThat(product.getId()).isEqualTo(created.getId());
+                    assertThat(product.getName()).isEqualTo(created.getName());
+                });
+    }
+
+    @Test
+    void getProducts_filtersByType() {
+        ProductResponseDto created = create("Smoke card in list");
+
+        webTestClient.get().uri("?type=card")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductResponseDto.class).value(products ->
+                        assertThat(products).extracting(ProductResponseDto::getId).contains(created.getId()));
+    }
+
+    @Test
+    void streamProducts_returnsNdjson() {
+        ProductResponseDto created = create("Smoke card in stream");
+
+        webTestClient.get().uri("?type=card")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ProductResponseDto.class).value(products ->
+                        assertThat(products).extracting(ProductResponseDto::getId).contains(created.getId()));
+    }
+
+    @Test
+    void getProductsPage_returnsLimitedPage() {
+        create("Smoke card page 1");
+        create("Smoke card page 2");
+
+        webTestClient.get().uri("/page?type=card&limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class).value(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getNextCursor()).isNotNull();
+                });
+    }
+
+    @Test
+    void searchProducts_findsMisspelledName() {
+        ProductResponseDto created = create("Smoke searchable card");
+
+        webTestClient.get().uri("/search?q={q}&type=card", "serchable")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class).value(page ->
+                        assertThat(page.getItems()).extracting(ProductResponseDto::getId).containsExactly(created.getId()));
+    }
+
+    @Test
+    void autocompleteProducts_completesWordIgnoringCaseAndDiacritics() {
+        ProductResponseDto created = create("Smoke Ёлочная card");
+
+        webTestClient.get().uri("/autocomplete?prefix={prefix}&type=card", "ЕЛОЧ")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductSuggestionDto.class).value(suggestions ->
+                        assertThat(suggestions).extracting(ProductSuggestionDto::getId).containsExactly(created.getId()));
+    }
+
+    @Test
+    void getProductsByIds_reportsMissingIds() {
+        ProductResponseDto created = create("Smoke card in batch");
+
+        webTestClient.get().uri("/batch?ids={id},{missing}", created.getId(), Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductBatchResponseDto.class).value(batch -> {
+                    assertThat(batch.getProducts()).extracting(ProductResponseDto::getId).containsExactly(created.getId());
+                    assertThat(batch.getMissingIds()).containsExactly(Long.MAX_VALUE);
+                });
+    }
+
+    @Test
+    void createProducts_createsValidItemsAndReportsRejected() {
+        List<NewProductRequestDto> requests = List.of(
+                new NewProductRequestDto("Smoke bulk one", CARD_TYPE_ID, "smoke bulk one", false),
+                new NewProductRequestDto("x", CARD_TYPE_ID, "too short", false));
+
+        webTestClient.post().uri("/batch")
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductBulkCreateResponseDto.class).value(response -> {
+                    assertThat(response.getCreated()).extracting(ProductResponseDto::getName).containsExactly("Smoke bulk one");
+                    assertThat(response.getErrors()).hasSize(1);
+                    assertThat(response.getErrors().get(0).getIndex()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void changeLifecycle_closesProduct() {
+        ProductResponseDto created = create("Smoke card to close");
+
+        webTestClient.post().uri("/lifecycle")
+                .bodyValue(new ProductLifecycleRequestDto(List.of(created.getId()), null, false))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductLifecycleResultDto.class).value(results -> {
+                    assertThat(results).hasSize(1);
+                    assertThat(results.get(0).getOutcome()).isEqualTo(ProductLifecycleOutcome.UPDATED);
+                });
+    }
+
+    @Test
+    void updateProduct_checksIfMatch() {
+        ProductResponseDto created = create("Smoke card to update");
+        String eTag = "\"" + created.getVersion() + "\"";
+
+        webTestClient.put().uri("/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new UpdateProductRequestDto("Smoke card updated", null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductResponseDto.class).value(product -> assertThat(product.getName()).isEqualTo("Smoke card updated"));
+        webTestClient.put().uri("/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new UpdateProductRequestDto("Smoke card stale", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void deleteProduct_removesProduct() {
+        ProductResponseDto created = create("Smoke card to delete");
+
+        webTestClient.delete().uri("/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static ProductResponseDto create(String name) {
+        return webTestClient.post()
+                .bodyValue(new NewProductRequestDto(name, CARD_TYPE_ID, name.toLowerCase(), true))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.bank.omniproductcatalog.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveAllocationStrategyTest {
+
+    @Test
+    void getPermits_grantsTheMinimumFirst_andNeverMoreThanTheLimit() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(4, 10);
+
+        assertThat(strategy.getPermits(1)).isEqualTo(4);
+        assertThat(strategy.getPermits(1)).isZero();
+        assertThat(strategy.estimatePermitCount()).isZero();
+
+        assertThat(strategy.setLimit(7)).isEqualTo(7);
+        assertThat(strategy.getPermits(5)).isEqualTo(3);
+        assertThat(strategy.permitGranted()).isEqualTo(7);
+        assertThat(strategy.permitMaximum()).isEqualTo(7);
+    }
+
+    @Test
+    void setLimit_isClampedToTheBounds_andLoweringItKeepsGrantedPermits() {
+        AdaptiveAllocationStrategy strategy = new AdaptiveAllocationStrategy(2, 10);
+
+        assertThat(strategy.setLimit(100)).isEqualTo(10);
+        assertThat(strategy.getPermits(8)).isEqualTo(8);
+        assertThat(strategy.setLimit(0)).isEqualTo(2);
+        assertThat(strategy.permitGranted()).isEqualTo(8);
+        assertThat(strategy.getPermits(1)).isZero();
+
+        strategy.returnPermits(7);
+        assertThat(strategy.getPermits(1)).isEqualTo(1);
+        assertThatThrownBy(() -> strategy.returnPermits(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nextLimit_growsOnPendingOrSlowAcquires_andShrinksOnlyAfterIdleSamples() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(null, "connectionFactory", new AdaptiveAllocationStrategy(2, 30),
+                null, Duration.ofSeconds(1), 2, Duration.ofMillis(5), 3);
+        long fast = Duration.ofMillis(1).toNanos();
+        long slow = Duration.ofMillis(20).toNanos();
+
+        assertThat(sizer.nextLimit(10, 5, 10, fast)).isEqualTo(15);
+        assertThat(sizer.nextLimit(10, 0, 10, slow)).isEqualTo(12);
+        assertThat(sizer.nextLimit(10, 0, 8, fast)).isEqualTo(10);
+
+        assertThat(sizer.nextLimit(10, 0, 2, fast)).isEqualTo(10);
+        assertThat(sizer.nextLimit(10, 0, 2, fast)).isEqualTo(10);
+        assertThat(sizer.nextLimit(10, 0, 2, fast)).isEqualTo(8);
+    }
+}
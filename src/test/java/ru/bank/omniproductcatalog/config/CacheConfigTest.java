@@ -0,0 +1,71 @@
+package ru.bank.omniproductcatalog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheConfigTest {
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "productByIdTtl", 15L);
+        ReflectionTestUtils.setField(cacheConfig, "productByIdMaxSize", 100L);
+        ReflectionTestUtils.setField(cacheConfig, "productListTtl", 15L);
+        ReflectionTestUtils.setField(cacheConfig, "productListMaxWeight", 4096L);
+        cacheManager = cacheConfig.cacheManager();
+    }
+
+    @Test
+    void cacheManager_createsOnlyConfiguredCaches() {
+        assertThat(cacheManager.getCacheNames())
+                .containsExactlyInAnyOrder(CacheConfig.PRODUCT_BY_ID, CacheConfig.PRODUCT_LIST_BY_TYPE);
+        assertThat(cacheManager.getCache("products")).isNull();
+    }
+
+    @Test
+    void clearingListCache_keepsProductsById() {
+        ProductResponseDto card = getCardProduct(1L);
+        cacheManager.getCache(CacheConfig.PRODUCT_BY_ID).put(1L, card);
+        cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE).put("card", List.of(card));
+
+        cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE).clear();
+
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCT_BY_ID).get(1L, ProductResponseDto.class)).isEqualTo(card);
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE).get("card")).isNull();
+    }
+
+    @Test
+    void listCache_isBoundedByWeightAndRecordsStats() {
+        Cache<Object, Object> productLists = nativeCache(CacheConfig.PRODUCT_LIST_BY_TYPE);
+        List<ProductResponseDto> bigList = List.of(getCardProduct(1L), getCardProduct(2L), getCardProduct(3L),
+                getCardProduct(4L), getCardProduct(5L), getCardProduct(6L), getCardProduct(7L), getCardProduct(8L));
+        for (int i = 0; i < 50; i++) {
+            productLists.put("type-" + i, bigList);
+        }
+        productLists.getIfPresent("type-49");
+        productLists.getIfPresent("missing");
+        productLists.cleanUp();
+
+        assertThat(productLists.policy().eviction().orElseThrow().weightedSize().orElseThrow()).isLessThanOrEqualTo(4096L);
+        assertThat(productLists.stats().hitCount() + productLists.stats().missCount()).isEqualTo(2);
+        assertThat(nativeCache(CacheConfig.PRODUCT_BY_ID).stats().requestCount()).isZero();
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private static ProductResponseDto getCardProduct(Long id) {
+        return new ProductResponseDto(id, "Test Card " + id, 1L, "Test Card Description", null, null);
+    }
+}
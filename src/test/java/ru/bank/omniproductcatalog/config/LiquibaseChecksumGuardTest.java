@@ -0,0 +1,46 @@
+package ru.bank.omniproductcatalog.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LiquibaseChecksumGuardTest {
+    private static final String CHANGELOG = "classpath:/db/changelog/db.changelog-master.yaml";
+
+    @Test
+    void checksum_isStableForTheSameChangelog() {
+        String checksum = LiquibaseChecksumGuard.checksum(CHANGELOG);
+
+        assertThat(checksum).hasSize(64).matches("[0-9a-f]+");
+        assertThat(LiquibaseChecksumGuard.checksum("classpath:db/changelog/db.changelog-master.yaml")).isEqualTo(checksum);
+    }
+
+    @Test
+    void checksum_coversTheFilesOfTheChangelogDirectory() {
+        String checksum = LiquibaseChecksumGuard.checksum(CHANGELOG);
+        String productChecksum = LiquibaseChecksumGuard.checksum("classpath:/db/changelog/v1/product/add-product-table.yaml");
+        String productTypeChecksum = LiquibaseChecksumGuard.checksum("classpath:/db/changelog/v1/product-type/add-product-type-table.yaml");
+
+        assertThat(productChecksum).isNotEqualTo(checksum).isNotEqualTo(productTypeChecksum);
+    }
+
+    @Test
+    void postProcessBeforeInitialization_runsLiquibase_whenNoChecksumIsStored() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("relation \"schema_checksum\" does not exist"));
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(CHANGELOG);
+
+        new LiquibaseChecksumGuard().postProcessBeforeInitialization(liquibase, "liquibase");
+
+        assertThat(ReflectionTestUtils.getField(liquibase, "shouldRun")).isEqualTo(true);
+    }
+}
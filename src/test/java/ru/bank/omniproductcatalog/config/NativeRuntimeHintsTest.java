@@ -0,0 +1,62 @@
+package ru.bank.omniproductcatalog.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.product.repository.Product;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NativeRuntimeHintsTest {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_registersMapperEntitiesAndBodies() {
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("ru.bank.omniproductcatalog.product.mapper.ProductMapperImpl"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Product.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ProductResponseDto.class)).accepts(hints);
+    }
+
+    @Test
+    void registerHints_registersNestedChangelogs() {
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("db/changelog/v1/product/add-product-table.yaml")).accepts(hints);
+    }
+
+    @Test
+    void registerHints_registersTheClassesCaffeineGeneratesForTheConfiguredCaches() {
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "productByIdTtl", 15L);
+        ReflectionTestUtils.setField(cacheConfig, "productByIdMaxSize", 100L);
+        ReflectionTestUtils.setField(cacheConfig, "productListTtl", 15L);
+        ReflectionTestUtils.setField(cacheConfig, "productListMaxWeight", 4096L);
+        CacheManager cacheManager = cacheConfig.cacheManager();
+
+        for (String name : cacheManager.getCacheNames()) {
+            AsyncCache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(name)).getAsyncCache();
+            Object localCache = ReflectionTestUtils.getField(cache, "cache");
+            Object nodeFactory = ReflectionTestUtils.getField(localCache, "nodeFactory");
+
+            assertThat(RuntimeHintsPredicates.reflection().onType(localCache.getClass())
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(nodeFactory.getClass())
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        }
+    }
+}
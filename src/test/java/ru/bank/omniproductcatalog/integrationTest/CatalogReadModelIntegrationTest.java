@@ -0,0 +1,116 @@
+package ru.bank.omniproductcatalog.integrationTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+import ru.bank.omniproductcatalog.product.readmodel.CatalogReadModel;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("integration")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application.catalog.read_model.enabled=true",
+        // the notifications of a test's writes are applied after its requests, so every read after a write
+        // finds the snapshot behind
+        "application.catalog.read_model.max_batch_wait_ms=2000"})
+@Import(TestContainersConfig.class)
+public class CatalogReadModelIntegrationTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @BeforeEach
+    void setUp() {
+        awaitReadModel(catalogReadModel::isReady);
+    }
+
+    @Test
+    void getProductById_afterWrites_returnsThem() {
+        ProductResponseDto created = webTestClient.post().uri("/api/v1/products")
+                .bodyValue(new NewProductRequestDto("Read model card", 1, "Read Model Card Description", false))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductResponseDto.class).returnResult().getResponseBody();
+        Long id = created.getId();
+        webTestClient.get().uri("/api/v1/products/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+
+        webTestClient.put().uri("/api/v1/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(new UpdateProductRequestDto("Renamed card", null, null))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/products/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody(ProductResponseDto.class)
+                .value(response -> assertThat(response.getName()).isEqualTo("Renamed card"));
+
+        webTestClient.post().uri("/api/v1/products/lifecycle")
+                .bodyValue(new ProductLifecycleRequestDto(List.of(id), null, true))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/products/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody(ProductResponseDto.class)
+                .value(response -> assertThat(response.getOpenDate()).isNotNull());
+        webTestClient.put().uri("/api/v1/products/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .bodyValue(new UpdateProductRequestDto("Open card", null, null))
+                .exchange()
+                .expectStatus().isOk();
+
+        // once the notifications are applied the snapshot serves the product again
+        awaitReadModel(() -> catalogReadModel.findById(id).isPresent());
+        assertThat(catalogReadModel.findById(id).get())
+                .hasValueSatisfying(product -> assertThat(product.getVersion()).isEqualTo(3L));
+    }
+
+    @Test
+    void getProductById_afterDelete_fail() {
+        ProductResponseDto created = webTestClient.post().uri("/api/v1/products")
+                .bodyValue(new NewProductRequestDto("Deleted card", 1, "Deleted Card Description", true))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductResponseDto.class).returnResult().getResponseBody();
+        Long id = created.getId();
+        awaitReadModel(() -> catalogReadModel.findById(id).filter(Optional::isPresent).isPresent());
+
+        webTestClient.delete().uri("/api/v1/products/{id}", id)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/products/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        awaitReadModel(() -> catalogReadModel.findById(id).filter(Optional::isEmpty).isPresent());
+    }
+
+    private static void awaitReadModel(BooleanSupplier condition) {
+        Flux.interval(Duration.ofMillis(50))
+                .filter(tick -> condition.getAsBoolean())
+                .blockFirst(Duration.ofSeconds(10));
+    }
+}
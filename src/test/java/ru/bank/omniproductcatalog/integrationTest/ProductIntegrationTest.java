@@ -6,13 +6,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.r2dbc.connection.init.ScriptUtils;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateErrorDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
 import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
 import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
 
@@ -34,9 +45,14 @@ public class ProductIntegrationTest {
     @Autowired
     private ConnectionFactory connectionFactory;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp(@Value("classpath:insert4product.sql") Resource sqlScript) {
         executeScriptBlocking(sqlScript);
+        // the script rewrites the rows behind the application, so nothing cached by an earlier test is valid
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -74,6 +90,69 @@ public class ProductIntegrationTest {
                 });
     }
 
+    @Test
+    void streamProductsByType_success() {
+        webTestClient.get().uri("/api/v1/products?type=card")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ProductResponseDto.class).value(response ->
+                        assertThat(response).containsExactlyInAnyOrder(getCardProduct(), getCardProduct_2()));
+    }
+
+    @Test
+    void getProductsPages_success() {
+        ProductPageResponseDto firstPage = webTestClient.get().uri("/api/v1/products/page?limit=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class)
+                .returnResult().getResponseBody();
+        assertThat(firstPage).isNotNull();
+        assertThat(firstPage.getItems()).extracting(ProductResponseDto::getId).containsExactly(4L, 3L, 2L);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        webTestClient.get().uri("/api/v1/products/page?limit=3&cursor={cursor}", firstPage.getNextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class).value(page -> {
+                    assertThat(page.getItems()).containsExactly(getCardProduct());
+                    assertThat(page.getNextCursor()).isNull();
+                });
+    }
+
+    @Test
+    void searchProducts_whenQueryIsMisspelled_findsProduct() {
+        webTestClient.get().uri("/api/v1/products/search?q={q}", "test credt")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class).value(page -> {
+                    assertThat(page.getItems()).containsExactly(getCreditProduct());
+                    assertThat(page.getNextCursor()).isNull();
+                });
+    }
+
+    @Test
+    void searchProductsPages_success() {
+        ProductPageResponseDto firstPage = webTestClient.get().uri("/api/v1/products/search?q=card&type=card&limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class)
+                .returnResult().getResponseBody();
+        assertThat(firstPage).isNotNull();
+        // same rank, the greater id first
+        assertThat(firstPage.getItems()).containsExactly(getCardProduct_2());
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        webTestClient.get().uri("/api/v1/products/search?q=card&type=card&limit=1&cursor={cursor}", firstPage.getNextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class).value(page -> {
+                    assertThat(page.getItems()).containsExactly(getCardProduct());
+                    assertThat(page.getNextCursor()).isNull();
+                });
+    }
+
     @Test
     void getProductById_whenProductNotFound_fail() {
         webTestClient.get().uri("/api/v1/products/{id}", 999)
@@ -91,6 +170,17 @@ public class ProductIntegrationTest {
                 .expectBody(ProductResponseDto.class).value(getProductConsumer(expectedCardProduct));
     }
 
+    @Test
+    void getProductsByIds_success() {
+        webTestClient.get().uri("/api/v1/products/batch?ids=4,1,100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductBatchResponseDto.class).value(response -> {
+                    assertThat(response.getProducts()).extracting(ProductResponseDto::getId).containsExactly(4L, 1L);
+                    assertThat(response.getMissingIds()).containsExactly(100L);
+                });
+    }
+
     @Test
     void deleteProduct_success() {
         ProductResponseDto expectedCreditProduct = getCreditProduct();
@@ -144,6 +234,30 @@ public class ProductIntegrationTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    void addProducts_success() {
+        List<NewProductRequestDto> newProductRequestDtos = List.of(
+                new NewProductRequestDto("New card", 1, "New Test Card Description", false),
+                new NewProductRequestDto("New credit", 9999, "New Test Credit Description", false),
+                new NewProductRequestDto("New deposit", 3, "New Test Deposit Description", true));
+        webTestClient.post().uri("/api/v1/products/batch")
+                .bodyValue(newProductRequestDtos)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductBulkCreateResponseDto.class).value(response -> {
+                    assertThat(response.getCreated()).extracting(ProductResponseDto::getName)
+                            .containsExactly("New card", "New deposit");
+                    assertThat(response.getErrors()).extracting(ProductBulkCreateErrorDto::getIndex)
+                            .containsExactly(1);
+                });
+        webTestClient.get().uri("/api/v1/products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductResponseDto.class).value(response -> {
+                    assertThat(response).hasSize(6);
+                });
+    }
+
     @Test
     void updateProduct_success() {
         ProductResponseDto expectedProduct = new ProductResponseDto(1L, "Updated card", 1, "Updated Test Card Description",
@@ -156,6 +270,71 @@ public class ProductIntegrationTest {
                 .expectBody(ProductResponseDto.class).value(getProductConsumer(expectedProduct));
     }
 
+    @Test
+    void updateProduct_whenProductIsClosedAgain_keepsCloseDate() {
+        UpdateProductRequestDto closeRequestDto = new UpdateProductRequestDto(null, null, false);
+        Instant closeDate = webTestClient.put().uri("/api/v1/products/{id}", 1)
+                .bodyValue(closeRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductResponseDto.class).returnResult().getResponseBody().getCloseDate();
+        assertThat(closeDate).isNotNull();
+        webTestClient.put().uri("/api/v1/products/{id}", 1)
+                .bodyValue(new UpdateProductRequestDto("Closed card", null, false))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductResponseDto.class).value(response -> {
+                    assertThat(response.getName()).isEqualTo("Closed card");
+                    assertThat(response.getCloseDate()).isEqualTo(closeDate);
+                });
+    }
+
+    @Test
+    void updateProduct_whenIfMatchIsStale_fail() {
+        UpdateProductRequestDto updateProductRequestDto = new UpdateProductRequestDto("Updated card", null, null);
+        webTestClient.get().uri("/api/v1/products/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+        webTestClient.put().uri("/api/v1/products/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(updateProductRequestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        webTestClient.put().uri("/api/v1/products/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(updateProductRequestDto)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        webTestClient.delete().uri("/api/v1/products/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void closeProducts_success() {
+        webTestClient.post().uri("/api/v1/products/lifecycle")
+                .bodyValue(new ProductLifecycleRequestDto(null, "card", false))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductLifecycleResultDto.class).isEqualTo(List.of(
+                        new ProductLifecycleResultDto(1L, ProductLifecycleOutcome.UPDATED),
+                        new ProductLifecycleResultDto(4L, ProductLifecycleOutcome.UPDATED)));
+        webTestClient.post().uri("/api/v1/products/lifecycle")
+                .bodyValue(new ProductLifecycleRequestDto(List.of(1L, 100L), null, true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductLifecycleResultDto.class).isEqualTo(List.of(
+                        new ProductLifecycleResultDto(1L, ProductLifecycleOutcome.ALREADY_CLOSED),
+                        new ProductLifecycleResultDto(100L, ProductLifecycleOutcome.NOT_FOUND)));
+        webTestClient.get().uri("/api/v1/products/{id}", 4)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductResponseDto.class).value(response -> assertThat(response.getCloseDate()).isNotNull());
+    }
+
 
     private static Consumer<ProductResponseDto> getProductConsumer(ProductResponseDto expectedProduct) {
         return response -> {
@@ -174,6 +353,7 @@ public class ProductIntegrationTest {
         expectedProduct.setProductTypeId(1);
         expectedProduct.setDescription("Test Card Description");
         expectedProduct.setOpenDate(Instant.parse("2024-08-02T10:10:10.00Z"));
+        expectedProduct.setVersion(0L);
         return expectedProduct;
     }
 
@@ -184,6 +364,7 @@ public class ProductIntegrationTest {
         expectedProduct.setProductTypeId(1);
         expectedProduct.setDescription("Test Card 2 Description");
         expectedProduct.setOpenDate(Instant.parse("2024-08-02T10:10:10.00Z"));
+        expectedProduct.setVersion(0L);
         return expectedProduct;
     }
 
@@ -194,6 +375,7 @@ public class ProductIntegrationTest {
         expectedProduct.setProductTypeId(2);
         expectedProduct.setDescription("Test Credit Description");
         expectedProduct.setOpenDate(Instant.parse("2024-08-02T10:10:10.00Z"));
+        expectedProduct.setVersion(0L);
         return expectedProduct;
     }
 
@@ -204,6 +386,7 @@ public class ProductIntegrationTest {
         expectedProduct.setProductTypeId(3);
         expectedProduct.setDescription("Test Deposit Description");
         expectedProduct.setOpenDate(Instant.parse("2024-08-02T10:10:10.00Z"));
+        expectedProduct.setVersion(0L);
         return expectedProduct;
     }
 
@@ -0,0 +1,155 @@
+package ru.bank.omniproductcatalog.product.autocomplete;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductNameIndexTest {
+    private static final long CARD = 1L;
+    private static final long CREDIT = 2L;
+    private static final long DEPOSIT = 3L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductNameIndex productNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        productNameIndex = new ProductNameIndex(productRepository, true, 600L);
+    }
+
+    @Test
+    void complete_beforeLoad_returnsNothing() {
+        assertThat(productNameIndex.isReady()).isFalse();
+        assertThat(productNameIndex.complete("кар", null, 10)).isEmpty();
+    }
+
+    @Test
+    void complete_matchesAnyWordIgnoringCaseAndDiacritics() {
+        load(product(1L, "Кредитная карта Ёлка", CARD),
+                product(2L, "Карта «Золотая»", CARD),
+                product(3L, "Вклад Надёжный", DEPOSIT),
+                product(4L, "Credit card", CARD));
+
+        assertThat(ids(productNameIndex.complete("КАР", null, 10))).containsExactly(1L, 2L);
+        assertThat(ids(productNameIndex.complete("карта е", null, 10))).containsExactly(1L);
+        assertThat(ids(productNameIndex.complete("елк", null, 10))).containsExactly(1L);
+        assertThat(ids(productNameIndex.complete("золот", null, 10))).containsExactly(2L);
+        assertThat(ids(productNameIndex.complete("надеж", null, 10))).containsExactly(3L);
+        assertThat(ids(productNameIndex.complete("cred", null, 10))).containsExactly(4L);
+        assertThat(productNameIndex.complete("арта", null, 10)).isEmpty();
+        assertThat(productNameIndex.complete(" «» ", null, 10)).isEmpty();
+        assertThat(productNameIndex.complete("вклад", null, 10))
+                .containsExactly(new ProductSuggestionDto(3L, "Вклад Надёжный", DEPOSIT));
+    }
+
+    @Test
+    void complete_filtersByTypeAndReturnsEachProductOnceUpToLimit() {
+        load(product(1L, "Карта карта", CARD),
+                product(2L, "Кредит на карту", CREDIT),
+                product(3L, "Карта плюс", CARD),
+                product(4L, "Карта премиум", CARD));
+
+        assertThat(ids(productNameIndex.complete("кар", null, 10))).containsExactly(1L, 3L, 4L, 2L);
+        assertThat(ids(productNameIndex.complete("к", CREDIT, 10))).containsExactly(2L);
+        assertThat(ids(productNameIndex.complete("кар", CARD, 2))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void complete_byType_mergesWritesOfThatTypeOnly() {
+        load(product(1L, "Карта", CARD), product(2L, "Кредит карта", CREDIT), product(3L, "Вклад", DEPOSIT));
+        productNameIndex.productSaved(product(4L, "Кредитная карта", CREDIT));
+        productNameIndex.productSaved(product(2L, "Кредит наличными", CREDIT));
+        productNameIndex.productDeleted(1L);
+
+        assertThat(ids(productNameIndex.complete("к", CREDIT, 10))).containsExactly(4L, 2L);
+        assertThat(productNameIndex.complete("к", CARD, 10)).isEmpty();
+        assertThat(productNameIndex.complete("к", 99L, 10)).isEmpty();
+    }
+
+    @Test
+    void productSaved_andProductDeleted_updateLoadedIndex() {
+        load(product(1L, "Карта классик", CARD), product(2L, "Вклад", DEPOSIT));
+
+        productNameIndex.productSaved(product(3L, "Карта голд", CARD));
+        productNameIndex.productSaved(product(1L, "Кешбэк карта", CARD));
+        productNameIndex.productDeleted(2L);
+
+        assertThat(ids(productNameIndex.complete("карта", null, 10))).containsExactly(1L, 3L);
+        assertThat(productNameIndex.complete("класс", null, 10)).isEmpty();
+        assertThat(ids(productNameIndex.complete("кешб", null, 10))).containsExactly(1L);
+        assertThat(productNameIndex.complete("вкл", null, 10)).isEmpty();
+
+        productNameIndex.productDeleted(3L);
+
+        assertThat(ids(productNameIndex.complete("карта", null, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void productsSaved_pastCompactionThreshold_keepsEveryProduct() {
+        load(product(1L, "Вклад", DEPOSIT), product(2L, "Карта", CARD));
+        productNameIndex.productDeleted(2L);
+
+        List<ProductResponseDto> products = new ArrayList<>();
+        for (long id = 10; id < 10 + ProductNameIndex.COMPACTION_THRESHOLD; id++) {
+            products.add(product(id, "Кредит " + id, CREDIT));
+        }
+        productNameIndex.productsSaved(products);
+        productNameIndex.productSaved(product(1L, "Вклад новый", DEPOSIT));
+        StepVerifier.create(productNameIndex.compaction())
+                .verifyComplete();
+
+        assertThat(productNameIndex.deltaSize()).isLessThanOrEqualTo(1);
+        assertThat(productNameIndex.complete("кредит", null, ProductNameIndex.COMPACTION_THRESHOLD + 10))
+                .hasSize(ProductNameIndex.COMPACTION_THRESHOLD);
+        assertThat(ids(productNameIndex.complete("кредит 4095", null, 10))).containsExactly(4095L);
+        assertThat(ids(productNameIndex.complete("нов", null, 10))).containsExactly(1L);
+        assertThat(productNameIndex.complete("карта", null, 10)).isEmpty();
+    }
+
+    @Test
+    void reload_appliesWritesMadeWhileLoading() {
+        when(productRepository.streamAllOrderByOpenDate(null)).thenReturn(Flux.defer(() -> {
+            productNameIndex.productSaved(product(2L, "Кредит наличными", CREDIT));
+            productNameIndex.productDeleted(1L);
+            return Flux.just(product(1L, "Карта", CARD), product(3L, "Вклад", DEPOSIT));
+        }));
+
+        StepVerifier.create(productNameIndex.reload())
+                .verifyComplete();
+
+        assertThat(productNameIndex.isReady()).isTrue();
+        assertThat(ids(productNameIndex.complete("кредит", null, 10))).containsExactly(2L);
+        assertThat(productNameIndex.complete("карта", null, 10)).isEmpty();
+        assertThat(ids(productNameIndex.complete("вклад", null, 10))).containsExactly(3L);
+    }
+
+    private void load(ProductResponseDto... products) {
+        when(productRepository.streamAllOrderByOpenDate(null)).thenReturn(Flux.just(products));
+        StepVerifier.create(productNameIndex.reload())
+                .verifyComplete();
+    }
+
+    private static ProductResponseDto product(Long id, String name, long productTypeId) {
+        return new ProductResponseDto(id, name, productTypeId, name.toLowerCase(), null, null);
+    }
+
+    private static List<Long> ids(List<ProductSuggestionDto> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDto::getId).toList();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.bank.omniproductcatalog.product.autocomplete;
+
+import org.junit.jupiter.api.Test;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductNameSegmentTest {
+    private static final long CARD = 1L;
+    private static final long CREDIT = 2L;
+
+    @Test
+    void lowerBound_byType_coversOnlyTheEntriesOfThatType() {
+        List<ProductSuggestionDto> products = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            products.add(new ProductSuggestionDto(id, "Карта " + id, CARD));
+        }
+        products.add(new ProductSuggestionDto(1001L, "Кредит", CREDIT));
+        ProductNameSegment segment = ProductNameSegment.merge(ProductNameSegment.of(products), new long[]{1L},
+                ProductNameSegment.of(List.of(new ProductSuggestionDto(1002L, "Кредит плюс", CREDIT))));
+
+        int from = segment.lowerBound("к", CREDIT);
+        assertThat(segment.endPosition(CREDIT) - from).isEqualTo(3);
+        assertThat(segment.suggestion(segment.entry(from, CREDIT)).getId()).isEqualTo(1001L);
+        assertThat(segment.suggestion(segment.entry(from + 1, CREDIT)).getId()).isEqualTo(1002L);
+        // the keys of the 999 numbers sort before the letters
+        assertThat(segment.lowerBound("к", null)).isEqualTo(999);
+        assertThat(segment.endPosition(null)).isEqualTo(2 * 999 + 1 + 2);
+        assertThat(segment.endPosition(99L) - segment.lowerBound("к", 99L)).isZero();
+    }
+}
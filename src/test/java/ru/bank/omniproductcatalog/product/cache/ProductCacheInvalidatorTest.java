@@ -0,0 +1,107 @@
+package ru.bank.omniproductcatalog.product.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bank.omniproductcatalog.config.CacheConfig;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductCacheInvalidatorTest {
+    private static final List<String> TYPES = List.of("card", "credit", "deposit");
+    private static final int PRODUCTS = 300;
+
+    private CacheManager cacheManager;
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "productByIdTtl", 60L);
+        ReflectionTestUtils.setField(cacheConfig, "productByIdMaxSize", 10_000L);
+        ReflectionTestUtils.setField(cacheConfig, "productListTtl", 60L);
+        ReflectionTestUtils.setField(cacheConfig, "productListMaxWeight", 64L * 1024 * 1024);
+        cacheManager = cacheConfig.cacheManager();
+        productCacheInvalidator = new ProductCacheInvalidator(cacheManager);
+
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        Cache productLists = cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE);
+        List<ProductResponseDto> all = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            ProductResponseDto product = getProduct(id, "Product " + id);
+            productById.put(id, product);
+            all.add(product);
+        }
+        for (int type = 0; type < TYPES.size(); type++) {
+            long typeId = type + 1;
+            productLists.put(TYPES.get(type), all.stream().filter(p -> p.getProductTypeId() == typeId).toList());
+        }
+        productLists.put(CacheConfig.ALL_PRODUCTS_KEY, all);
+    }
+
+    @Test
+    void concurrentWritesToCards_keepUnrelatedEntries() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int offset = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long id = 1 + offset * 3L; id <= PRODUCTS; id += threads * 3L) {
+                    if (id % 2 == 0) {
+                        productCacheInvalidator.productSaved(getProduct(id, "Updated " + id), "card");
+                    } else {
+                        productCacheInvalidator.productDeleted(id, "card");
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        Cache productLists = cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE);
+        assertThat(productLists.get("card")).isNull();
+        assertThat(productLists.get(CacheConfig.ALL_PRODUCTS_KEY)).isNull();
+        assertThat(productLists.get("credit")).isNotNull();
+        assertThat(productLists.get("deposit")).isNotNull();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            ProductResponseDto cached = productById.get(id, ProductResponseDto.class);
+            if (id % 3 != 1) {
+                assertThat(cached).isEqualTo(getProduct(id, "Product " + id));
+            } else {
+                assertThat(cached).isNull();
+            }
+        }
+    }
+
+    @Test
+    void productDeleted_whenTypeIsUnknown_dropsAllLists() {
+        productCacheInvalidator.productDeleted(2L, null);
+
+        Cache productLists = cacheManager.getCache(CacheConfig.PRODUCT_LIST_BY_TYPE);
+        TYPES.forEach(type -> assertThat(productLists.get(type)).isNull());
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCT_BY_ID).get(3L)).isNotNull();
+    }
+
+    private static ProductResponseDto getProduct(long id, String name) {
+        return new ProductResponseDto(id, name, (id - 1) % 3 + 1, "Description " + id, null, null);
+    }
+}
@@ -0,0 +1,192 @@
+package ru.bank.omniproductcatalog.product.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ProductReactiveCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ProductReactiveCache productReactiveCache;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAsyncCacheMode(true);
+        meterRegistry = new SimpleMeterRegistry();
+        productReactiveCache = new ProductReactiveCache(cacheManager, meterRegistry);
+    }
+
+    @Test
+    void concurrentMisses_shareOneLoad() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", null, null);
+        Sinks.One<ProductResponseDto> query = Sinks.one();
+        AtomicInteger queries = new AtomicInteger();
+        int subscribers = 32;
+
+        Mono<List<ProductResponseDto>> results = Flux.range(0, subscribers)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> productReactiveCache.getById(1L, () -> {
+                    queries.incrementAndGet();
+                    return query.asMono();
+                }))
+                .sequential()
+                .collectList();
+
+        StepVerifier.create(results)
+                .then(() -> {
+                    await(() -> requests("productById", "load") + requests("productById", "coalesced") == subscribers);
+                    query.tryEmitValue(card);
+                })
+                .assertNext(products -> assertThat(products).hasSize(subscribers).containsOnly(card))
+                .verifyComplete();
+
+        assertThat(queries).hasValue(1);
+        assertThat(requests("productById", "load")).isEqualTo(1);
+        assertThat(requests("productById", "coalesced")).isEqualTo(subscribers - 1);
+
+        StepVerifier.create(productReactiveCache.getById(1L, Mono::empty))
+                .expectNext(card)
+                .verifyComplete();
+        assertThat(requests("productById", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void getById_whenNotFound_isNotCached() {
+        AtomicInteger queries = new AtomicInteger();
+
+        StepVerifier.create(productReactiveCache.getById(1L, () -> Mono.fromRunnable(queries::incrementAndGet)))
+                .verifyComplete();
+        StepVerifier.create(productReactiveCache.getById(1L, () -> Mono.fromRunnable(queries::incrementAndGet)))
+                .verifyComplete();
+
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void getList_isCachedOnlyAfterFluxCompletes() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", null, null);
+        ProductResponseDto card2 = new ProductResponseDto(4L, "Test Card 2", 1L, "Test Card 2 Description", null, null);
+        Sinks.Many<ProductResponseDto> rows = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger queries = new AtomicInteger();
+        Supplier<Flux<ProductResponseDto>> loader = () -> {
+            queries.incrementAndGet();
+            return rows.asFlux();
+        };
+        AtomicReference<CompletableFuture<List<ProductResponseDto>>> second = new AtomicReference<>();
+
+        StepVerifier.create(productReactiveCache.getList("card", loader))
+                .then(() -> {
+                    rows.tryEmitNext(card);
+                    second.set(productReactiveCache.getList("card", loader).collectList().toFuture());
+                })
+                .expectNoEvent(Duration.ofMillis(50))
+                .then(() -> {
+                    assertThat(second.get()).isNotDone();
+                    rows.tryEmitNext(card2);
+                    rows.tryEmitComplete();
+                })
+                .expectNext(card, card2)
+                .verifyComplete();
+
+        assertThat(second.get()).isCompletedWithValue(List.of(card, card2));
+        assertThat(requests("productListByType", "coalesced")).isEqualTo(1);
+        StepVerifier.create(productReactiveCache.getList("card", loader))
+                .expectNext(card, card2)
+                .verifyComplete();
+        assertThat(requests("productListByType", "hit")).isEqualTo(1);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void getList_whenLoadFails_isNotCached() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", null, null);
+
+        StepVerifier.create(productReactiveCache.getList("card",
+                        () -> Flux.concat(Flux.just(card), Flux.error(new IllegalStateException("Connection reset")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(productReactiveCache.getList("card", () -> Flux.just(card)))
+                .expectNext(card)
+                .verifyComplete();
+        assertThat(requests("productListByType", "load")).isEqualTo(2);
+    }
+
+    @Test
+    void getById_whenSubscriberCancels_sharedLoadContinues() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", null, null);
+        Sinks.One<ProductResponseDto> query = Sinks.one();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Supplier<Mono<ProductResponseDto>> loader = () -> query.asMono().doOnCancel(() -> cancelled.set(true));
+
+        StepVerifier.create(productReactiveCache.getById(1L, loader))
+                .thenCancel()
+                .verify();
+
+        StepVerifier.create(productReactiveCache.getById(1L, loader))
+                .then(() -> query.tryEmitValue(card))
+                .expectNext(card)
+                .verifyComplete();
+        assertThat(cancelled).isFalse();
+        assertThat(requests("productById", "load")).isEqualTo(1);
+        assertThat(requests("productById", "coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void getAllById_loadsOnlyMissingIds() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", null, null);
+        ProductResponseDto credit = new ProductResponseDto(2L, "Test Credit", 2L, "Test Credit Description", null, null);
+        StepVerifier.create(productReactiveCache.getById(1L, () -> Mono.just(card)))
+                .expectNext(card)
+                .verifyComplete();
+        List<Set<Long>> loaded = new ArrayList<>();
+
+        StepVerifier.create(productReactiveCache.getAllById(List.of(1L, 2L, 3L), missing -> {
+                    loaded.add(Set.copyOf(missing));
+                    return Mono.just(Map.of(2L, credit));
+                }))
+                .assertNext(products -> assertThat(products).containsOnly(entry(1L, card), entry(2L, credit)))
+                .verifyComplete();
+
+        assertThat(loaded).containsExactly(Set.of(2L, 3L));
+        assertThat(requests("productById", "hit")).isEqualTo(1);
+        assertThat(requests("productById", "load")).isEqualTo(3);
+    }
+
+    private double requests(String cache, String result) {
+        return meterRegistry.get("product.cache.requests").tag("cache", cache).tag("result", result).counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition was not met in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -6,22 +6,38 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 import ru.bank.omniproductcatalog.exception.ErrorHandler;
+import ru.bank.omniproductcatalog.model.exception.PreconditionFailedException;
+import ru.bank.omniproductcatalog.model.exception.ValidationError;
 import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateErrorDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
 import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
 import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
 import ru.bank.omniproductcatalog.product.service.ProductService;
 import ru.bank.omniproductcatalog.util.MonoUtils;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +56,7 @@ class ProductControllerTest {
 
     @BeforeEach
     void setup() {
-        productController = new ProductController(productService, monoUtils, 5000L);
+        productController = new ProductController(productService, monoUtils, 5000L, 50, 500, 3, 3, 3, 10, 5, 10);
         webTestClient = WebTestClient.bindToController(productController).controllerAdvice(new ErrorHandler()).build();
 
     }
@@ -54,7 +70,7 @@ class ProductControllerTest {
 
         Flux<ProductResponseDto> expectedProducts = Flux.just(cardProduct,
                 creditProduct, depositProduct, cardProduct2);
-        when(monoUtils.oksServiceCallableRight(any(Flux.class), anyLong())).thenReturn(expectedProducts);
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Flux.class), anyLong())).thenReturn(expectedProducts);
         when(productService.getAllProducts(null)).thenReturn(expectedProducts);
 
         webTestClient.get()
@@ -73,7 +89,7 @@ class ProductControllerTest {
         ProductResponseDto cardProduct2 = getCardProduct_2();
 
         Flux<ProductResponseDto> expectedProducts = Flux.just(cardProduct, cardProduct2);
-        when(monoUtils.oksServiceCallableRight(any(Flux.class), anyLong())).thenReturn(expectedProducts);
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Flux.class), anyLong())).thenReturn(expectedProducts);
         when(productService.getAllProducts("card")).thenReturn(expectedProducts);
 
         webTestClient.get()
@@ -86,13 +102,157 @@ class ProductControllerTest {
                 .contains(cardProduct, cardProduct2);
     }
 
+    @Test
+    void streamProducts_success() {
+        ProductResponseDto cardProduct = getCardProduct();
+        ProductResponseDto creditProduct = getCreditProduct();
+
+        Flux<ProductResponseDto> expectedProducts = Flux.just(cardProduct, creditProduct);
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Flux.class), anyLong())).thenReturn(expectedProducts);
+        when(productService.streamAllProducts(null)).thenReturn(expectedProducts);
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductResponseDto.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(cardProduct, creditProduct)
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductsPage_success() {
+        ProductResponseDto cardProduct = getCardProduct();
+        ProductResponseDto cardProduct2 = getCardProduct_2();
+        ProductPageResponseDto expectedPage = new ProductPageResponseDto(List.of(cardProduct, cardProduct2), "next");
+
+        when(productService.getProductsPage("card", null, 2)).thenReturn(Mono.just(expectedPage));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong())).thenReturn(Mono.just(expectedPage));
+
+        webTestClient.get()
+                .uri("/api/v1/products/page?type=card&limit=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class)
+                .isEqualTo(expectedPage);
+    }
+
+    @Test
+    void getProductsPage_whenLimitMoreThanMax_fail() {
+        webTestClient.get()
+                .uri("/api/v1/products/page?limit=501")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=limit, message=Limit must be between 1 and 500]]");
+    }
+
+    @Test
+    void searchProducts_success() {
+        ProductResponseDto cardProduct = getCardProduct();
+        ProductPageResponseDto expectedPage = new ProductPageResponseDto(List.of(cardProduct), null);
+
+        when(productService.searchProducts("test card", "card", null, 2)).thenReturn(Mono.just(expectedPage));
+        when(monoUtils.oksServiceCallableRight(eq("search_products"), any(Mono.class), anyLong())).thenReturn(Mono.just(expectedPage));
+
+        webTestClient.get()
+                .uri("/api/v1/products/search?q=test card &type=card&limit=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductPageResponseDto.class)
+                .isEqualTo(expectedPage);
+    }
+
+    @Test
+    void searchProducts_whenQueryIsBlankOrTooLong_fail() {
+        webTestClient.get()
+                .uri("/api/v1/products/search?q= ")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=q, message=Search query cannot be null or empty]]");
+
+        webTestClient.get()
+                .uri("/api/v1/products/search?q=test card 42")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=q, message=Search query must be at most 10 characters]]");
+    }
+
+    @Test
+    void autocompleteProducts_success() {
+        Flux<ProductSuggestionDto> expectedSuggestions = Flux.just(new ProductSuggestionDto(1L, "Test card", 1L));
+
+        when(productService.autocompleteProducts("Кар", "card", 5)).thenReturn(expectedSuggestions);
+        when(monoUtils.oksServiceCallableRight(eq("autocomplete_products"), any(Flux.class), anyLong())).thenReturn(expectedSuggestions);
+
+        webTestClient.get()
+                .uri("/api/v1/products/autocomplete?prefix=Кар&type=card")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductSuggestionDto.class)
+                .hasSize(1)
+                .contains(new ProductSuggestionDto(1L, "Test card", 1L));
+    }
+
+    @Test
+    void autocompleteProducts_whenPrefixIsBlankOrLimitTooLarge_fail() {
+        webTestClient.get()
+                .uri("/api/v1/products/autocomplete?prefix= &limit=11")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=prefix, message=Prefix cannot be null or empty], "
+                        + "ValidationError[field=limit, message=Limit must be between 1 and 10]]");
+    }
+
+    @Test
+    void getProductsByIds_success() {
+        ProductResponseDto cardProduct = getCardProduct();
+        ProductBatchResponseDto expectedBatch = new ProductBatchResponseDto(List.of(cardProduct), List.of(42L));
+
+        when(productService.getProductsByIds(List.of(cardProduct.getId(), 42L))).thenReturn(Mono.just(expectedBatch));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong())).thenReturn(Mono.just(expectedBatch));
+
+        webTestClient.get()
+                .uri("/api/v1/products/batch?ids=" + cardProduct.getId() + ",42")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductBatchResponseDto.class)
+                .isEqualTo(expectedBatch);
+    }
+
+    @Test
+    void getProductsByIds_whenTooManyIds_fail() {
+        webTestClient.get()
+                .uri("/api/v1/products/batch?ids=1,2,3,4")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=ids, message=No more than 3 ids can be requested at once]]");
+    }
+
     @Test
     void createProduct_success() {
         NewProductRequestDto newProductRequestDto = new NewProductRequestDto("Product Name", 1L, "Product Description", false);
         ProductResponseDto expectedProductResponseDto = new ProductResponseDto(1L, "Product Name", 1L, "Product Description", null, null);
 
         when(productService.createProduct(eq(newProductRequestDto))).thenReturn(Mono.just(expectedProductResponseDto));
-        when(monoUtils.oksServiceCallableRight(any(Mono.class), anyLong())).thenReturn(Mono.just(expectedProductResponseDto));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong())).thenReturn(Mono.just(expectedProductResponseDto));
 
         webTestClient.post()
                 .uri("/api/v1/products")
@@ -104,6 +264,80 @@ class ProductControllerTest {
                 .isEqualTo(expectedProductResponseDto);
     }
 
+    @Test
+    void createProducts_whenSomeRequestsAreInvalid_createsValidOnes() {
+        NewProductRequestDto valid = new NewProductRequestDto("Product Name", 1L, "Product Description", false);
+        NewProductRequestDto invalid = new NewProductRequestDto(null, 1L, "Product Description", false);
+        NewProductRequestDto unknownType = new NewProductRequestDto("Product Name 2", 9L, "Product Description", false);
+        ProductResponseDto created = new ProductResponseDto(1L, "Product Name", 1L, "Product Description", null, null);
+        ProductBulkCreateErrorDto unknownTypeError = new ProductBulkCreateErrorDto(2,
+                List.of(new ValidationError("productTypeId", "Product type with id 9 not found")));
+        ProductBulkCreateResponseDto serviceResponse = new ProductBulkCreateResponseDto(List.of(created), List.of(unknownTypeError));
+
+        when(productService.createProducts(Map.of(0, valid, 2, unknownType))).thenReturn(Mono.just(serviceResponse));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong())).thenReturn(Mono.just(serviceResponse));
+
+        webTestClient.post()
+                .uri("/api/v1/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(valid, invalid, unknownType))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductBulkCreateResponseDto.class)
+                .isEqualTo(new ProductBulkCreateResponseDto(List.of(created), List.of(
+                        new ProductBulkCreateErrorDto(1, List.of(new ValidationError("name", "Name cannot be null or empty"))),
+                        unknownTypeError)));
+    }
+
+    @Test
+    void createProducts_whenTooManyRequests_fail() {
+        NewProductRequestDto request = new NewProductRequestDto("Product Name", 1L, "Product Description", false);
+
+        webTestClient.post()
+                .uri("/api/v1/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(request, request, request, request))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=newProductRequestDtos, message=No more than 3 products can be created at once]]");
+    }
+
+    @Test
+    void changeLifecycle_success() {
+        ProductLifecycleRequestDto request = new ProductLifecycleRequestDto(List.of(1L, 2L, 3L), null, false);
+        List<ProductLifecycleResultDto> expected = List.of(
+                new ProductLifecycleResultDto(1L, ProductLifecycleOutcome.UPDATED),
+                new ProductLifecycleResultDto(2L, ProductLifecycleOutcome.ALREADY_CLOSED),
+                new ProductLifecycleResultDto(3L, ProductLifecycleOutcome.NOT_FOUND));
+
+        when(productService.changeLifecycle(request)).thenReturn(Flux.fromIterable(expected));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Flux.class), anyLong())).thenReturn(Flux.fromIterable(expected));
+
+        webTestClient.post()
+                .uri("/api/v1/products/lifecycle")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductLifecycleResultDto.class)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void changeLifecycle_whenIdsAndTypeAreSet_fail() {
+        ProductLifecycleRequestDto request = new ProductLifecycleRequestDto(List.of(1L), "card", true);
+
+        webTestClient.post()
+                .uri("/api/v1/products/lifecycle")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("[ValidationError[field=ids, message=Exactly one of ids or type must be set]]");
+    }
+
     @Test
     void createProduct_whenNameIsNull_fail() {
         NewProductRequestDto newProductRequestDto = new NewProductRequestDto(null, 1L, "Product Description", false);
@@ -243,23 +477,72 @@ class ProductControllerTest {
     @Test
     void updateProduct_success() {
         UpdateProductRequestDto updateProductRequestDto = new UpdateProductRequestDto("Product Name", "Product Description", false);
-        ProductResponseDto expectedProductResponseDto = new ProductResponseDto(1L, "Product Name", 1L, "Product Description", null, null);
+        ProductResponseDto expectedProductResponseDto = new ProductResponseDto(1L, "Product Name", 1L, "Product Description", null, null, 4L);
 
-        when(productService.updateProduct(1L, updateProductRequestDto))
+        when(productService.updateProduct(1L, updateProductRequestDto, 3L))
                 .thenReturn(Mono.just(expectedProductResponseDto));
-        when(monoUtils.oksServiceCallableRight(any(Mono.class), anyLong()))
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong()))
                 .thenReturn(Mono.just(expectedProductResponseDto));
 
         webTestClient.put()
                 .uri("/api/v1/products/1")
                 .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
                 .bodyValue(updateProductRequestDto)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"")
                 .expectBody(ProductResponseDto.class)
                 .isEqualTo(expectedProductResponseDto);
     }
 
+    @Test
+    void getProductById_success() {
+        ProductResponseDto cardProduct = getCardProduct();
+        cardProduct.setVersion(2L);
+
+        when(productService.getProductById(1L)).thenReturn(Mono.just(cardProduct));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong())).thenReturn(Mono.just(cardProduct));
+
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"2\"")
+                .expectBody(ProductResponseDto.class)
+                .isEqualTo(cardProduct);
+    }
+
+    @Test
+    void updateProduct_whenIfMatchIsNotAVersion_fail() {
+        UpdateProductRequestDto updateProductRequestDto = new UpdateProductRequestDto("Product Name", "Product Description", false);
+
+        webTestClient.put()
+                .uri("/api/v1/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .bodyValue(updateProductRequestDto)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void deleteProduct_whenVersionDoesNotMatch_fail() {
+        when(productService.deleteProduct(1L, 3L))
+                .thenReturn(Mono.error(new PreconditionFailedException("Product with id=1 has been modified")));
+        when(monoUtils.oksServiceCallableRight(anyString(), any(Mono.class), anyLong()))
+                .thenReturn(Mono.error(new PreconditionFailedException("Product with id=1 has been modified")));
+
+        webTestClient.delete()
+                .uri("/api/v1/products/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Product with id=1 has been modified");
+    }
+
     private static ProductResponseDto getCardProduct() {
         ProductResponseDto expectedProduct = new ProductResponseDto();
         expectedProduct.setId(1L);
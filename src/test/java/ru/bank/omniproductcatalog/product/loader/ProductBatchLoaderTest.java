@@ -0,0 +1,124 @@
+package ru.bank.omniproductcatalog.product.loader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import ru.bank.omniproductcatalog.product.repository.Product;
+import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductBatchLoaderTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductBatchLoader productBatchLoader;
+
+    @BeforeEach
+    void setUp() {
+        // the batch is flushed by size only, so the test does not depend on timing
+        productBatchLoader = new ProductBatchLoader(productRepository, true, 4, 10_000_000, 2);
+        productBatchLoader.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productBatchLoader.stop();
+    }
+
+    @Test
+    void concurrentLoads_shareOneQuery() {
+        when(productRepository.findProductsByIds(Set.of(1L, 2L, 3L, 99L)))
+                .thenReturn(Flux.just(getProduct(3L), getProduct(1L), getProduct(2L)));
+
+        Mono<Optional<Product>> missing = productBatchLoader.load(99L).map(Optional::of).defaultIfEmpty(Optional.empty());
+        StepVerifier.create(Flux.zip(productBatchLoader.load(1L), productBatchLoader.load(2L), productBatchLoader.load(3L), missing))
+                .assertNext(products -> {
+                    assertThat(products.getT1().getId()).isEqualTo(1L);
+                    assertThat(products.getT2().getId()).isEqualTo(2L);
+                    assertThat(products.getT3().getId()).isEqualTo(3L);
+                    assertThat(products.getT4()).isEmpty();
+                })
+                .verifyComplete();
+
+        verify(productRepository, times(1)).findProductsByIds(any());
+    }
+
+    @Test
+    void whenQueryFails_everyWaitingLoadFails() {
+        when(productRepository.findProductsByIds(Set.of(1L, 2L, 3L, 4L)))
+                .thenReturn(Flux.error(new IllegalStateException("Connection reset")));
+
+        StepVerifier.create(Flux.merge(productBatchLoader.load(1L), productBatchLoader.load(2L),
+                        productBatchLoader.load(3L), productBatchLoader.load(4L)))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void fullBatches_waitForARunningQueryToFinish() {
+        List<Sinks.Empty<Void>> queries = new ArrayList<>();
+        when(productRepository.findProductsByIds(any())).thenAnswer(invocation -> {
+            Sinks.Empty<Void> query = Sinks.empty();
+            queries.add(query);
+            return query.asMono().thenMany(Flux.<Product>empty());
+        });
+
+        StepVerifier.create(Flux.range(1, 12).flatMap(id -> productBatchLoader.load((long) id)))
+                .then(() -> assertThat(queries).hasSize(2))
+                .then(() -> queries.get(0).tryEmitEmpty())
+                .then(() -> assertThat(queries).hasSize(3))
+                .then(() -> queries.subList(1, 3).forEach(Sinks.Empty::tryEmitEmpty))
+                .verifyComplete();
+
+        verify(productRepository, times(3)).findProductsByIds(any());
+    }
+
+    @Test
+    void stop_failsWaitingLoads() {
+        StepVerifier.create(productBatchLoader.load(1L))
+                .then(productBatchLoader::stop)
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(productBatchLoader.isRunning()).isFalse();
+        verify(productRepository, times(0)).findProductsByIds(any());
+    }
+
+    @Test
+    void whenStopped_loadsDirectly() {
+        productBatchLoader.stop();
+        when(productRepository.findProductById(1L)).thenReturn(Mono.just(getProduct(1L)));
+
+        StepVerifier.create(productBatchLoader.load(1L))
+                .assertNext(product -> assertThat(product.getId()).isEqualTo(1L))
+                .verifyComplete();
+
+        verify(productRepository, times(0)).findProductsByIds(any());
+    }
+
+    private static Product getProduct(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Test Card " + id);
+        product.setProductTypeId(1L);
+        return product;
+    }
+}
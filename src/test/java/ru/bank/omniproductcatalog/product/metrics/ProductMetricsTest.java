@@ -0,0 +1,91 @@
+package ru.bank.omniproductcatalog.product.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.bank.omniproductcatalog.model.exception.NotFoundException;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeRegistry;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeSnapshot;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductMetricsTest {
+    private static final ProductType CARD = new ProductType(1L, "card", "Карта", null, null, null, null);
+
+    @Mock
+    private ProductTypeRegistry productTypeRegistry;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductMetrics productMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productMetrics = new ProductMetrics(meterRegistry, productTypeRegistry);
+    }
+
+    @Test
+    void timedMono_recordsOutcomeOfEachCall() {
+        StepVerifier.create(Mono.just(1).transform(productMetrics.timedMono(ProductMetrics.SERVICE, "getProductById", ProductMetrics.NO_TYPE)))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(Mono.<Integer>empty().transform(productMetrics.timedMono(ProductMetrics.SERVICE, "getProductById", ProductMetrics.NO_TYPE)))
+                .verifyComplete();
+        StepVerifier.create(Mono.<Integer>error(new NotFoundException("Product with id=1 not found"))
+                        .transform(productMetrics.timedMono(ProductMetrics.SERVICE, "getProductById", ProductMetrics.NO_TYPE)))
+                .verifyError(NotFoundException.class);
+        StepVerifier.create(Mono.<Integer>error(new IllegalStateException())
+                        .transform(productMetrics.timedMono(ProductMetrics.SERVICE, "getProductById", ProductMetrics.NO_TYPE)))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(count(ProductMetrics.SERVICE, "getProductById", "success")).isEqualTo(1);
+        assertThat(count(ProductMetrics.SERVICE, "getProductById", "empty")).isEqualTo(1);
+        assertThat(count(ProductMetrics.SERVICE, "getProductById", "not_found")).isEqualTo(1);
+        assertThat(count(ProductMetrics.SERVICE, "getProductById", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void timedFlux_isTimedPerSubscription_andCancelIsRecorded() {
+        Flux<Integer> products = Flux.range(0, 10)
+                .transform(productMetrics.timedFlux(ProductMetrics.REPOSITORY, "findResponsesByIds", ProductMetrics.NO_TYPE));
+
+        StepVerifier.create(products).expectNextCount(10).verifyComplete();
+        StepVerifier.create(products).expectNextCount(10).verifyComplete();
+        StepVerifier.create(products).expectNextCount(2).thenCancel().verify();
+
+        assertThat(count(ProductMetrics.REPOSITORY, "findResponsesByIds", "success")).isEqualTo(2);
+        assertThat(count(ProductMetrics.REPOSITORY, "findResponsesByIds", "cancelled")).isEqualTo(1);
+    }
+
+    @Test
+    void typeTag_isKnownTypeName_orUnknown() {
+        when(productTypeRegistry.current()).thenReturn(ProductTypeSnapshot.of(List.of(CARD)));
+
+        assertThat(productMetrics.typeTag("card")).isEqualTo("card");
+        assertThat(productMetrics.typeTag(1L)).isEqualTo("card");
+        assertThat(productMetrics.typeTag("made-up")).isEqualTo(ProductMetrics.UNKNOWN_TYPE);
+        assertThat(productMetrics.typeTag(42L)).isEqualTo(ProductMetrics.UNKNOWN_TYPE);
+        assertThat(productMetrics.typeTag((String) null)).isEqualTo(ProductMetrics.ALL_TYPES);
+        assertThat(productMetrics.typeTag((Long) null)).isEqualTo(ProductMetrics.ALL_TYPES);
+    }
+
+    private long count(String metric, String operation, String outcome) {
+        Timer timer = meterRegistry.find(metric)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
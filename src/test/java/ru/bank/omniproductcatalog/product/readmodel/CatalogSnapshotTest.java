@@ -0,0 +1,67 @@
+package ru.bank.omniproductcatalog.product.readmodel;
+
+import org.junit.jupiter.api.Test;
+import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogSnapshotTest {
+    private static final Instant OPEN_DATE = Instant.parse("2024-08-02T10:10:10.00Z");
+
+    @Test
+    void findAll_ordersByOpenDateDescNullsLast() {
+        ProductResponseDto notOpened = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", null, null);
+        ProductResponseDto older = new ProductResponseDto(2L, "Test Credit", 2L, "Test Credit Description", OPEN_DATE, null);
+        ProductResponseDto newer = new ProductResponseDto(3L, "Test Card 2", 1L, "Test Card 2 Description",
+                OPEN_DATE.plusSeconds(60), null);
+
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(notOpened, older, newer));
+
+        assertThat(snapshot.findAll(null)).containsExactly(newer, older, notOpened);
+        assertThat(snapshot.findAll(1L)).containsExactly(newer, notOpened);
+        assertThat(snapshot.findAll(3L)).isEmpty();
+    }
+
+    @Test
+    void withChanges_returnNewSnapshotAndKeepOriginal() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", OPEN_DATE, null);
+        ProductResponseDto updatedCard = new ProductResponseDto(1L, "Updated Card", 1L, "Test Card Description", OPEN_DATE, null);
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(card));
+
+        CatalogSnapshot updated = original.withChanges(List.of(updatedCard), List.of());
+        CatalogSnapshot deleted = updated.withChanges(List.of(), List.of(1L));
+
+        assertThat(original.findById(1L)).isEqualTo(card);
+        assertThat(updated.findById(1L)).isEqualTo(updatedCard);
+        assertThat(updated.findAll(1L)).containsExactly(updatedCard);
+        assertThat(deleted.findById(1L)).isNull();
+        assertThat(deleted.findAll(1L)).isEmpty();
+        assertThat(deleted.size()).isZero();
+    }
+
+    @Test
+    void withChanges_mergesBatchInOpenDateOrder() {
+        ProductResponseDto card = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description", OPEN_DATE, null);
+        ProductResponseDto credit = new ProductResponseDto(2L, "Test Credit", 2L, "Test Credit Description",
+                OPEN_DATE.plusSeconds(60), null);
+        ProductResponseDto deposit = new ProductResponseDto(3L, "Test Deposit", 3L, "Test Deposit Description",
+                OPEN_DATE.plusSeconds(120), null);
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(card, credit, deposit));
+
+        ProductResponseDto reopenedCard = new ProductResponseDto(1L, "Test Card", 1L, "Test Card Description",
+                OPEN_DATE.plusSeconds(180), null);
+        ProductResponseDto creditAsCard = new ProductResponseDto(2L, "Test Credit", 1L, "Test Credit Description",
+                OPEN_DATE.plusSeconds(60), null);
+        ProductResponseDto notOpened = new ProductResponseDto(4L, "Test Card 2", 1L, "Test Card 2 Description", null, null);
+        CatalogSnapshot changed = original.withChanges(List.of(notOpened, creditAsCard, reopenedCard), List.of(3L, 99L));
+
+        assertThat(changed.findAll(null)).containsExactly(reopenedCard, creditAsCard, notOpened);
+        assertThat(changed.findAll(1L)).containsExactly(reopenedCard, creditAsCard, notOpened);
+        assertThat(changed.findAll(2L)).isEmpty();
+        assertThat(changed.findAll(3L)).isEmpty();
+        assertThat(original.findAll(null)).containsExactly(deposit, credit, card);
+    }
+}
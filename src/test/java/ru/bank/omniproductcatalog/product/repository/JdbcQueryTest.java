@@ -0,0 +1,26 @@
+package ru.bank.omniproductcatalog.product.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdbcQueryTest {
+
+    @Test
+    void of_replacesEveryPlaceholder_andKeepsTheArgumentOfEachOne() {
+        JdbcQuery query = JdbcQuery.of("SELECT * FROM product WHERE (CAST($2 AS bigint) IS NULL OR version = $2) " +
+                "AND product_id = $1 AND open_date > '-infinity'::timestamp");
+
+        assertThat(query.sql()).isEqualTo("SELECT * FROM product WHERE (CAST(? AS bigint) IS NULL OR version = ?) " +
+                "AND product_id = ? AND open_date > '-infinity'::timestamp");
+        assertThat(query.parameters()).containsExactly(1, 1, 0);
+    }
+
+    @Test
+    void of_keepsTheOrderOfEveryRepositoryStatement() {
+        JdbcQuery update = JdbcQuery.of(ProductQueries.UPDATE_RETURNING_PRODUCT);
+
+        assertThat(update.sql()).doesNotContain("$");
+        assertThat(update.parameters()).containsExactly(0, 2, 3, 4, 5, 4, 5, 5, 1, 1, 4);
+    }
+}
@@ -1,34 +1,64 @@
 package ru.bank.omniproductcatalog.product.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import ru.bank.omniproductcatalog.model.exception.BadRequestException;
 import ru.bank.omniproductcatalog.model.exception.NotFoundException;
+import ru.bank.omniproductcatalog.model.exception.PreconditionFailedException;
+import ru.bank.omniproductcatalog.model.exception.ValidationError;
 import ru.bank.omniproductcatalog.model.product.NewProductRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductBatchResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateErrorDto;
+import ru.bank.omniproductcatalog.model.product.ProductBulkCreateResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleOutcome;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleRequestDto;
+import ru.bank.omniproductcatalog.model.product.ProductLifecycleResultDto;
+import ru.bank.omniproductcatalog.model.product.ProductPageResponseDto;
 import ru.bank.omniproductcatalog.model.product.ProductResponseDto;
+import ru.bank.omniproductcatalog.model.product.ProductSuggestionDto;
 import ru.bank.omniproductcatalog.model.product.UpdateProductRequestDto;
+import ru.bank.omniproductcatalog.product.autocomplete.ProductNameIndex;
+import ru.bank.omniproductcatalog.product.cache.ProductCacheInvalidator;
+import ru.bank.omniproductcatalog.product.cache.ProductReactiveCache;
+import ru.bank.omniproductcatalog.product.loader.ProductBatchLoader;
 import ru.bank.omniproductcatalog.product.mapper.ProductMapper;
+import ru.bank.omniproductcatalog.product.metrics.ProductMetrics;
+import ru.bank.omniproductcatalog.product.readmodel.CatalogReadModel;
 import ru.bank.omniproductcatalog.product.repository.Product;
+import ru.bank.omniproductcatalog.product.repository.ProductKeyset;
+import ru.bank.omniproductcatalog.product.repository.ProductLifecycleChange;
 import ru.bank.omniproductcatalog.product.repository.ProductRepository;
+import ru.bank.omniproductcatalog.product.repository.ProductSearchHit;
+import ru.bank.omniproductcatalog.product.repository.ProductSearchKeyset;
+import ru.bank.omniproductcatalog.product.repository.ProductWriteResult;
+import ru.bank.omniproductcatalog.producttype.registry.ProductTypeRegistry;
 import ru.bank.omniproductcatalog.producttype.repository.ProductType;
 import ru.bank.omniproductcatalog.producttype.service.ProductTypeService;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,18 +76,28 @@ public class ProductServiceImplTest {
     private ProductTypeService productTypeService;
 
     @Mock
-    private CacheManager cacheManager;
+    private CatalogReadModel catalogReadModel;
+
+    @Spy
+    private ProductReactiveCache productReactiveCache = new ProductReactiveCache(asyncCacheManager(), new SimpleMeterRegistry());
+
+    @Mock
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @Mock
+    private ProductBatchLoader productBatchLoader;
+
+    @Spy
+    private ProductMetrics productMetrics = new ProductMetrics(new SimpleMeterRegistry(), mock(ProductTypeRegistry.class));
+
+    @Mock
+    private ProductNameIndex productNameIndex;
 
     @Test
     void getAll4Products_withoutProductType_success() {
-        List<Product> products = getProducts();
         List<ProductResponseDto> expected = getProductsResponse();
 
-        when(productRepository.findAllOrderByOpenDate()).thenReturn(Flux.fromIterable(products));
-        when(productMapper.toProductResponseDto(getCardProduct())).thenReturn(expected.get(0));
-        when(productMapper.toProductResponseDto(getCreditProduct())).thenReturn(expected.get(1));
-        when(productMapper.toProductResponseDto(getDepositProduct())).thenReturn(expected.get(2));
-        when(productMapper.toProductResponseDto(getCardProduct_2())).thenReturn(expected.get(3));
+        when(productRepository.findResponsesOrderByOpenDate(null)).thenReturn(Flux.fromIterable(expected));
 
         Flux<ProductResponseDto> result = productService.getAllProducts(null);
 
@@ -66,24 +106,106 @@ public class ProductServiceImplTest {
 
     @Test
     void getAll2Products_withProductType_success() {
-        List<Product> products = getCardProducts();
         List<ProductResponseDto> expected = getCardProductsResponse();
 
-        when(productRepository.findAllByTypeOrderByOpenDate("card")).thenReturn(Flux.fromIterable(products));
-        when(productMapper.toProductResponseDto(getCardProduct())).thenReturn(expected.get(0));
-        when(productMapper.toProductResponseDto(getCardProduct_2())).thenReturn(expected.get(1));
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productRepository.findResponsesOrderByOpenDate(1L)).thenReturn(Flux.fromIterable(expected));
 
         Flux<ProductResponseDto> result = productService.getAllProducts("card");
 
         verifyResult2(result, expected);
     }
 
+    @Test
+    void getProductsPage_whenMoreProductsExist_returnsNextCursor() {
+        List<ProductResponseDto> expected = getProductsResponse();
+
+        when(productRepository.findPageOrderByOpenDate(null, null, 3))
+                .thenReturn(Flux.fromIterable(expected.subList(0, 3)));
+
+        Mono<ProductPageResponseDto> result = productService.getProductsPage(null, null, 2);
+
+        StepVerifier.create(result)
+                .expectNextMatches(page -> page.getItems().equals(expected.subList(0, 2))
+                        && ProductKeyset.fromCursor(page.getNextCursor()).equals(ProductKeyset.of(expected.get(1))))
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductsPage_whenLastPage_returnsNoCursor() {
+        List<ProductResponseDto> expected = getCardProductsResponse();
+        ProductKeyset after = ProductKeyset.of(getCreditProductResponse());
+
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productRepository.findPageOrderByOpenDate(eq(1L), eq(after), eq(3)))
+                .thenReturn(Flux.fromIterable(expected));
+
+        Mono<ProductPageResponseDto> result = productService.getProductsPage("card", after.toCursor(), 2);
+
+        StepVerifier.create(result)
+                .expectNextMatches(page -> page.getItems().equals(expected) && page.getNextCursor() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductsPage_whenCursorIsInvalid_fail() {
+        Mono<ProductPageResponseDto> result = productService.getProductsPage(null, "not a cursor", 2);
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Invalid cursor"))
+                .verify();
+    }
+
+    @Test
+    void searchProducts_whenMoreHitsExist_returnsNextCursor() {
+        List<ProductResponseDto> expected = getCardProductsResponse();
+        ProductSearchKeyset after = new ProductSearchKeyset(0.5f, 5L);
+        List<ProductSearchHit> hits = List.of(new ProductSearchHit(expected.get(0), 0.4f),
+                new ProductSearchHit(expected.get(1), 0.1f), new ProductSearchHit(getCreditProductResponse(), 0.1f));
+
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productRepository.searchProducts("карта", 1L, after, 3)).thenReturn(Flux.fromIterable(hits));
+
+        Mono<ProductPageResponseDto> result = productService.searchProducts("карта", "card", after.toCursor(), 2);
+
+        StepVerifier.create(result)
+                .expectNextMatches(page -> page.getItems().equals(expected)
+                        && ProductSearchKeyset.fromCursor(page.getNextCursor()).equals(ProductSearchKeyset.of(hits.get(1))))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchProducts_whenCursorIsInvalid_fail() {
+        Mono<ProductPageResponseDto> result = productService.searchProducts("карта", null, new ProductKeyset(null, 1L).toCursor(), 2);
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals("Invalid cursor"))
+                .verify();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void autocompleteProducts_withProductType_completesFromIndex() {
+        List<ProductSuggestionDto> expected = List.of(new ProductSuggestionDto(1L, "Test card", 1L));
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productNameIndex.complete("tes", 1L, 5)).thenReturn(expected);
+
+        Flux<ProductSuggestionDto> result = productService.autocompleteProducts("tes", "card", 5);
+
+        StepVerifier.create(result)
+                .expectNextSequence(expected)
+                .verifyComplete();
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void getProductById_success() {
         List<Product> products = getCardProducts();
         ProductResponseDto expected = getCardProductResponse();
 
-        when(productRepository.findProductById(1L)).thenReturn(Mono.just(products.get(0)));
+        when(productBatchLoader.load(1L)).thenReturn(Mono.just(products.get(0)));
         when(productMapper.toProductResponseDto(getCardProduct())).thenReturn(expected);
 
         Mono<ProductResponseDto> result = productService.getProductById(1L);
@@ -93,9 +215,103 @@ public class ProductServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getProductsByIds_queriesOnlyIdsMissingFromCache() {
+        ProductResponseDto card = getCardProductResponse();
+        ProductResponseDto card2 = getCardProductResponse_2();
+        when(productBatchLoader.load(1L)).thenReturn(Mono.just(getCardProduct()));
+        when(productRepository.findResponsesByIds(Set.of(4L, 99L))).thenReturn(Flux.just(card2));
+        when(productMapper.toProductResponseDto(getCardProduct())).thenReturn(card);
+        productService.getProductById(1L).block();
+
+        Mono<ProductBatchResponseDto> result = productService.getProductsByIds(List.of(4L, 1L, 99L, 4L));
+
+        StepVerifier.create(result)
+                .expectNext(new ProductBatchResponseDto(List.of(card2, card), List.of(99L)))
+                .verifyComplete();
+        verify(productRepository, times(1)).findResponsesByIds(Set.of(4L, 99L));
+    }
+
+    @Test
+    void getAllProducts_whenCached_doesNotQueryRepositoryAgain() {
+        List<ProductResponseDto> expected = getCardProductsResponse();
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productRepository.findResponsesOrderByOpenDate(1L)).thenReturn(Flux.fromIterable(expected));
+
+        verifyResult2(productService.getAllProducts("card"), expected);
+        verifyResult2(productService.getAllProducts("card"), expected);
+
+        verify(productRepository, times(1)).findResponsesOrderByOpenDate(1L);
+    }
+
+    @Test
+    void getAllProducts_whenLoadFails_errorIsNotCached() {
+        List<ProductResponseDto> expected = getCardProductsResponse();
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productRepository.findResponsesOrderByOpenDate(1L))
+                .thenReturn(Flux.concat(Flux.fromIterable(expected), Flux.error(new IllegalStateException("Connection reset"))))
+                .thenReturn(Flux.fromIterable(expected));
+
+        StepVerifier.create(productService.getAllProducts("card"))
+                .expectError(IllegalStateException.class)
+                .verify();
+        verifyResult2(productService.getAllProducts("card"), expected);
+
+        verify(productRepository, times(2)).findResponsesOrderByOpenDate(1L);
+    }
+
+    @Test
+    void getAllProducts_whenReadModelIsReady_doesNotQueryRepository() {
+        List<ProductResponseDto> expected = getCardProductsResponse();
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(catalogReadModel.findAll(1L)).thenReturn(Optional.of(expected));
+
+        Flux<ProductResponseDto> result = productService.getAllProducts("card");
+
+        verifyResult2(result, expected);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getAllProducts_whenProductTypeIsUnknown_failsWithoutQueryingProducts() {
+        when(productTypeService.getProductTypeByName("unknown"))
+                .thenReturn(Mono.error(new NotFoundException("Product type with name unknown not found")));
+
+        Flux<ProductResponseDto> result = productService.getAllProducts("unknown");
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof NotFoundException
+                        && throwable.getMessage().equals("Product type with name unknown not found"))
+                .verify();
+        verifyNoInteractions(productRepository, catalogReadModel);
+    }
+
+    @Test
+    void streamAllProducts_withProductType_filtersByProductTypeId() {
+        List<ProductResponseDto> expected = getCardProductsResponse();
+        when(productTypeService.getProductTypeByName("card")).thenReturn(Mono.just(getCardType()));
+        when(productRepository.streamAllOrderByOpenDate(1L)).thenReturn(Flux.fromIterable(expected));
+
+        Flux<ProductResponseDto> result = productService.streamAllProducts("card");
+
+        verifyResult2(result, expected);
+    }
+
+    @Test
+    void getProductById_whenReadModelIsReady_doesNotQueryRepository() {
+        when(catalogReadModel.findById(1L)).thenReturn(Optional.of(Optional.empty()));
+
+        Mono<ProductResponseDto> result = productService.getProductById(1L);
+
+        StepVerifier.create(result)
+                .expectError(NotFoundException.class)
+                .verify();
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void getProductByIdNotFound_fail() {
-        when(productRepository.findProductById(anyLong())).thenReturn(Mono.empty());
+        when(productBatchLoader.load(anyLong())).thenReturn(Mono.empty());
 
         Mono<ProductResponseDto> result = productService.getProductById(1L);
 
@@ -107,9 +323,10 @@ public class ProductServiceImplTest {
 
     @Test
     void deleteProductByIdNotFound_fail() {
-        when(productRepository.findProductById(anyLong())).thenReturn(Mono.empty());
+        when(productRepository.deleteProduct(1L, null)).thenReturn(Mono.empty());
+        when(catalogReadModel.deleting(eq(1L), any())).thenAnswer(invocation -> invocation.getArgument(1));
 
-        Mono<Void> result = productService.deleteProduct(1L);
+        Mono<Void> result = productService.deleteProduct(1L, null);
 
         StepVerifier.create(result)
                 .expectErrorMatches(throwable -> throwable instanceof NotFoundException
@@ -120,13 +337,29 @@ public class ProductServiceImplTest {
     @Test
     void deleteProductById_success() {
         Product product = getCardProduct();
-        when(productRepository.findProductById(anyLong())).thenReturn(Mono.just(product));
-        when(productRepository.deleteById(1L)).thenReturn(Mono.empty());
+        product.setProductType(new ProductType(1L, "card", "Карта", null, null, null, null));
+        when(productRepository.deleteProduct(1L, null)).thenReturn(Mono.just(new ProductWriteResult(product, 0L)));
+        when(catalogReadModel.deleting(eq(1L), any())).thenAnswer(invocation -> invocation.getArgument(1));
 
-        Mono<Void> result = productService.deleteProduct(1L);
+        Mono<Void> result = productService.deleteProduct(1L, null);
 
         StepVerifier.create(result)
                 .verifyComplete();
+        verify(productCacheInvalidator).productDeleted(1L, "card");
+        verify(productNameIndex).productDeleted(1L);
+    }
+
+    @Test
+    void deleteProduct_whenVersionDoesNotMatch_fail() {
+        when(productRepository.deleteProduct(1L, 2L)).thenReturn(Mono.just(new ProductWriteResult(null, 3L)));
+        when(catalogReadModel.deleting(eq(1L), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        Mono<Void> result = productService.deleteProduct(1L, 2L);
+
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verifyNoInteractions(productCacheInvalidator);
     }
 
     @Test
@@ -139,14 +372,108 @@ public class ProductServiceImplTest {
         StepVerifier.create(result)
                 .expectNextMatches(p -> p.getId() != null && p.equals(expected))
                 .verifyComplete();
+        verify(productCacheInvalidator).productSaved(expected, "card");
+        verify(productNameIndex).productSaved(expected);
+    }
+
+    @Test
+    void createProduct_whenProductTypeNotExists_failsWithoutInsert() {
+        NewProductRequestDto request = new NewProductRequestDto("New card", 9L, "New Card Description", false);
+        when(productTypeService.getProductTypeById(9L))
+                .thenReturn(Mono.error(new NotFoundException("Product type with id 9 not found")));
+
+        Mono<ProductResponseDto> result = productService.createProduct(request);
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof NotFoundException
+                        && throwable.getMessage().equals("Product type with id 9 not found"))
+                .verify();
+        verifyNoInteractions(productRepository, productCacheInvalidator);
+    }
+
+    @Test
+    void createProduct_whenProductTypeDeletedAfterLookup_fail() {
+        NewProductRequestDto request = new NewProductRequestDto("New card", 9L, "New Card Description", false);
+        when(productTypeService.getProductTypeById(9L))
+                .thenReturn(Mono.just(new ProductType(9L, "legacy", "description", null, null, null, null)));
+        when(productMapper.toProduct(request)).thenReturn(new Product());
+        when(productRepository.insertProduct(any())).thenReturn(Mono.error(new DataIntegrityViolationException(
+                "insert or update on table \"product\" violates foreign key constraint \"fk_product_product_type\"")));
+
+        Mono<ProductResponseDto> result = productService.createProduct(request);
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof NotFoundException
+                        && throwable.getMessage().equals("Product type with id 9 not found"))
+                .verify();
+        verifyNoInteractions(productCacheInvalidator);
+    }
+
+    @Test
+    void createProducts_insertsAllAtOnceAndReportsUnknownTypes() {
+        NewProductRequestDto cardRequest = new NewProductRequestDto("New card", 1L, "New Card Description", false);
+        NewProductRequestDto unknownTypeRequest = new NewProductRequestDto("New product", 9L, "New Product Description", true);
+        Product card = new Product(null, "New card", 1L, "New Card Description", null, null, null, null, null, null, null, null);
+        ProductType cardType = new ProductType(1L, "card", "description", null, null, null, null);
+        ProductResponseDto expected = new ProductResponseDto(1L, "New card", 1L, "New Card Description", null, null);
+        when(productMapper.toProduct(cardRequest)).thenReturn(card);
+        when(productTypeService.getProductTypeById(1L)).thenReturn(Mono.just(cardType));
+        when(productTypeService.getProductTypeById(9L))
+                .thenReturn(Mono.error(new NotFoundException("Product type with id 9 not found")));
+        when(productRepository.insertAll(List.of(card))).thenAnswer(invocation -> {
+            card.setId(1L);
+            return Flux.just(card);
+        });
+        when(productMapper.toProductResponseDto(card)).thenReturn(expected);
+
+        Mono<ProductBulkCreateResponseDto> result = productService.createProducts(Map.of(0, cardRequest, 3, unknownTypeRequest));
+
+        StepVerifier.create(result)
+                .expectNext(new ProductBulkCreateResponseDto(List.of(expected), List.of(new ProductBulkCreateErrorDto(3,
+                        List.of(new ValidationError("productTypeId", "Product type with id 9 not found"))))))
+                .verifyComplete();
+        verify(productRepository, times(1)).insertAll(any());
+        verify(productCacheInvalidator, times(1)).productsSaved(List.of(expected), Set.of("card"));
+        verify(productNameIndex, times(1)).productsSaved(List.of(expected));
+    }
+
+    @Test
+    void changeLifecycle_byIds_reportsEveryRequestedId() {
+        ProductLifecycleRequestDto request = new ProductLifecycleRequestDto(List.of(4L, 1L, 99L, 4L), null, false);
+        when(productRepository.changeLifecycle(eq(Set.of(4L, 1L, 99L)), eq(null), eq(false), any())).thenReturn(Flux.just(
+                new ProductLifecycleChange(1L, "card", ProductLifecycleOutcome.ALREADY_CLOSED, null),
+                new ProductLifecycleChange(4L, "card", ProductLifecycleOutcome.UPDATED, 1L)));
+
+        Flux<ProductLifecycleResultDto> result = productService.changeLifecycle(request);
+
+        StepVerifier.create(result)
+                .expectNext(new ProductLifecycleResultDto(4L, ProductLifecycleOutcome.UPDATED))
+                .expectNext(new ProductLifecycleResultDto(1L, ProductLifecycleOutcome.ALREADY_CLOSED))
+                .expectNext(new ProductLifecycleResultDto(99L, ProductLifecycleOutcome.NOT_FOUND))
+                .verifyComplete();
+        verify(productCacheInvalidator, times(1)).productsChanged(List.of(4L), Set.of("card"));
+        verify(catalogReadModel, times(1)).productSaved(4L, 1L);
+    }
+
+    @Test
+    void changeLifecycle_whenTypeNotFound_fail() {
+        ProductLifecycleRequestDto request = new ProductLifecycleRequestDto(null, "unknown", true);
+        when(productTypeService.getProductTypeByName("unknown"))
+                .thenReturn(Mono.error(new NotFoundException("Product type with name unknown not found")));
+
+        StepVerifier.create(productService.changeLifecycle(request))
+                .expectError(NotFoundException.class)
+                .verify();
+        verifyNoInteractions(productRepository, productCacheInvalidator);
     }
 
     @Test
     void updateProduct_whenProductNotFound_fail() {
         UpdateProductRequestDto request = new UpdateProductRequestDto("Update card", "Update Card Description", false);
-        when(productRepository.findProductById(any())).thenReturn(Mono.empty());
+        when(productRepository.updateProduct(eq(1L), eq(null), eq("Update card"), eq("Update Card Description"), eq(false), any()))
+                .thenReturn(Mono.empty());
 
-        Mono<ProductResponseDto> result = productService.updateProduct(1L, request);
+        Mono<ProductResponseDto> result = productService.updateProduct(1L, request, null);
 
         StepVerifier.create(result)
                 .expectErrorMatches(throwable -> throwable instanceof NotFoundException &&
@@ -156,15 +483,12 @@ public class ProductServiceImplTest {
 
     @Test
     void updateProduct_whenProductIsAlreadyClosed_fail() {
-        Product product = new Product();
-        product.setId(1L);
-        product.setOpenDate(Instant.now());
-        product.setCloseDate(Instant.now());
-        when(productRepository.findProductById(any())).thenReturn(Mono.just(product));
+        when(productRepository.updateProduct(eq(1L), eq(3L), eq("Update card"), eq("Update Card Description"), eq(true), any()))
+                .thenReturn(Mono.just(new ProductWriteResult(null, 3L)));
 
         UpdateProductRequestDto updateProductRequestDto = new UpdateProductRequestDto("Update card", "Update Card Description", true);
 
-        Mono<ProductResponseDto> result = productService.updateProduct(1L, updateProductRequestDto);
+        Mono<ProductResponseDto> result = productService.updateProduct(1L, updateProductRequestDto, 3L);
 
         StepVerifier.create(result)
                 .expectErrorMatches(throwable -> throwable instanceof BadRequestException &&
@@ -172,34 +496,38 @@ public class ProductServiceImplTest {
                 .verify();
     }
 
+    @Test
+    void updateProduct_whenVersionDoesNotMatch_fail() {
+        UpdateProductRequestDto request = new UpdateProductRequestDto("Update card", "Update Card Description", null);
+        when(productRepository.updateProduct(eq(1L), eq(2L), eq("Update card"), eq("Update Card Description"), eq(null), any()))
+                .thenReturn(Mono.just(new ProductWriteResult(null, 3L)));
+
+        Mono<ProductResponseDto> result = productService.updateProduct(1L, request, 2L);
+
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof PreconditionFailedException &&
+                        throwable.getMessage().equals("Product with id=1 has been modified"))
+                .verify();
+        verifyNoInteractions(productCacheInvalidator);
+    }
+
     @Test
     void updateProduct_success() {
         UpdateProductRequestDto updateProductRequestDto = new UpdateProductRequestDto("Update card", "Update description", true);
         ProductResponseDto expected = new ProductResponseDto(1L, "Updated name", 1L, "Update description", null, null);
-        Product product = new Product(1L, "Update card", 1L, "Updated Card Description", null, null, null, null, null, null, null);
-        when(productRepository.findProductById(any())).thenReturn(Mono.just(product));
-        when(productRepository.save(product)).thenReturn(Mono.just(product));
+        Product product = new Product(1L, "Update card", 1L, "Updated Card Description", null, null, null, null, null, null, null, null);
+        product.setProductType(new ProductType(1L, "card", "Карта", null, null, null, null));
+        when(productRepository.updateProduct(eq(1L), eq(null), eq("Update card"), eq("Update description"), eq(true), any()))
+                .thenReturn(Mono.just(new ProductWriteResult(product, 0L)));
         when(productMapper.toProductResponseDto(product)).thenReturn(expected);
-        Cache mockCache = Mockito.mock(Cache.class);
-        when(cacheManager.getCache("products")).thenReturn(mockCache);
-        doNothing().when(mockCache).put(anyLong(), any());
-        doNothing().when(mockCache).evict(expected.getId());
-        doNothing().when(mockCache).clear();
 
-        Mono<ProductResponseDto> result = productService.updateProduct(1L, updateProductRequestDto);
+        Mono<ProductResponseDto> result = productService.updateProduct(1L, updateProductRequestDto, null);
 
         StepVerifier.create(result)
                 .expectNextMatches(dto -> dto.getName().equals("Updated name") && dto.getDescription().equals("Update description"))
                 .verifyComplete();
-    }
-
-    private static List<Product> getProducts() {
-        List<Product> products = new ArrayList<>();
-        products.add(getCardProduct());
-        products.add(getCreditProduct());
-        products.add(getDepositProduct());
-        products.add(getCardProduct_2());
-        return products;
+        verify(productCacheInvalidator).productSaved(expected, "card");
+        verify(productNameIndex).productSaved(expected);
     }
 
     private static List<Product> getCardProducts() {
@@ -293,16 +621,6 @@ public class ProductServiceImplTest {
         return expectedProduct;
     }
 
-    private static Product getCreditProduct() {
-        Product expectedProduct = new Product();
-        expectedProduct.setId(2L);
-        expectedProduct.setName("Test Credit");
-        expectedProduct.setProductTypeId(2L);
-        expectedProduct.setDescription("Test Credit Description");
-        expectedProduct.setOpenDate(Instant.parse("2024-08-02T10:10:10.00Z"));
-        return expectedProduct;
-    }
-
     private static ProductResponseDto getDepositProductResponse() {
         ProductResponseDto expectedProduct = new ProductResponseDto();
         expectedProduct.setId(3L);
@@ -313,28 +631,24 @@ public class ProductServiceImplTest {
         return expectedProduct;
     }
 
-    private static Product getDepositProduct() {
-        Product expectedProduct = new Product();
-        expectedProduct.setId(3L);
-        expectedProduct.setName("Test Deposit");
-        expectedProduct.setProductTypeId(3L);
-        expectedProduct.setDescription("Test Deposit Description");
-        expectedProduct.setOpenDate(Instant.parse("2024-08-02T10:10:10.00Z"));
-        return expectedProduct;
-    }
-
     private ProductResponseDto getProductResponseDto(NewProductRequestDto request) {
         ProductResponseDto expected = new ProductResponseDto(1L, "New card", 1L, "New Card Description", null, null);
-        Product card = new Product(1L, "New card", 1L, "New Card Description", null, null, null, null, null, null, null);
-        ProductType cardType = new ProductType(1L, "card", "description", null, null, null, null);
+        Product card = new Product(1L, "New card", 1L, "New Card Description", null, null, null, null, null, null, null, null);
+        card.setProductType(new ProductType(1L, "card", "description", null, null, null, null));
+        when(productTypeService.getProductTypeById(1L)).thenReturn(Mono.just(getCardType()));
         when(productMapper.toProduct(request)).thenReturn(card);
-        when(productTypeService.getProductTypeById(1L)).thenReturn(Mono.just(cardType));
-        when(productRepository.save(card)).thenReturn(Mono.just(card));
+        when(productRepository.insertProduct(card)).thenReturn(Mono.just(card));
         when(productMapper.toProductResponseDto(card)).thenReturn(expected);
-        Cache mockCache = Mockito.mock(Cache.class);
-        when(cacheManager.getCache("products")).thenReturn(mockCache);
-        doNothing().when(mockCache).put(expected.getId(), expected);
-        doNothing().when(mockCache).clear();
         return expected;
     }
-}
\ No newline at end of file
+
+    private static ProductType getCardType() {
+        return new ProductType(1L, "card", "description", null, null, null, null);
+    }
+
+    private static CaffeineCacheManager asyncCacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAsyncCacheMode(true);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.bank.omniproductcatalog.producttype.registry;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import ru.bank.omniproductcatalog.producttype.repository.ProductType;
+import ru.bank.omniproductcatalog.producttype.repository.ProductTypeRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductTypeRegistryTest {
+    private static final ProductType CARD = new ProductType(1L, "card", "Карта", null, null, null, null);
+    private static final ProductType CREDIT = new ProductType(2L, "credit", "Кредит", null, null, null, null);
+    private static final ProductType DEPOSIT = new ProductType(3L, "deposit", "Вклад", null, null, null, null);
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private ProductTypeRepository productTypeRepository;
+
+    private ProductTypeRegistry productTypeRegistry;
+
+    @BeforeEach
+    void setUp() {
+        productTypeRegistry = new ProductTypeRegistry(connectionFactory, productTypeRepository, 300L, 10L);
+    }
+
+    @Test
+    void snapshot_isLoadedOnceAndSharedByLaterCalls() {
+        when(productTypeRepository.findAll()).thenReturn(Flux.just(CREDIT, CARD));
+
+        ProductTypeSnapshot first = productTypeRegistry.snapshot().block();
+        ProductTypeSnapshot second = productTypeRegistry.snapshot().block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.findAll()).containsExactly(CARD, CREDIT);
+        verify(productTypeRepository, times(1)).findAll();
+    }
+
+    @Test
+    void snapshot_returnsSameInstanceByIdAndByName() {
+        when(productTypeRepository.findAll()).thenReturn(Flux.just(CARD, CREDIT));
+
+        ProductTypeSnapshot snapshot = productTypeRegistry.snapshot().block();
+
+        assertThat(snapshot.findById(1L)).isSameAs(CARD);
+        assertThat(snapshot.findByName("card")).isSameAs(CARD);
+        assertThat(snapshot.findById(9L)).isNull();
+        assertThat(snapshot.findByName("unknown")).isNull();
+        assertThat(snapshot.findById(null)).isNull();
+    }
+
+    @Test
+    void reload_swapsInNewSnapshot() {
+        when(productTypeRepository.findAll())
+                .thenReturn(Flux.just(CARD))
+                .thenReturn(Flux.just(CARD, DEPOSIT));
+        ProductTypeSnapshot before = productTypeRegistry.snapshot().block();
+
+        StepVerifier.create(productTypeRegistry.reload())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ProductTypeSnapshot after = productTypeRegistry.snapshot().block();
+        assertThat(before.findByName("deposit")).isNull();
+        assertThat(after.findByName("deposit")).isSameAs(DEPOSIT);
+        assertThat(after.size()).isEqualTo(2);
+    }
+
+    @Test
+    void reload_whenLoadFails_keepsPreviousSnapshot() {
+        when(productTypeRepository.findAll())
+                .thenReturn(Flux.just(CARD))
+                .thenReturn(Flux.error(new IllegalStateException("connection refused")));
+        ProductTypeSnapshot before = productTypeRegistry.snapshot().block();
+
+        StepVerifier.create(productTypeRegistry.reload())
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(productTypeRegistry.snapshot().block()).isSameAs(before);
+    }
+}
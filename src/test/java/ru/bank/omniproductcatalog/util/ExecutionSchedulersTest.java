@@ -0,0 +1,46 @@
+package ru.bank.omniproductcatalog.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutionSchedulersTest {
+
+    @Test
+    void scheduler_usesTheOperationPolicy_andTheDefaultForOtherOperations() {
+        ExecutionSchedulers executionSchedulers = new ExecutionSchedulers(ExecutionPolicy.EVENT_LOOP,
+                Map.of("get_products_page", ExecutionPolicy.PARALLEL));
+        try {
+            assertThat(executionSchedulers.policy("get_product_by_id")).isEqualTo(ExecutionPolicy.EVENT_LOOP);
+            assertThat(executionSchedulers.scheduler("get_product_by_id")).isNull();
+            assertThat(executionSchedulers.policy("get_products_page")).isEqualTo(ExecutionPolicy.PARALLEL);
+            assertThat(executionSchedulers.scheduler("get_products_page")).isNotNull();
+        } finally {
+            executionSchedulers.dispose();
+        }
+        assertThat(executionSchedulers.isDisposed()).isTrue();
+    }
+
+    @Test
+    void oksServiceCallableRight_publishesOnTheSchedulerOfThePolicy() {
+        ExecutionSchedulers executionSchedulers = new ExecutionSchedulers(ExecutionPolicy.EVENT_LOOP,
+                Map.of("create_product", ExecutionPolicy.BOUNDED_ELASTIC));
+        MonoUtils monoUtils = new MonoUtils(executionSchedulers);
+        try {
+            StepVerifier.create(monoUtils.oksServiceCallableRight("create_product",
+                            Mono.fromSupplier(() -> "product"), 1000L).map(value -> Thread.currentThread().getName()))
+                    .assertNext(thread -> assertThat(thread).startsWith("workers-elastic"))
+                    .verifyComplete();
+            StepVerifier.create(monoUtils.oksServiceCallableRight("get_product_by_id",
+                            Mono.fromSupplier(() -> "product"), 1000L).map(value -> Thread.currentThread().getName()))
+                    .assertNext(thread -> assertThat(thread).isEqualTo(Thread.currentThread().getName()))
+                    .verifyComplete();
+        } finally {
+            executionSchedulers.dispose();
+        }
+    }
+}